@@ -0,0 +1,92 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+import java.util.Arrays;
+
+/**
+ * Loaded assets indexed by the integer handle returned by preload, so resolving a handle is an array read.
+ * The low bits of a handle are its slot and the high bits a generation bumped whenever the slot is reused,
+ * so the handle of an unloaded asset never resolves to the asset loaded after it.
+ */
+@UnstableApi
+public class AssetRegistry {
+
+    private static final int SLOT_BITS = 16;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile AudioAsset[] assets = new AudioAsset[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int nextSlot = 0;
+
+    public synchronized int add(AudioAsset asset) throws Exception {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (nextSlot > SLOT_MASK) {
+                throw new Exception("Too many assets loaded");
+            }
+            slot = nextSlot++;
+            if (slot == assets.length) {
+                int capacity = Math.min(assets.length * 2, SLOT_MASK + 1);
+                generations = Arrays.copyOf(generations, capacity);
+                freeSlots = Arrays.copyOf(freeSlots, capacity);
+                assets = Arrays.copyOf(assets, capacity);
+            }
+        }
+        int handle = (generations[slot] << SLOT_BITS) | slot;
+        asset.setHandle(handle);
+        AudioAsset[] table = assets;
+        table[slot] = asset;
+        // Publishes the slot write to readers of the volatile table
+        assets = table;
+        return handle;
+    }
+
+    public AudioAsset get(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        AudioAsset[] table = assets;
+        int slot = handle & SLOT_MASK;
+        AudioAsset asset = slot < table.length ? table[slot] : null;
+        return asset != null && asset.getHandle() == handle ? asset : null;
+    }
+
+    public synchronized void remove(AudioAsset asset) {
+        int handle = asset.getHandle();
+        if (get(handle) != asset) {
+            return;
+        }
+        int slot = handle & SLOT_MASK;
+        AudioAsset[] table = assets;
+        table[slot] = null;
+        assets = table;
+        // Generations stay positive so handles are never negative
+        generations[slot] = (generations[slot] + 1) & (Integer.MAX_VALUE >> SLOT_BITS);
+        freeSlots[freeCount++] = slot;
+        asset.setHandle(-1);
+    }
+
+    /**
+     * Empties every slot. Generations are bumped rather than reset, so handles given out before still never resolve.
+     */
+    public synchronized void clear() {
+        AudioAsset[] table = assets;
+        freeCount = 0;
+        // Pushed in reverse so the lowest slots are reused first
+        for (int slot = nextSlot - 1; slot >= 0; slot--) {
+            AudioAsset asset = table[slot];
+            if (asset != null) {
+                table[slot] = null;
+                asset.setHandle(-1);
+            }
+            generations[slot] = (generations[slot] + 1) & (Integer.MAX_VALUE >> SLOT_BITS);
+            freeSlots[freeCount++] = slot;
+        }
+        assets = table;
+    }
+}
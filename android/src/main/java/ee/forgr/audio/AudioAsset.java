@@ -2,40 +2,52 @@ package ee.forgr.audio;
 
 import android.content.res.AssetFileDescriptor;
 import android.os.Build;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
+import android.os.SystemClock;
 import androidx.annotation.RequiresApi;
 import androidx.media3.common.util.UnstableApi;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 @UnstableApi
 public class AudioAsset implements AutoCloseable {
 
     public static final double DEFAULT_FADE_DURATION_MS = 1000.0;
+    public static final FadeCurve DEFAULT_FADE_CURVE = FadeCurve.LINEAR;
+    public static final FadeCurve DEFAULT_VOLUME_CURVE = FadeCurve.EXPONENTIAL;
 
     private static final String TAG = "AudioAsset";
     private static final Logger logger = new Logger(TAG);
+    // MediaPlayer does not report its memory use, a prepared player holds roughly this much in codec and extractor buffers
+    private static final long PREPARED_PLAYER_BYTES = 256 * 1024;
+    // Assets used more recently than this are not evicted, e.g. between the steps of a sequencer pattern
+    private static final long MIN_IDLE_MS = 5000;
 
     private final ArrayList<AudioDispatcher> audioList;
+    private final AssetFileDescriptor assetFileDescriptor;
+    private final int audioChannelNum;
+    private float playerVolume;
+    private float playerRate = 1.0f;
     protected int playIndex = 0;
+    protected int priority = 1;
+    protected VoiceAllocator.StealPolicy stealPolicy;
+    protected volatile AudioGroup group;
     protected final NativeAudio owner;
     protected AudioCompletionListener completionListener;
     protected String assetId;
-    protected Handler currentTimeHandler;
-    protected Runnable currentTimeRunnable;
     protected static final int FADE_DELAY_MS = 80; // Delay between fade steps in milliseconds
+    protected static final double TIME_UNAVAILABLE = -1;
+    protected static final double TIME_STOPPED = Double.NaN;
 
-    protected ScheduledExecutorService fadeExecutor;
-    protected ScheduledFuture<?> fadeTask;
+    protected FadeScheduler.Task fadeTask;
 
-    protected Map<String, Boolean> dispatchedCompleteMap = new ConcurrentHashMap<>();
+    protected volatile boolean completeDispatched = false;
+    private volatile int handle = -1;
+    // Play waiting for its delay on the audio thread
+    private Runnable delayedPlay;
+    private int cachePriority = 0;
+    private volatile boolean evicted = false;
+    private volatile boolean pinned = false;
+    private double evictedDuration = 0;
+    protected volatile long lastUsedAt = SystemClock.elapsedRealtime();
 
     protected enum FadeState {
         NONE,
@@ -46,46 +58,108 @@ public class AudioAsset implements AutoCloseable {
 
     protected FadeState fadeState = FadeState.NONE;
 
-    protected final float zeroVolume = 0.001f; // Minimum volume to avoid zero for exponential fade
-    protected final float maxVolume = 1.0f; // Maximum volume
-
     AudioAsset(NativeAudio owner, String assetId, AssetFileDescriptor assetFileDescriptor, int audioChannelNum, float volume)
         throws Exception {
         audioList = new ArrayList<>();
         this.owner = owner;
         this.assetId = assetId;
-        this.fadeExecutor = Executors.newSingleThreadScheduledExecutor();
 
         if (audioChannelNum < 0) {
             audioChannelNum = 1;
         }
+        this.assetFileDescriptor = assetFileDescriptor;
+        this.audioChannelNum = assetFileDescriptor != null ? audioChannelNum : 0;
+        this.playerVolume = volume;
+        createVoices();
+    }
 
+    private void createVoices() throws Exception {
         for (int x = 0; x < audioChannelNum; x++) {
-            AudioDispatcher audioDispatcher = new AudioDispatcher(assetFileDescriptor, volume);
+            AudioDispatcher audioDispatcher = new AudioDispatcher(assetFileDescriptor, playerVolume);
             audioList.add(audioDispatcher);
             if (audioChannelNum == 1) audioDispatcher.setOwner(this);
         }
     }
 
+    public void setPriority(int priority) {
+        this.priority = priority;
+        for (int x = 0; x < audioList.size(); x++) {
+            audioList.get(x).setPriority(priority);
+        }
+    }
+
+    /**
+     * Policy used when every voice of the asset, or of the engine, is busy. Null follows the global default.
+     */
+    public void setStealPolicy(VoiceAllocator.StealPolicy stealPolicy) {
+        this.stealPolicy = stealPolicy;
+    }
+
+    protected VoiceAllocator.StealPolicy getStealPolicy() {
+        return stealPolicy != null ? stealPolicy : VoiceAllocator.getDefaultPolicy();
+    }
+
+    public AudioGroup getGroup() {
+        return group;
+    }
+
+    public void setGroup(AudioGroup group) {
+        this.group = group;
+        onGroupGainChanged();
+    }
+
+    protected float getGroupGain() {
+        AudioGroup group = this.group;
+        return group != null ? group.getGain() : 1f;
+    }
+
+    /**
+     * Called when the gain of the group changes. Engines reading the group gain while rendering ignore it.
+     */
+    protected void onGroupGainChanged() {
+        float groupGain = getGroupGain();
+        for (AudioDispatcher audio : audioList) {
+            if (audio != null) {
+                audio.setGroupGain(groupGain);
+            }
+        }
+    }
+
+    /**
+     * Picks the dispatcher a new trigger plays on and points playIndex at it.
+     */
+    private AudioDispatcher nextVoice() throws Exception {
+        if (audioList.isEmpty()) {
+            throw new Exception("AudioDispatcher is null");
+        }
+        VoiceAllocator.StealPolicy policy = getStealPolicy();
+        AudioDispatcher audio = VoiceAllocator.allocate(audioList, policy, priority);
+        if (audio == null || !VoiceAllocator.admit(audio, policy, priority)) {
+            throw new Exception("No voice available for " + assetId);
+        }
+        if (audio.isBusy()) {
+            audio.release();
+        }
+        playIndex = audioList.indexOf(audio);
+        return audio;
+    }
+
     public void dispatchComplete() {
-        if (dispatchedCompleteMap.getOrDefault(this.assetId, false)) {
+        if (completeDispatched) {
             return;
         }
         this.owner.dispatchComplete(this.assetId);
-        dispatchedCompleteMap.put(this.assetId, true);
+        completeDispatched = true;
     }
 
     public void play(double time, float volume) throws Exception {
-        if (audioList.isEmpty() || playIndex < 0 || playIndex >= audioList.size()) {
-            throw new Exception("AudioDispatcher is null or playIndex out of bounds");
-        }
-        AudioDispatcher audio = audioList.get(playIndex);
+        ensureResident();
+        playerVolume = volume;
+        AudioDispatcher audio = nextVoice();
         if (audio != null) {
             cancelFade();
             audio.play(time);
             audio.setVolume(volume);
-            playIndex++;
-            playIndex = playIndex % audioList.size();
             logger.debug("Starting timer from play"); // Debug log
             startCurrentTimeUpdates(); // Make sure this is called
         } else {
@@ -94,6 +168,7 @@ public class AudioAsset implements AutoCloseable {
     }
 
     public double getDuration() {
+        if (evicted) return evictedDuration;
         if (audioList.size() != 1 || playIndex < 0 || playIndex >= audioList.size()) return 0;
         AudioDispatcher audio = audioList.get(playIndex);
         if (audio != null) {
@@ -164,11 +239,10 @@ public class AudioAsset implements AutoCloseable {
     }
 
     public void loop() throws Exception {
-        AudioDispatcher audio = audioList.get(playIndex);
+        ensureResident();
+        AudioDispatcher audio = nextVoice();
         if (audio != null) {
             audio.loop();
-            playIndex++;
-            playIndex = playIndex % audioList.size();
             startCurrentTimeUpdates(); // Add timer start
         } else {
             throw new Exception("AudioDispatcher is null");
@@ -180,6 +254,7 @@ public class AudioAsset implements AutoCloseable {
         for (int x = 0; x < audioList.size(); x++) {
             AudioDispatcher audio = audioList.get(x);
             if (audio != null) {
+                VoiceAllocator.forget(audio);
                 audio.unload();
             } else {
                 throw new Exception("AudioDispatcher is null");
@@ -187,17 +262,22 @@ public class AudioAsset implements AutoCloseable {
         }
         audioList.clear();
         stopCurrentTimeUpdates();
-        close(); // Ensure fadeExecutor is shutdown
+        close(); // Cancel any running fade
     }
 
     public void setVolume(float volume, double duration) throws Exception {
+        setVolume(volume, duration, DEFAULT_VOLUME_CURVE);
+    }
+
+    public void setVolume(float volume, double duration, FadeCurve curve) throws Exception {
+        playerVolume = volume;
         for (int x = 0; x < audioList.size(); x++) {
             AudioDispatcher audio = audioList.get(x);
 
             cancelFade();
             if (audio != null) {
                 if (isPlaying() && duration > 0) {
-                    fadeTo(audio, duration, volume);
+                    rampVolume(audio.getVolume(), volume, duration, curve, volumeOf(audio), null);
                 } else {
                     audio.setVolume(volume);
                 }
@@ -219,6 +299,7 @@ public class AudioAsset implements AutoCloseable {
 
     @RequiresApi(api = Build.VERSION_CODES.M)
     public void setRate(float rate) throws Exception {
+        playerRate = rate;
         for (int x = 0; x < audioList.size(); x++) {
             AudioDispatcher audio = audioList.get(x);
             if (audio != null) {
@@ -234,6 +315,14 @@ public class AudioAsset implements AutoCloseable {
         return false;
     }
 
+    /**
+     * Sets the region repeated by loop, in seconds. A loopEnd of 0 or less means the end of the audio.
+     * Only engines playing from decoded memory support it.
+     */
+    public void setLoopRegion(double loopStart, double loopEnd) throws Exception {
+        logger.warning("Loop regions are only supported by the pcm and mixer engines, ignoring for " + assetId);
+    }
+
     public void setCompletionListener(AudioCompletionListener listener) {
         this.completionListener = listener;
     }
@@ -248,329 +337,328 @@ public class AudioAsset implements AutoCloseable {
         return assetId;
     }
 
-    public void setCurrentTime(double time) throws Exception {
-        if (owner == null || owner.getActivity() == null) return;
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        if (audioList.size() != 1 || playIndex < 0 || playIndex >= audioList.size()) {
-                            return;
-                        }
-                        AudioDispatcher audio = audioList.get(playIndex);
-                        if (audio != null) {
-                            audio.setCurrentPosition(time);
-                        }
-                    }
-                }
-            );
+    /**
+     * Handle of the asset in the {@link AssetRegistry}, -1 when it is not registered.
+     */
+    public int getHandle() {
+        return handle;
     }
 
-    protected void startCurrentTimeUpdates() {
-        logger.debug("Starting timer updates");
-        if (currentTimeHandler == null) {
-            currentTimeHandler = new Handler(Looper.getMainLooper());
+    void setHandle(int handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Bytes of decoded or prepared audio held in memory for playback, counted against the {@link ClipCache} budget.
+     * Engines the cache cannot evict report 0.
+     */
+    public long getResidentBytes() {
+        return audioChannelNum * PREPARED_PLAYER_BYTES;
+    }
+
+    /**
+     * Assets with a lower cache priority are evicted first.
+     */
+    public int getCachePriority() {
+        return cachePriority;
+    }
+
+    public void setCachePriority(int cachePriority) {
+        this.cachePriority = cachePriority;
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Pinned assets are never evicted, e.g. while the sequencer pattern references them.
+     */
+    void setPinned(boolean pinned) {
+        this.pinned = pinned;
+    }
+
+    /**
+     * Whether nothing is playing or paused, so the memory of the asset can be freed.
+     */
+    protected boolean isIdle() throws Exception {
+        for (AudioDispatcher audio : audioList) {
+            if (audio != null && audio.isBusy()) return false;
         }
-        dispatchedCompleteMap.put(assetId, false);
-        currentTimeHandler.postDelayed(
-            new Runnable() {
-                @Override
-                public void run() {
-                    startTimeUpdateLoop();
-                }
-            },
-            100
-        );
+        return true;
     }
 
-    private void startTimeUpdateLoop() {
-        currentTimeRunnable = new Runnable() {
-            @Override
-            public void run() {
-                AudioDispatcher audio = null;
-                try {
-                    if (audioList.isEmpty() || playIndex < 0 || playIndex >= audioList.size()) {
-                        logger.verbose("Audio dispatcher does not exist at index " + playIndex);
-                        return;
-                    }
-                    audio = audioList.get(playIndex);
-                } catch (Exception e) {
-                    logger.verbose("Audio dispatcher does not exist at index " + playIndex);
-                }
-                if (audio == null) {
-                    logger.debug("Audio dispatcher does not exist - aborting timer update");
-                    return;
-                }
-                try {
-                    if (audio != null && audio.isPlaying()) {
-                        double currentTime = getCurrentPosition();
-                        logger.verbose("Play timer update: currentTime = " + currentTime);
-                        if (owner != null) owner.notifyCurrentTime(assetId, currentTime);
-                        currentTimeHandler.postDelayed(this, 100);
-                    } else {
-                        logger.debug("Audio is not not playing");
-                        stopCurrentTimeUpdates();
-                        if (audio.isPaused()) {
-                            logger.verbose("Audio is paused");
-                        } else {
-                            logger.verbose("Audio is not paused - dispatching complete");
-                            dispatchComplete();
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.error("Error getting current time", e);
-                    stopCurrentTimeUpdates();
-                }
+    /**
+     * Frees the memory counted by {@link #getResidentBytes()}. Only called while the asset is idle.
+     */
+    protected void releaseResources() throws Exception {
+        evictedDuration = getDuration();
+        for (AudioDispatcher audio : audioList) {
+            if (audio != null) {
+                VoiceAllocator.forget(audio);
+                audio.unload();
             }
-        };
+        }
+        audioList.clear();
+        playIndex = 0;
+    }
+
+    /**
+     * Recreates what {@link #releaseResources()} freed, with the volume, rate and priority last set.
+     */
+    protected void rebuildResources() throws Exception {
+        createVoices();
+        setPriority(priority);
+        onGroupGainChanged();
+        if (playerRate != 1.0f && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            setRate(playerRate);
+        }
+    }
+
+    /**
+     * Frees the memory of the asset for the {@link ClipCache} when it is idle and was not used recently.
+     * The next play rebuilds it.
+     */
+    final synchronized boolean evict() {
+        if (evicted || pinned || delayedPlay != null || getResidentBytes() <= 0) return false;
+        if (SystemClock.elapsedRealtime() - lastUsedAt < MIN_IDLE_MS) return false;
         try {
-            if (currentTimeHandler == null) {
-                currentTimeHandler = new Handler(Looper.getMainLooper());
-            }
-            currentTimeHandler.post(currentTimeRunnable);
+            if (!isIdle()) return false;
+            releaseResources();
+            evicted = true;
+            return true;
         } catch (Exception e) {
-            logger.error("Error starting current time updates", e);
+            logger.error("Error evicting " + assetId, e);
+            return false;
         }
     }
 
-    void stopCurrentTimeUpdates() {
-        logger.verbose("Stopping play timer updates");
-        if (currentTimeHandler != null && currentTimeRunnable != null) {
-            currentTimeHandler.removeCallbacks(currentTimeRunnable);
-            currentTimeHandler = null;
-            currentTimeRunnable = null;
+    /**
+     * Rebuilds the asset if the {@link ClipCache} evicted it, and marks it as used. Engines call it before starting playback.
+     */
+    protected final synchronized void ensureResident() throws Exception {
+        lastUsedAt = SystemClock.elapsedRealtime();
+        if (evicted) {
+            rebuildResources();
+            evicted = false;
+            logger.debug("Rebuilt " + assetId + " in " + (SystemClock.elapsedRealtime() - lastUsedAt) + " ms");
+        }
+        if (owner != null) {
+            owner.getClipCache().touch(this);
         }
     }
 
-    public void playWithFadeIn(double time, float volume, double fadeInDurationMs) throws Exception {
-        AudioDispatcher audio = audioList.get(playIndex);
-        if (audio != null) {
-            audio.setVolume(0);
-            audio.play(time);
-            fadeIn(audio, fadeInDurationMs, volume);
-            startCurrentTimeUpdates();
-        }
+    synchronized void setDelayedPlay(Runnable delayedPlay) {
+        this.delayedPlay = delayedPlay;
     }
 
-    private void fadeIn(final AudioDispatcher audio, double fadeInDurationMs, float targetVolume) {
-        cancelFade();
-        fadeState = FadeState.FADE_IN;
-
-        final int steps = Math.max(1, (int) (fadeInDurationMs / FADE_DELAY_MS));
-        final float fadeStep = targetVolume / steps;
-
-        Log.d(
-            TAG,
-            "Beginning fade in at time " +
-            getCurrentPosition() +
-            " over " +
-            (fadeInDurationMs / 1000.0) +
-            "s to target volume " +
-            targetVolume +
-            " in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s"
-        );
+    /**
+     * Removes and returns the play waiting for its delay, if any.
+     */
+    synchronized Runnable takeDelayedPlay() {
+        Runnable runnable = delayedPlay;
+        delayedPlay = null;
+        return runnable;
+    }
 
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
+    public void setCurrentTime(double time) throws Exception {
+        if (owner == null || owner.getActivity() == null) return;
+        AudioThread.post(
             new Runnable() {
-                float currentVolume = 0;
-
                 @Override
                 public void run() {
-                    if (fadeState != FadeState.FADE_IN || currentVolume >= targetVolume) {
-                        fadeState = FadeState.NONE;
-                        cancelFade();
-                        logger.debug("Fade in complete at time " + getCurrentPosition());
+                    if (audioList.size() != 1 || playIndex < 0 || playIndex >= audioList.size()) {
                         return;
                     }
-                    final float previousCurrentVolume = currentVolume;
-                    currentVolume += fadeStep;
-                    try {
-                        final float resolvedTargetVolume = Math.min(Math.max(currentVolume, 0), targetVolume);
-                        Log.v(
-                            TAG,
-                            "Fade in step: from " + previousCurrentVolume + " to " + currentVolume + " to target " + resolvedTargetVolume
-                        );
-                        if (audio != null) audio.setVolume(resolvedTargetVolume);
-                    } catch (Exception e) {
-                        logger.error("Error during fade in", e);
-                        cancelFade();
+                    AudioDispatcher audio = audioList.get(playIndex);
+                    if (audio != null) {
+                        audio.setCurrentPosition(time);
                     }
                 }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
+            }
         );
     }
 
-    public void stopWithFade(double fadeOutDurationMs, boolean toPause) throws Exception {
-        AudioDispatcher audio = audioList.get(playIndex);
-        if (audio != null && audio.isPlaying()) {
-            cancelFade();
-            fadeOut(audio, fadeOutDurationMs, toPause);
+    protected void startCurrentTimeUpdates() {
+        logger.debug("Starting timer updates");
+        completeDispatched = false;
+        if (owner != null) {
+            owner.getTimeTicker().register(this);
         }
     }
 
-    private void fadeOut(final AudioDispatcher audio, double fadeOutDurationMs, boolean toPause) {
-        cancelFade();
-        fadeState = FadeState.FADE_OUT;
-
-        if (audio == null) return;
-
-        final int steps = Math.max(1, (int) (fadeOutDurationMs / FADE_DELAY_MS));
-        final float initialVolume = audio.getVolume();
-        final float fadeStep = initialVolume / steps;
-
-        Log.d(
-            TAG,
-            "Beginning fade out from volume " +
-            initialVolume +
-            " at time " +
-            getCurrentPosition() +
-            " over " +
-            (fadeOutDurationMs / 1000.0) +
-            "s in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s)"
-        );
+    /**
+     * Called by the {@link TimeTicker} on the {@link AudioThread} while the asset is registered.
+     *
+     * @return the position to report in seconds, {@link #TIME_UNAVAILABLE} to keep polling without reporting,
+     * or {@link #TIME_STOPPED} once playback ended, which unregisters the asset
+     */
+    protected double pollCurrentTime() throws Exception {
+        AudioDispatcher audio = null;
+        if (playIndex >= 0 && playIndex < audioList.size()) {
+            audio = audioList.get(playIndex);
+        }
+        if (audio == null) {
+            logger.verbose("Audio dispatcher does not exist at index " + playIndex);
+            return TIME_STOPPED;
+        }
+        if (audio.isPlaying()) {
+            double currentTime = getCurrentPosition();
+            logger.verbose("Play timer update: currentTime = " + currentTime);
+            return currentTime;
+        }
+        logger.debug("Audio is not not playing");
+        if (audio.isPaused()) {
+            logger.verbose("Audio is paused");
+        } else {
+            logger.verbose("Audio is not paused - dispatching complete");
+            dispatchComplete();
+        }
+        return TIME_STOPPED;
+    }
 
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
-            new Runnable() {
-                float currentVolume = initialVolume;
+    void stopCurrentTimeUpdates() {
+        logger.verbose("Stopping play timer updates");
+        if (owner != null) {
+            owner.getTimeTicker().unregister(this);
+        }
+    }
 
-                @Override
-                public void run() {
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs) throws Exception {
+        playWithFadeIn(time, volume, fadeInDurationMs, DEFAULT_FADE_CURVE);
+    }
+
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs, FadeCurve curve) throws Exception {
+        ensureResident();
+        playerVolume = volume;
+        AudioDispatcher audio = nextVoice();
+        if (audio != null) {
+            audio.setVolume(0);
+            audio.play(time);
+            logger.debug("Beginning fade in at time " + getCurrentPosition() + " over " + (fadeInDurationMs / 1000.0) + "s");
+            rampVolume(0f, volume, fadeInDurationMs, curve, volumeOf(audio), null);
+            startCurrentTimeUpdates();
+        }
+    }
+
+    public void stopWithFade(double fadeOutDurationMs, boolean toPause) throws Exception {
+        stopWithFade(fadeOutDurationMs, toPause, DEFAULT_FADE_CURVE);
+    }
+
+    public void stopWithFade(double fadeOutDurationMs, boolean toPause, FadeCurve curve) throws Exception {
+        if (audioList.isEmpty()) return;
+        AudioDispatcher audio = audioList.get(playIndex);
+        if (audio != null && audio.isPlaying()) {
+            logger.debug("Beginning fade out at time " + getCurrentPosition() + " over " + (fadeOutDurationMs / 1000.0) + "s");
+            rampVolume(
+                audio.getVolume(),
+                0f,
+                fadeOutDurationMs,
+                curve,
+                volumeOf(audio),
+                () -> {
                     try {
-                        if (fadeState != FadeState.FADE_OUT || currentVolume <= 0) {
-                            fadeState = FadeState.NONE;
-                            if (toPause) {
-                                logger.verbose("Faded out to pause audio at time " + getCurrentPosition());
-                                audio.pause();
-                            } else {
-                                logger.verbose("Faded out to stop at time " + getCurrentPosition());
-                                stop();
-                            }
-                            cancelFade();
-                            logger.debug("Fade out complete at time " + getCurrentPosition());
-                            return;
+                        if (toPause) {
+                            logger.verbose("Faded out to pause audio at time " + getCurrentPosition());
+                            audio.pause();
+                        } else {
+                            logger.verbose("Faded out to stop at time " + getCurrentPosition());
+                            stop();
                         }
-                        final float previousCurrentVolume = currentVolume;
-                        currentVolume -= fadeStep;
-
-                        final float thisTargetVolume = Math.max(currentVolume, 0);
-                        Log.v(
-                            TAG,
-                            "Fade out step: from " + previousCurrentVolume + " to " + currentVolume + " to target " + thisTargetVolume
-                        );
-                        if (audio != null) audio.setVolume(thisTargetVolume);
                     } catch (Exception e) {
-                        logger.error("Error during fade out", e);
-                        cancelFade();
+                        logger.error("Error finishing fade out", e);
                     }
                 }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
-        );
+            );
+        }
     }
 
-    private void fadeTo(final AudioDispatcher audio, double fadeDurationMs, float targetVolume) {
-        cancelFade();
-        fadeState = FadeState.FADE_TO;
-
-        if (audio == null) return;
-
-        final int steps = Math.max(1, (int) (fadeDurationMs / FADE_DELAY_MS));
-        final float minVolume = zeroVolume;
-        final float initialVolume = Math.max(audio.getVolume(), minVolume);
-        final float finalTargetVolume = Math.max(targetVolume, minVolume);
-
-        // Clamp values to avoid overflow/underflow and invalid pow inputs
-        final float safeInitialVolume = Math.max(initialVolume, minVolume);
-        final float safeFinalTargetVolume = Math.max(finalTargetVolume, minVolume);
+    /**
+     * Receives the gain computed at each step of {@link #rampVolume}.
+     */
+    protected interface GainTarget {
+        void apply(float gain);
+    }
 
-        double ratio;
-        if (steps <= 0 || safeInitialVolume <= 0f || safeFinalTargetVolume <= 0f) {
-            ratio = 1.0; // No fade or invalid, just set directly
-        } else if (safeInitialVolume == safeFinalTargetVolume) {
-            ratio = 1.0;
-        } else {
-            ratio = Math.pow(safeFinalTargetVolume / safeInitialVolume, 1.0 / steps);
-            // Clamp ratio to reasonable bounds to avoid overflow
-            if (Double.isNaN(ratio) || Double.isInfinite(ratio) || ratio <= 0.0) {
-                ratio = 1.0;
+    private GainTarget volumeOf(AudioDispatcher audio) {
+        return (gain) -> {
+            try {
+                audio.setVolume(gain);
+            } catch (Exception e) {
+                logger.error("Error during fade", e);
+                cancelFade();
             }
-        }
+        };
+    }
 
-        Log.d(
-            TAG,
-            "Beginning exponential fade from volume " +
-            initialVolume +
-            " to " +
-            finalTargetVolume +
-            " over " +
-            (fadeDurationMs / 1000.0) +
-            "s in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s, ratio: " +
-            ratio +
-            ")"
-        );
+    /**
+     * Ramps a gain from one value to another along the curve, then runs onDone.
+     * Gains are computed on the {@link FadeScheduler}, while the target and onDone run on the {@link AudioThread}.
+     */
+    protected void rampVolume(float from, float to, double durationMs, FadeCurve curve, GainTarget target, Runnable onDone) {
+        cancelFade();
+        fadeState = FadeState.FADE_TO;
 
-        double finalRatio = ratio;
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
-            new Runnable() {
-                int currentStep = 0;
-                float currentVolume = initialVolume;
+        RampStep ramp = new RampStep(from, to, Math.max(1, (int) (durationMs / FADE_DELAY_MS)), curve, target, onDone);
+        fadeTask = FadeScheduler.schedule(ramp, FADE_DELAY_MS);
+        ramp.task = fadeTask;
+    }
 
-                @Override
-                public void run() {
-                    if ((audio != null && fadeState != FadeState.FADE_TO) || !audio.isPlaying() || currentStep >= steps) {
-                        fadeState = FadeState.NONE;
-                        cancelFade();
-                        logger.debug("Fade to complete at time " + getCurrentPosition());
-                        return;
-                    }
+    /**
+     * One fade, stepped by the {@link FadeScheduler}. Steps still queued on the audio thread when the fade is cancelled are dropped.
+     */
+    private final class RampStep implements Runnable {
+
+        private final float from;
+        private final float to;
+        private final int steps;
+        private final FadeCurve curve;
+        private final GainTarget target;
+        private final Runnable onDone;
+        // Set right after scheduling, before any step can reach the audio thread when the fade starts there
+        volatile FadeScheduler.Task task;
+        private int step = 0;
+
+        RampStep(float from, float to, int steps, FadeCurve curve, GainTarget target, Runnable onDone) {
+            this.from = from;
+            this.to = to;
+            this.steps = steps;
+            this.curve = curve;
+            this.target = target;
+            this.onDone = onDone;
+        }
 
-                    try {
-                        if (finalRatio == 1.0) {
-                            currentVolume = safeFinalTargetVolume;
-                        } else {
-                            currentVolume *= (float) finalRatio;
-                        }
-                        currentVolume = Math.min(Math.max(currentVolume, minVolume), maxVolume); // Clamp between minVolume and maxVolume
-                        if (audio != null) audio.setVolume(currentVolume);
-                        logger.verbose("Fade to step " + currentStep + ": volume set to " + currentVolume);
-                        currentStep++;
-                    } catch (Exception e) {
-                        logger.error("Error during fade to", e);
-                        cancelFade();
+        @Override
+        public void run() {
+            if (step >= steps) {
+                // Finished, waiting for the audio thread to cancel the task
+                return;
+            }
+            step++;
+            final float gain = curve.apply(from, to, Math.min(1f, (float) step / steps));
+            final boolean last = step >= steps;
+            AudioThread.post(() -> {
+                FadeScheduler.Task task = this.task;
+                if (task != null && task.isCancelled()) {
+                    return;
+                }
+                target.apply(gain);
+                if (last) {
+                    cancelFade();
+                    if (onDone != null) {
+                        onDone.run();
                     }
                 }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
-        );
+            });
+        }
     }
 
     /**
-     * Cancels the fade task if it is running.
+     * Cancels the fade task if it is running. Engines fading inside their own render path override it.
      */
-    private void cancelFade() {
+    protected void cancelFade() {
         if (fadeTask != null && !fadeTask.isCancelled()) {
-            fadeTask.cancel(true);
+            fadeTask.cancel();
         }
         fadeState = FadeState.NONE;
         fadeTask = null;
@@ -578,9 +666,7 @@ public class AudioAsset implements AutoCloseable {
 
     @Override
     public void close() {
-        if (fadeExecutor != null && !fadeExecutor.isShutdown()) {
-            fadeExecutor.shutdown();
-        }
+        cancelFade();
     }
 
     @Override
@@ -17,7 +17,8 @@ import androidx.media3.common.util.UnstableApi;
 
 @UnstableApi
 public class AudioDispatcher
-    implements MediaPlayer.OnPreparedListener, MediaPlayer.OnCompletionListener, MediaPlayer.OnSeekCompleteListener {
+    implements
+        MediaPlayer.OnPreparedListener, MediaPlayer.OnCompletionListener, MediaPlayer.OnSeekCompleteListener, VoiceAllocator.Voice {
 
     private final String TAG = "AudioDispatcher";
     private final MediaPlayer mediaPlayer;
@@ -25,6 +26,9 @@ public class AudioDispatcher
     private AudioAsset owner;
 
     private float currentVolume = 1.0f;
+    private float groupGain = 1.0f;
+    private int priority = 1;
+    private volatile long startedAt = 0;
 
     public AudioDispatcher(AssetFileDescriptor assetFileDescriptor, float volume) throws Exception {
         mediaState = INVALID;
@@ -56,6 +60,36 @@ public class AudioDispatcher
         owner = asset;
     }
 
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public boolean isBusy() {
+        int state = mediaState;
+        return state == PENDING_PLAY || state == PLAYING || state == PENDING_LOOP || state == LOOPING || state == PAUSE;
+    }
+
+    @Override
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void release() {
+        try {
+            stop();
+        } catch (Exception ex) {
+            Log.v(TAG, "Caught exception while releasing voice: " + ex.getLocalizedMessage());
+        }
+        mediaState = INVALID;
+    }
+
     public double getDuration() {
         return mediaPlayer.getDuration() / 1000.0;
     }
@@ -89,7 +123,7 @@ public class AudioDispatcher
     }
 
     public void stop() throws Exception {
-        if (mediaPlayer.isPlaying()) {
+        if (mediaPlayer.isPlaying() || mediaState == PAUSE) {
             mediaState = INVALID;
             mediaPlayer.pause();
             mediaPlayer.seekTo(0);
@@ -97,10 +131,16 @@ public class AudioDispatcher
     }
 
     public void setVolume(float volume) throws Exception {
-        mediaPlayer.setVolume(volume, volume);
+        mediaPlayer.setVolume(volume * groupGain, volume * groupGain);
         currentVolume = volume;
     }
 
+    public void setGroupGain(float groupGain) {
+        this.groupGain = groupGain;
+        mediaPlayer.setVolume(currentVolume * groupGain, currentVolume * groupGain);
+    }
+
+    @Override
     public float getVolume() {
         return currentVolume;
     }
@@ -113,8 +153,10 @@ public class AudioDispatcher
     }
 
     public void loop() throws Exception {
+        startedAt = System.nanoTime();
         mediaPlayer.setLooping(true);
         mediaPlayer.start();
+        mediaState = LOOPING;
     }
 
     public void unload() throws Exception {
@@ -163,6 +205,7 @@ public class AudioDispatcher
     }
 
     private void invokePlay(Double time) {
+        startedAt = System.nanoTime();
         try {
             boolean playing = mediaPlayer.isPlaying();
 
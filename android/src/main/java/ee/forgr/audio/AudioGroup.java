@@ -0,0 +1,116 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Named mix bus assets are tagged with at preload, e.g. sfx, music or voice.
+ * The bus gain is read directly by the mixer and by the ExoPlayer gain processors while they render,
+ * so changing it costs one write whatever the number of members. Engines without a render hook of their own
+ * (MediaPlayer, SoundPool, static AudioTrack) are told about the change and re-apply their volume.
+ */
+@UnstableApi
+public class AudioGroup {
+
+    private static final String TAG = "AudioGroup";
+    private static final Logger logger = new Logger(TAG);
+    private static final long FADE_STEP_MS = 20;
+
+    private final String name;
+    private final List<AudioAsset> members = new CopyOnWriteArrayList<>();
+    private volatile float volume = 1f;
+    private volatile boolean muted = false;
+    private FadeScheduler.Task fadeTask;
+
+    public AudioGroup(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<AudioAsset> getMembers() {
+        return members;
+    }
+
+    void add(AudioAsset asset) {
+        members.add(asset);
+    }
+
+    void remove(AudioAsset asset) {
+        members.remove(asset);
+    }
+
+    /**
+     * Bus gain applied on top of the volume of every member.
+     */
+    public float getGain() {
+        return muted ? 0f : volume;
+    }
+
+    public float getVolume() {
+        return volume;
+    }
+
+    public boolean isMuted() {
+        return muted;
+    }
+
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+        notifyMembers();
+    }
+
+    public synchronized void setVolume(float volume, double durationMs, FadeCurve curve) {
+        if (fadeTask != null) {
+            fadeTask.cancel();
+            fadeTask = null;
+        }
+        if (durationMs <= 0) {
+            applyVolume(volume);
+            return;
+        }
+        logger.debug("Fading group " + name + " to " + volume + " over " + (durationMs / 1000.0) + "s");
+        final float from = this.volume;
+        final long start = System.nanoTime();
+        final FadeScheduler.Task[] task = new FadeScheduler.Task[1];
+        task[0] = FadeScheduler.schedule(
+            new Runnable() {
+                boolean finished = false;
+
+                @Override
+                public void run() {
+                    if (!finished) {
+                        float progress = (float) Math.min(1.0, (System.nanoTime() - start) / 1000000.0 / durationMs);
+                        applyVolume(curve.apply(from, volume, progress));
+                        finished = progress >= 1f;
+                    }
+                    // The task may not be published yet on the very first step
+                    if (finished && task[0] != null) {
+                        task[0].cancel();
+                    }
+                }
+            },
+            FADE_STEP_MS
+        );
+        fadeTask = task[0];
+    }
+
+    private void applyVolume(float volume) {
+        this.volume = volume;
+        notifyMembers();
+    }
+
+    /**
+     * Members re-apply their volume on the audio thread, also when a group fade steps on the {@link FadeScheduler}.
+     */
+    private void notifyMembers() {
+        AudioThread.run(() -> {
+            for (AudioAsset asset : members) {
+                asset.onGroupGainChanged();
+            }
+        });
+    }
+}
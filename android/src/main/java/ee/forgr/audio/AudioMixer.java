@@ -0,0 +1,570 @@
+package ee.forgr.audio;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.os.Build;
+import android.os.Process;
+import androidx.media3.common.util.UnstableApi;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Software mixer that sums every active voice into one float buffer and writes it to a single output {@link AudioTrack}.
+ * The render loop runs on a dedicated audio-priority thread and neither allocates nor posts: voices that end are handed
+ * to the audio thread through a lock-free ring it drains while the mixer runs.
+ * Voices are preallocated, the control methods only flip voice fields under {@link #lock}.
+ * Voice stealing goes through the {@link VoiceAllocator} like the other engines, on its lock-free path for mixer voices.
+ */
+@UnstableApi
+public class AudioMixer {
+
+    private static final String TAG = "AudioMixer";
+    private static final Logger logger = new Logger(TAG);
+
+    public static final int DEFAULT_MAX_VOICES = 32;
+    private static final int OUTPUT_CHANNELS = 2;
+    private static final int DEFAULT_FRAMES_PER_BUFFER = 256;
+    private static final float SAMPLE_SCALE = 1f / 32768f;
+    // How often the audio thread collects the voices that ended, at most the delay of a complete event
+    private static final long ENDED_DRAIN_MS = 20;
+
+    static final class Voice implements VoiceAllocator.Voice {
+
+        MixerAudioAsset owner;
+        ShortBuffer samples;
+        int channels;
+        int frameCount;
+        int loopStart;
+        int loopEnd;
+        double position;
+        double baseStep;
+        double step;
+        float gain;
+        float targetGain;
+        // Gain of the asset group applied on the last rendered frame
+        float busGain;
+        // Written without the mixer lock when the voice is stolen by another asset
+        volatile boolean active;
+        // False while the voice waits for its start frame, it then neither plays nor counts against the voice limit
+        volatile boolean started;
+        boolean paused;
+        boolean looping;
+        long startedAt;
+        // Output frame at which the voice starts, voices scheduled in the past start on the next buffer
+        long startFrame;
+
+        @Override
+        public boolean isBusy() {
+            return active && started;
+        }
+
+        boolean isPending() {
+            return active && !started;
+        }
+
+        @Override
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        @Override
+        public float getVolume() {
+            return targetGain;
+        }
+
+        @Override
+        public int getPriority() {
+            MixerAudioAsset asset = owner;
+            return asset != null ? asset.priority : 0;
+        }
+
+        @Override
+        public void release() {
+            active = false;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final int sampleRate;
+    private final int framesPerBuffer;
+    private final Voice[] voices;
+    private final List<Voice> voiceList;
+    private final ArrayList<Voice> assetVoices;
+    private final ArrayList<Voice> freeOrStarted;
+    private final float[] mixBuffer;
+    // Single producer (render thread), single consumer (audio thread) ring of the assets whose voice ended
+    private final MixerAudioAsset[] endedRing;
+    private final int endedMask;
+    private volatile long endedHead = 0;
+    private volatile long endedTail = 0;
+    // Counted by the render thread, reported and reset by the next drain, a count racing the reset may be lost
+    private volatile int endedOverflows = 0;
+    private final Runnable drainEnded = this::drainEnded;
+    private final Sequencer sequencer = new Sequencer();
+    private AudioTrack track;
+    private volatile Thread renderThread;
+    private volatile boolean running = false;
+    private int registeredAssets = 0;
+    private long framesRendered = 0;
+    private long idleSince = System.nanoTime();
+
+    AudioMixer(Context context, int maxVoices) {
+        AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        this.sampleRate = readIntProperty(audioManager, AudioManager.PROPERTY_OUTPUT_SAMPLE_RATE, 48000);
+        this.framesPerBuffer = readIntProperty(audioManager, AudioManager.PROPERTY_OUTPUT_FRAMES_PER_BUFFER, DEFAULT_FRAMES_PER_BUFFER);
+        this.mixBuffer = new float[framesPerBuffer * OUTPUT_CHANNELS];
+        this.voices = new Voice[Math.max(1, maxVoices)];
+        for (int i = 0; i < voices.length; i++) {
+            voices[i] = new Voice();
+        }
+        this.voiceList = Arrays.asList(voices);
+        this.assetVoices = new ArrayList<>(voices.length);
+        this.freeOrStarted = new ArrayList<>(voices.length);
+        // A voice ends at most once per buffer, leave room for several buffers between drains
+        int capacity = Integer.highestOneBit(Math.max(64, voices.length * 16) - 1) << 1;
+        this.endedRing = new MixerAudioAsset[capacity];
+        this.endedMask = capacity - 1;
+        VoiceAllocator.setMixerVoices(voiceList);
+    }
+
+    private static int readIntProperty(AudioManager audioManager, String key, int fallback) {
+        try {
+            String value = audioManager != null ? audioManager.getProperty(key) : null;
+            int parsed = value != null ? Integer.parseInt(value) : 0;
+            return parsed > 0 ? parsed : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public Sequencer getSequencer() {
+        return sequencer;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Runs several control calls under one hold of the mixer lock, so they all land in the same render pass.
+     */
+    void runLocked(Runnable commands) {
+        synchronized (lock) {
+            commands.run();
+        }
+    }
+
+    /**
+     * Output frame matching a time of the audio clock.
+     */
+    public long toFrame(double audioTime) {
+        return Math.round(audioTime * sampleRate);
+    }
+
+    /**
+     * Audio clock in seconds, counted in output frames.
+     * While the output is stopped the clock keeps advancing on the system clock, so it never jumps backwards.
+     */
+    public double getAudioTime() {
+        synchronized (lock) {
+            return (double) currentFrame() / sampleRate;
+        }
+    }
+
+    private long currentFrame() {
+        if (running) {
+            return framesRendered;
+        }
+        return framesRendered + (System.nanoTime() - idleSince) * sampleRate / 1000000000L;
+    }
+
+    /**
+     * Starts the output when the first mixer asset is registered.
+     */
+    void register() {
+        synchronized (lock) {
+            registeredAssets++;
+            if (!running) {
+                start();
+            }
+        }
+    }
+
+    /**
+     * Stops the output once the last mixer asset is gone, so an idle app does not keep writing silence.
+     */
+    void unregister(MixerAudioAsset asset) {
+        stop(asset);
+        synchronized (lock) {
+            registeredAssets = Math.max(0, registeredAssets - 1);
+            if (registeredAssets == 0 && running) {
+                shutdown();
+            }
+        }
+    }
+
+    private void start() {
+        int minBufferSize = AudioTrack.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_OUT_STEREO, AudioFormat.ENCODING_PCM_FLOAT);
+        AudioTrack.Builder builder = new AudioTrack.Builder()
+            .setAudioAttributes(
+                new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_GAME)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                    .build()
+            )
+            .setAudioFormat(
+                new AudioFormat.Builder()
+                    .setEncoding(AudioFormat.ENCODING_PCM_FLOAT)
+                    .setSampleRate(sampleRate)
+                    .setChannelMask(AudioFormat.CHANNEL_OUT_STEREO)
+                    .build()
+            )
+            .setTransferMode(AudioTrack.MODE_STREAM)
+            .setBufferSizeInBytes(Math.max(minBufferSize, framesPerBuffer * OUTPUT_CHANNELS * 4 * 2));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            builder.setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY);
+        }
+        track = builder.build();
+        track.play();
+        framesRendered = currentFrame();
+        running = true;
+        renderThread = new Thread(this::renderLoop, "NativeAudioMixer");
+        renderThread.start();
+        AudioThread.getHandler().removeCallbacks(drainEnded);
+        AudioThread.getHandler().postDelayed(drainEnded, ENDED_DRAIN_MS);
+        logger.debug("Mixer started at " + sampleRate + " Hz, " + framesPerBuffer + " frames per buffer");
+    }
+
+    private void shutdown() {
+        sequencer.stop();
+        idleSince = System.nanoTime();
+        running = false;
+        AudioThread.getHandler().removeCallbacks(drainEnded);
+        Thread thread = renderThread;
+        renderThread = null;
+        final AudioTrack oldTrack = track;
+        track = null;
+        // The render thread owns the track until it leaves the loop
+        new Thread(() -> {
+            try {
+                if (thread != null) thread.join();
+            } catch (InterruptedException ignored) {}
+            oldTrack.stop();
+            oldTrack.release();
+            logger.debug("Mixer stopped");
+        }).start();
+    }
+
+    private void renderLoop() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+        final AudioTrack output = track;
+        while (running && renderThread == Thread.currentThread()) {
+            render();
+            int written = output.write(mixBuffer, 0, mixBuffer.length, AudioTrack.WRITE_BLOCKING);
+            if (written < 0) {
+                logger.error("Mixer output write failed: " + written);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs on the audio thread while the mixer is running: reports the voices that ended and runs the voice steals
+     * the render thread could not do itself.
+     */
+    private void drainEnded() {
+        long tail = endedTail;
+        long head = endedHead;
+        while (tail < head) {
+            int index = (int) (tail & endedMask);
+            MixerAudioAsset asset = endedRing[index];
+            endedRing[index] = null;
+            endedTail = ++tail;
+            asset.voiceEndedRunnable.run();
+        }
+        int overflows = endedOverflows;
+        if (overflows > 0) {
+            endedOverflows = 0;
+            logger.warning("Dropped " + overflows + " voice end notices");
+        }
+        VoiceAllocator.runPendingSteal();
+        if (running) {
+            AudioThread.getHandler().postDelayed(drainEnded, ENDED_DRAIN_MS);
+        }
+    }
+
+    /**
+     * Hands a voice end to the audio thread without locking or allocating. Render thread only.
+     */
+    private void publishEnded(MixerAudioAsset asset) {
+        long head = endedHead;
+        if (head - endedTail >= endedRing.length) {
+            endedOverflows++;
+            return;
+        }
+        endedRing[(int) (head & endedMask)] = asset;
+        endedHead = head + 1;
+    }
+
+    private void render() {
+        Arrays.fill(mixBuffer, 0f);
+        synchronized (lock) {
+            sequencer.process(framesRendered, framesPerBuffer);
+            for (Voice voice : voices) {
+                if (voice.active && !voice.paused) {
+                    mixVoice(voice);
+                }
+            }
+            framesRendered += framesPerBuffer;
+        }
+        for (int i = 0; i < mixBuffer.length; i++) {
+            float sample = mixBuffer[i];
+            mixBuffer[i] = sample > 1f ? 1f : (sample < -1f ? -1f : sample);
+        }
+    }
+
+    private void mixVoice(Voice voice) {
+        final ShortBuffer samples = voice.samples;
+        final int channels = voice.channels;
+        final int end = voice.looping ? voice.loopEnd : voice.frameCount;
+        int offset = 0;
+        if (voice.startFrame > framesRendered) {
+            long wait = voice.startFrame - framesRendered;
+            if (wait >= framesPerBuffer) {
+                return;
+            }
+            offset = (int) wait;
+        }
+        if (!voice.started) {
+            voice.started = true;
+        }
+        float gain = voice.gain;
+        final float gainStep = (voice.targetGain - gain) / framesPerBuffer;
+        final float targetBusGain = voice.owner.getGroupGain();
+        float busGain = voice.busGain;
+        final float busGainStep = (targetBusGain - busGain) / framesPerBuffer;
+        double position = voice.position;
+        for (int i = offset; i < framesPerBuffer; i++) {
+            if (position >= end) {
+                if (voice.looping && end > voice.loopStart) {
+                    position = voice.loopStart + (position - end) % (end - voice.loopStart);
+                } else {
+                    voice.active = false;
+                    publishEnded(voice.owner);
+                    break;
+                }
+            }
+            int index = (int) position;
+            int next = index + 1;
+            if (next >= end) {
+                next = voice.looping ? voice.loopStart : index;
+            }
+            float fraction = (float) (position - index);
+            int base = index * channels;
+            int nextBase = next * channels;
+            float left0 = samples.get(base);
+            float left = (left0 + (samples.get(nextBase) - left0) * fraction) * SAMPLE_SCALE;
+            float right = left;
+            if (channels > 1) {
+                float right0 = samples.get(base + 1);
+                right = (right0 + (samples.get(nextBase + 1) - right0) * fraction) * SAMPLE_SCALE;
+            }
+            float frameGain = gain * busGain;
+            mixBuffer[i * 2] += left * frameGain;
+            mixBuffer[i * 2 + 1] += right * frameGain;
+            gain += gainStep;
+            busGain += busGainStep;
+            position += voice.step;
+        }
+        voice.gain = voice.targetGain;
+        voice.busGain = targetBusGain;
+        voice.position = position;
+    }
+
+    /**
+     * Starts a new voice for the asset. When the asset already uses maxAssetVoices voices one of its own is stolen,
+     * otherwise a free mixer voice is taken, or one of any asset is stolen, following the asset steal policy.
+     *
+     * @return false when the policy rejects the trigger
+     */
+    boolean play(MixerAudioAsset asset, PcmBuffer pcm, double time, float gain, float rate, boolean loop, int maxAssetVoices) {
+        return play(asset, pcm, time, gain, rate, loop, maxAssetVoices, 0);
+    }
+
+    /**
+     * Same as {@link #play} but the voice starts exactly on the given output frame, see {@link #getAudioTime()}.
+     * Voices scheduled on the same frame start together.
+     */
+    boolean play(
+        MixerAudioAsset asset,
+        PcmBuffer pcm,
+        double time,
+        float gain,
+        float rate,
+        boolean loop,
+        int maxAssetVoices,
+        long startFrame
+    ) {
+        VoiceAllocator.StealPolicy policy = asset.getStealPolicy();
+        synchronized (lock) {
+            // Voices waiting for their start frame belong to other triggers, they are neither free nor stolen
+            freeOrStarted.clear();
+            for (Voice voice : voices) {
+                if (!voice.isPending()) freeOrStarted.add(voice);
+            }
+            List<Voice> pool = freeOrStarted;
+            if (countVoices(asset) >= Math.max(1, maxAssetVoices)) {
+                assetVoices.clear();
+                for (Voice voice : voices) {
+                    if (voice.active && voice.owner == asset) assetVoices.add(voice);
+                }
+                pool = assetVoices;
+            }
+            Voice voice = VoiceAllocator.allocate(pool, policy, asset.priority);
+            if (voice == null || !VoiceAllocator.admitInline(voice, voiceList, policy, asset.priority)) {
+                return false;
+            }
+            voice.owner = asset;
+            voice.samples = pcm.getSamples();
+            voice.channels = pcm.getChannelCount();
+            voice.frameCount = pcm.getFrameCount();
+            // Loops play the intro once, then repeat the asset loop region
+            voice.loopStart = loop ? asset.loopStart : 0;
+            voice.loopEnd = loop ? asset.loopEnd : voice.frameCount;
+            voice.position = Math.max(0, Math.min(voice.frameCount, time * pcm.getSampleRate()));
+            voice.baseStep = (double) pcm.getSampleRate() / sampleRate;
+            voice.step = voice.baseStep * rate;
+            voice.gain = gain;
+            voice.targetGain = gain;
+            voice.busGain = asset.getGroupGain();
+            voice.looping = loop;
+            voice.paused = false;
+            voice.startedAt = System.nanoTime();
+            voice.startFrame = startFrame;
+            voice.started = startFrame <= framesRendered;
+            voice.active = true;
+            return true;
+        }
+    }
+
+    private int countVoices(MixerAudioAsset asset) {
+        int count = 0;
+        for (Voice voice : voices) {
+            if (voice.active && voice.owner == asset) count++;
+        }
+        return count;
+    }
+
+    void stop(MixerAudioAsset asset) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.owner == asset) {
+                    voice.active = false;
+                }
+            }
+        }
+    }
+
+    void setLoopRegion(MixerAudioAsset asset, int loopStart, int loopEnd) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.active && voice.owner == asset && voice.looping) {
+                    voice.loopStart = loopStart;
+                    voice.loopEnd = loopEnd;
+                }
+            }
+        }
+    }
+
+    boolean pause(MixerAudioAsset asset) {
+        boolean wasPlaying = false;
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.active && voice.owner == asset && !voice.paused) {
+                    voice.paused = true;
+                    wasPlaying = true;
+                }
+            }
+        }
+        return wasPlaying;
+    }
+
+    void resume(MixerAudioAsset asset) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.active && voice.owner == asset) {
+                    voice.paused = false;
+                }
+            }
+        }
+    }
+
+    void setGain(MixerAudioAsset asset, float gain) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.active && voice.owner == asset) {
+                    voice.targetGain = gain;
+                }
+            }
+        }
+    }
+
+    void setRate(MixerAudioAsset asset, float rate) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.active && voice.owner == asset) {
+                    voice.step = voice.baseStep * rate;
+                }
+            }
+        }
+    }
+
+    void seek(MixerAudioAsset asset, double time, int sourceSampleRate) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.active && voice.owner == asset) {
+                    voice.position = Math.max(0, Math.min(voice.frameCount, time * sourceSampleRate));
+                }
+            }
+        }
+    }
+
+    boolean isPlaying(MixerAudioAsset asset) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.isBusy() && !voice.paused && voice.owner == asset) return true;
+            }
+        }
+        return false;
+    }
+
+    boolean hasActiveVoices(MixerAudioAsset asset) {
+        synchronized (lock) {
+            return countVoices(asset) > 0;
+        }
+    }
+
+    /**
+     * Position of the most recently started voice of the asset, in source frames.
+     */
+    double getPosition(MixerAudioAsset asset) {
+        synchronized (lock) {
+            Voice latest = null;
+            for (Voice voice : voices) {
+                if (voice.active && voice.owner == asset && (latest == null || voice.startedAt > latest.startedAt)) {
+                    latest = voice;
+                }
+            }
+            return latest != null ? latest.position : 0;
+        }
+    }
+}
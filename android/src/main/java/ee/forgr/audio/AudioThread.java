@@ -0,0 +1,57 @@
+package ee.forgr.audio;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import androidx.media3.common.util.UnstableApi;
+
+/**
+ * Looper every player is controlled from, so audio calls never wait behind WebView rendering on the main thread.
+ * ExoPlayers are built with it as their application looper and MediaPlayers created on it report to it.
+ */
+@UnstableApi
+public final class AudioThread {
+
+    private static final String TAG = "AudioThread";
+    private static final Logger logger = new Logger(TAG);
+
+    private static final HandlerThread thread = start();
+    private static final Handler handler = new Handler(thread.getLooper());
+
+    private AudioThread() {}
+
+    private static HandlerThread start() {
+        HandlerThread thread = new HandlerThread("NativeAudioControl", Process.THREAD_PRIORITY_AUDIO);
+        thread.start();
+        logger.debug("Audio control thread started");
+        return thread;
+    }
+
+    public static Looper getLooper() {
+        return thread.getLooper();
+    }
+
+    public static Handler getHandler() {
+        return handler;
+    }
+
+    public static boolean isCurrentThread() {
+        return Looper.myLooper() == thread.getLooper();
+    }
+
+    public static void post(Runnable runnable) {
+        handler.post(runnable);
+    }
+
+    /**
+     * Runs now when called from the audio thread, posts otherwise.
+     */
+    public static void run(Runnable runnable) {
+        if (isCurrentThread()) {
+            runnable.run();
+        } else {
+            handler.post(runnable);
+        }
+    }
+}
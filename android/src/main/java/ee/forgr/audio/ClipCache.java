@@ -0,0 +1,121 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Engine-wide budget for the decoded or prepared audio that loaded assets keep in memory.
+ * Over budget, idle assets are evicted on the audio thread, lowest cache priority first and least recently used within a
+ * priority, and rebuilt by their next play. Assets of engines that cannot be rebuilt (streams, queues, soundpool)
+ * are not counted. A budget of 0, the default, keeps every asset resident until unloaded.
+ */
+@UnstableApi
+public class ClipCache {
+
+    private static final String TAG = "ClipCache";
+    private static final Logger logger = new Logger(TAG);
+    // Retry delay when only recently used assets could have been evicted
+    private static final long RETRY_DELAY_MS = 5000;
+
+    // Access ordered, least recently used first
+    private final LinkedHashMap<AudioAsset, Boolean> assets = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes = 0;
+    private boolean trimPending = false;
+
+    /**
+     * Memory budget in bytes, applied right away. 0 disables eviction.
+     */
+    public synchronized void setMaxBytes(long bytes) {
+        maxBytes = Math.max(0, bytes);
+        scheduleTrim(0);
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void add(AudioAsset asset) {
+        if (asset.getResidentBytes() > 0) {
+            assets.put(asset, Boolean.TRUE);
+            scheduleTrim(0);
+        }
+    }
+
+    /**
+     * Marks an asset as the most recently used.
+     */
+    public synchronized void touch(AudioAsset asset) {
+        if (assets.get(asset) != null) {
+            scheduleTrim(0);
+        }
+    }
+
+    public synchronized void remove(AudioAsset asset) {
+        assets.remove(asset);
+    }
+
+    public synchronized void clear() {
+        assets.clear();
+    }
+
+    /**
+     * Bytes held by the assets that are currently resident.
+     */
+    public synchronized long getResidentBytes() {
+        long total = 0;
+        for (AudioAsset asset : assets.keySet()) {
+            if (!asset.isEvicted()) {
+                total += asset.getResidentBytes();
+            }
+        }
+        return total;
+    }
+
+    private void scheduleTrim(long delayMs) {
+        if (maxBytes <= 0 || trimPending) {
+            return;
+        }
+        trimPending = true;
+        AudioThread.getHandler().postDelayed(this::trim, delayMs);
+    }
+
+    /**
+     * Evicts until the resident assets fit the budget. Runs on the audio thread.
+     */
+    void trim() {
+        long limit;
+        long total;
+        List<AudioAsset> candidates;
+        synchronized (this) {
+            trimPending = false;
+            limit = maxBytes;
+            total = getResidentBytes();
+            if (limit <= 0 || total <= limit) {
+                return;
+            }
+            candidates = new ArrayList<>(assets.keySet());
+        }
+        // Stable, so the least recently used comes first within a priority
+        Collections.sort(candidates, (a, b) -> Integer.compare(a.getCachePriority(), b.getCachePriority()));
+        // Evicted outside the cache lock, an asset holds its own lock while rebuilding and touching the cache
+        for (AudioAsset asset : candidates) {
+            if (total <= limit) {
+                break;
+            }
+            long bytes = asset.getResidentBytes();
+            if (asset.evict()) {
+                total -= bytes;
+                logger.debug("Evicted " + asset.getAssetId() + " (" + bytes + " bytes)");
+            }
+        }
+        if (total > limit) {
+            logger.debug("Still " + total + " bytes resident over a " + limit + " bytes budget, assets in use");
+            synchronized (this) {
+                scheduleTrim(RETRY_DELAY_MS);
+            }
+        }
+    }
+}
@@ -7,19 +7,80 @@ public class Constant {
     public static final String ERROR_AUDIO_EXISTS = "Audio Asset already exists";
     public static final String ERROR_ASSET_PATH_MISSING = "Asset Path is missing";
     public static final String ERROR_ASSET_NOT_LOADED = "Asset is not loaded";
+    public static final String ERROR_WHEN_MISSING = "Start time on the audio clock is missing";
+    public static final String ERROR_EVENTS_MISSING = "Pattern events are missing";
+    public static final String ERROR_PATTERN_LENGTH = "Pattern length is required and must be greater than 0 to loop";
+    public static final String ERROR_QUEUE_MISSING = "Queue is missing";
+    public static final String ERROR_SEQUENCER_ASSET = "Sequencer events need assets preloaded with the mixer engine";
+    public static final String ERROR_OPERATIONS_MISSING = "Batch operations are missing";
+    public static final String ERROR_UNKNOWN_OPERATION = "Unknown batch operation";
+    public static final String ERROR_GROUP_MISSING = "Group is missing";
+    public static final String ERROR_ASSETS_MISSING = "Preload assets are missing";
+    public static final String ERROR_METADATA_UNAVAILABLE = "Metadata could not be read";
+    public static final String ERROR_URL_MISSING = "Url is missing";
+    public static final String ERROR_URLS_MISSING = "Prefetch urls are missing";
 
     public static final String ASSET_ID = "assetId";
+    public static final String HANDLE = "handle";
     public static final String ASSET_PATH = "assetPath";
     public static final String OPT_FOCUS_AUDIO = "focus";
     public static final String TIME = "time";
     public static final String DELAY = "delay";
+    public static final String WHEN = "when";
     public static final String VOLUME = "volume";
     public static final String RATE = "rate";
     public static final String DURATION = "duration";
     public static final String AUDIO_CHANNEL_NUM = "audioChannelNum";
     public static final String LOOP = "loop";
+    public static final String ENGINE = "engine";
+    public static final String PRIORITY = "priority";
+    public static final String MAX_STREAMS = "maxStreams";
+    public static final String MAX_VOICES = "maxVoices";
+    public static final String STEAL_POLICY = "stealPolicy";
+    public static final String EVENTS = "events";
+    public static final String OFFSET = "offset";
+    public static final String LENGTH = "length";
+    public static final String LOOP_START = "loopStart";
+    public static final String LOOP_END = "loopEnd";
+    public static final String TRIM_ENCODER_GAPS = "trimEncoderGaps";
+    public static final String ITEMS = "items";
+    public static final String FROM_ASSET_ID = "fromAssetId";
+    public static final String TO_ASSET_ID = "toAssetId";
+    public static final String FROM_HANDLE = "fromHandle";
+    public static final String TO_HANDLE = "toHandle";
+    public static final String CURVE = "curve";
+    public static final String INDEX = "index";
+    public static final String OPERATIONS = "operations";
+    public static final String TYPE = "type";
+    public static final String GROUP = "group";
+    public static final String MUTED = "muted";
+    public static final String ASSETS = "assets";
+    public static final String TIME_UPDATE_RATE = "timeUpdateRate";
+    public static final String CACHE = "cache";
+    public static final String MAX_SIZE = "maxSize";
+    public static final String DIRECTORY = "directory";
+    public static final String EVICTION_POLICY = "evictionPolicy";
+    public static final String URL = "url";
+    public static final String URLS = "urls";
+    public static final String HTTP = "http";
+    public static final String CONNECT_TIMEOUT = "connectTimeout";
+    public static final String READ_TIMEOUT = "readTimeout";
+    public static final String MAX_CONNECTIONS = "maxConnections";
+    public static final String USER_AGENT = "userAgent";
+    public static final String PCM_CACHE = "pcmCache";
+    public static final String MEMORY_CACHE = "memoryCache";
+    public static final String CACHE_PRIORITY = "cachePriority";
+
+    public static final String ENGINE_MEDIA_PLAYER = "mediaplayer";
+    public static final String ENGINE_SOUND_POOL = "soundpool";
+    public static final String ENGINE_PCM = "pcm";
+    public static final String ENGINE_MIXER = "mixer";
 
     public static final String PLAY = "play";
+    public static final String STOP = "stop";
+    public static final String SET_VOLUME = "setVolume";
+    public static final String SET_RATE = "setRate";
+    public static final String SEEK = "seek";
 
     public static final String FADE_IN = "fadeIn";
     public static final String FADE_OUT = "fadeOut";
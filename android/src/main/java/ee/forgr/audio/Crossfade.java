@@ -0,0 +1,111 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+
+/**
+ * Fades one asset out and another one in from a single {@link FadeScheduler} task, so both gains are always computed
+ * for the same instant. The tick only computes gains; the assets are started, set and stopped on the {@link AudioThread}.
+ * The incoming asset is started at volume 0 right before the first step.
+ */
+@UnstableApi
+public class Crossfade {
+
+    private static final String TAG = "Crossfade";
+    private static final Logger logger = new Logger(TAG);
+    private static final long STEP_MS = 10;
+
+    private final AudioAsset from;
+    private final AudioAsset to;
+    private final double durationMs;
+    private final FadeCurve curve;
+    private final float fromVolume;
+    private final float toVolume;
+    private final Runnable onDone;
+    private FadeScheduler.Task task;
+    private volatile long startNanos;
+    private volatile boolean cancelled = false;
+
+    public Crossfade(AudioAsset from, AudioAsset to, double durationMs, FadeCurve curve, float fromVolume, float toVolume, Runnable onDone) {
+        this.from = from;
+        this.to = to;
+        this.durationMs = Math.max(0, durationMs);
+        this.curve = curve;
+        this.fromVolume = fromVolume;
+        this.toVolume = toVolume;
+        this.onDone = onDone;
+    }
+
+    public AudioAsset getFrom() {
+        return from;
+    }
+
+    public AudioAsset getTo() {
+        return to;
+    }
+
+    public void start() {
+        AudioThread.post(() -> {
+            if (cancelled) {
+                return;
+            }
+            try {
+                from.setVolume(fromVolume, 0);
+                to.setVolume(0f, 0);
+                to.play(0, 0f);
+            } catch (Exception e) {
+                logger.error("Error starting crossfade", e);
+                return;
+            }
+            startNanos = System.nanoTime();
+            FadeScheduler.execute(() -> {
+                if (!cancelled) {
+                    task = FadeScheduler.schedule(this::step, STEP_MS);
+                }
+            });
+        });
+    }
+
+    public void cancel() {
+        cancelled = true;
+        FadeScheduler.execute(() -> {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+        });
+    }
+
+    private void step() {
+        double elapsedMs = (System.nanoTime() - startNanos) / 1000000.0;
+        float progress = durationMs > 0 ? (float) Math.min(1.0, elapsedMs / durationMs) : 1f;
+        final float fromGain = curve.apply(fromVolume, 0f, progress);
+        final float toGain = curve.apply(0f, toVolume, progress);
+        final boolean done = progress >= 1f;
+        if (done) {
+            task.cancel();
+            task = null;
+        }
+        AudioThread.post(() -> apply(fromGain, toGain, done));
+    }
+
+    private void apply(float fromGain, float toGain, boolean done) {
+        if (cancelled) {
+            return;
+        }
+        try {
+            from.setVolume(fromGain, 0);
+            to.setVolume(toGain, 0);
+            if (done) {
+                from.stop();
+                from.setVolume(fromVolume, 0);
+                logger.debug("Crossfade complete");
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error during crossfade", e);
+            cancel();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+
+/**
+ * Shapes of volume fades, stored as lookup tables so a fade step is a table read instead of transcendental math.
+ * Each table holds the rising shape from 0 to 1; falling fades read it backwards, so an equal-power fade out
+ * is the cosine matching the sine fade in, and an exponential fade out drops fast then tails off.
+ */
+@UnstableApi
+public enum FadeCurve {
+    LINEAR("linear"),
+    EXPONENTIAL("exponential"),
+    EQUAL_POWER("equalPower"),
+    LOGARITHMIC("logarithmic"),
+    S_CURVE("sCurve");
+
+    private static final String TAG = "FadeCurve";
+    private static final Logger logger = new Logger(TAG);
+    private static final int TABLE_SIZE = 256;
+    // Range of the exponential curve, it is linear in dB over the last 60dB
+    private static final double EXPONENTIAL_RANGE_DB = 60;
+
+    private final String value;
+    private final float[] table = new float[TABLE_SIZE + 1];
+
+    FadeCurve(String value) {
+        this.value = value;
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            table[i] = (float) shape(this.value, (double) i / TABLE_SIZE);
+        }
+    }
+
+    private static double shape(String curve, double x) {
+        switch (curve) {
+            case "exponential":
+                double floor = Math.pow(10, -EXPONENTIAL_RANGE_DB / 20);
+                return (Math.pow(10, ((x - 1) * EXPONENTIAL_RANGE_DB) / 20) - floor) / (1 - floor);
+            case "equalPower":
+                return Math.sin((x * Math.PI) / 2);
+            case "logarithmic":
+                return Math.log10(1 + 9 * x);
+            case "sCurve":
+                return 0.5 - 0.5 * Math.cos(x * Math.PI);
+            default:
+                return x;
+        }
+    }
+
+    public static FadeCurve fromString(String value, FadeCurve fallback) {
+        if (value == null) return fallback;
+        for (FadeCurve curve : values()) {
+            if (curve.value.equals(value)) {
+                return curve;
+            }
+        }
+        logger.warning("Unknown fade curve " + value);
+        return fallback;
+    }
+
+    /**
+     * Rising shape at progress, between 0 and 1.
+     */
+    public float shape(float progress) {
+        if (progress <= 0f) return 0f;
+        if (progress >= 1f) return 1f;
+        float position = progress * TABLE_SIZE;
+        int index = (int) position;
+        return table[index] + (table[index + 1] - table[index]) * (position - index);
+    }
+
+    /**
+     * Gain at progress (0 to 1) of a fade from one gain to another.
+     */
+    public float apply(float from, float to, float progress) {
+        if (to >= from) {
+            return from + (to - from) * shape(progress);
+        }
+        return to + (from - to) * shape(1f - progress);
+    }
+}
@@ -0,0 +1,124 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine-wide scheduler running every fade and volume automation from a single tick.
+ * The tick only runs while a fade is active, and the thread itself exits after a few idle seconds.
+ */
+@UnstableApi
+public final class FadeScheduler {
+
+    private static final String TAG = "FadeScheduler";
+    private static final Logger logger = new Logger(TAG);
+    private static final long TICK_MS = 10;
+    private static final long IDLE_THREAD_KEEP_ALIVE_S = 5;
+
+    /**
+     * A fade step run every periodMs until cancelled.
+     */
+    public static final class Task {
+
+        private final Runnable step;
+        private final long periodNanos;
+        private long nextRun;
+        private volatile boolean cancelled = false;
+
+        private Task(Runnable step, long periodMs, long now) {
+            this.step = step;
+            this.periodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(TICK_MS, periodMs));
+            this.nextRun = now;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final ScheduledThreadPoolExecutor executor = createExecutor();
+    private static final ArrayList<Task> tasks = new ArrayList<>();
+    // Only used by the tick, on the scheduler thread
+    private static final ArrayList<Task> due = new ArrayList<>();
+    private static ScheduledFuture<?> tick;
+
+    private FadeScheduler() {}
+
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "NativeAudioFades");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(IDLE_THREAD_KEEP_ALIVE_S, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Runs step now, then every periodMs (rounded to the tick) until the returned task is cancelled.
+     */
+    public static Task schedule(Runnable step, long periodMs) {
+        synchronized (tasks) {
+            Task task = new Task(step, periodMs, System.nanoTime());
+            tasks.add(task);
+            if (tick == null) {
+                tick = executor.scheduleAtFixedRate(FadeScheduler::tick, 0, TICK_MS, TimeUnit.MILLISECONDS);
+            }
+            return task;
+        }
+    }
+
+    /**
+     * Runs a one-off action on the scheduler thread, ordered with the fade steps.
+     */
+    public static void execute(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    private static void tick() {
+        long now = System.nanoTime();
+        synchronized (tasks) {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                Task task = tasks.get(i);
+                if (task.cancelled) {
+                    tasks.remove(i);
+                } else if (now >= task.nextRun) {
+                    task.nextRun = now + task.periodNanos;
+                    due.add(task);
+                }
+            }
+        }
+        // Steps run outside the lock so they can schedule or cancel fades themselves
+        for (int i = due.size() - 1; i >= 0; i--) {
+            Task task = due.get(i);
+            if (task.cancelled) continue;
+            try {
+                task.step.run();
+            } catch (Exception e) {
+                logger.error("Error in fade step", e);
+                task.cancel();
+            }
+        }
+        due.clear();
+        synchronized (tasks) {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                if (tasks.get(i).cancelled) {
+                    tasks.remove(i);
+                }
+            }
+            if (tasks.isEmpty() && tick != null) {
+                tick.cancel(false);
+                tick = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package ee.forgr.audio;
+
+import android.content.Context;
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor;
+import androidx.media3.common.audio.BaseAudioProcessor;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.DefaultRenderersFactory;
+import androidx.media3.exoplayer.RenderersFactory;
+import androidx.media3.exoplayer.audio.AudioSink;
+import androidx.media3.exoplayer.audio.DefaultAudioSink;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Applies the volume of an ExoPlayer based asset inside its audio sink, with one gain per frame.
+ * A fade is a single ramp command: its {@link FadeCurve} is read once per buffer on the playback thread
+ * and interpolated linearly across the frames of the buffer, so there is no per-step message and no audible stepping.
+ * The gain of the asset {@link AudioGroup} is read the same way, once per buffer.
+ */
+@UnstableApi
+public class GainAudioProcessor extends BaseAudioProcessor {
+
+    private static final String TAG = "GainAudioProcessor";
+    private static final Logger logger = new Logger(TAG);
+    // Immediate changes are smoothed over a few milliseconds so they don't click
+    private static final double SMOOTHING_MS = 5;
+    // Audio keeps flowing for this long after a ramp before it is reported done, so its end has left the sink buffer
+    private static final double SETTLE_MS = 300;
+
+    private static final class Ramp {
+
+        final float from;
+        final float to;
+        final double durationMs;
+        final FadeCurve curve;
+        final Runnable onDone;
+
+        Ramp(float from, float to, double durationMs, FadeCurve curve, Runnable onDone) {
+            this.from = from;
+            this.to = to;
+            this.durationMs = durationMs;
+            this.curve = curve;
+            this.onDone = onDone;
+        }
+    }
+
+    private static final Ramp HOLD = new Ramp(Float.NaN, Float.NaN, 0, FadeCurve.LINEAR, null);
+
+    private final AtomicReference<Ramp> pendingRamp = new AtomicReference<>();
+    private volatile float gain;
+    private volatile float targetGain;
+    private volatile AudioGroup group;
+
+    // Playback thread state
+    private float currentGain;
+    private FadeCurve curve = FadeCurve.LINEAR;
+    private float rampStart;
+    private float rampTarget;
+    private long rampLength;
+    private long rampFrames = 0;
+    // Linear segment of the ramp covering the current buffer
+    private float step;
+    private float stepTarget;
+    private int stepFrames = 0;
+    private long settleFrames = -1;
+    private Runnable onDone;
+    private float groupGain = 1f;
+
+    public GainAudioProcessor(float gain) {
+        this.gain = gain;
+        this.targetGain = gain;
+        this.currentGain = gain;
+        this.rampStart = gain;
+        this.rampTarget = gain;
+    }
+
+    /**
+     * Renderers factory whose audio sink runs the given processor.
+     */
+    public static RenderersFactory renderersFactory(Context context, GainAudioProcessor processor) {
+        return new DefaultRenderersFactory(context) {
+            @Override
+            protected AudioSink buildAudioSink(Context context, boolean enableFloatOutput, boolean enableAudioTrackPlaybackParams) {
+                return new DefaultAudioSink.Builder(context)
+                    .setEnableFloatOutput(enableFloatOutput)
+                    .setEnableAudioTrackPlaybackParams(enableAudioTrackPlaybackParams)
+                    .setAudioProcessors(new AudioProcessor[] { processor })
+                    .build();
+            }
+        };
+    }
+
+    /**
+     * Gain applied to the last processed frame.
+     */
+    public float getGain() {
+        return gain;
+    }
+
+    /**
+     * Gain the processor is set or ramping to.
+     */
+    public float getTargetGain() {
+        return targetGain;
+    }
+
+    public void setGroup(AudioGroup group) {
+        this.group = group;
+    }
+
+    public void setGain(float gain) {
+        ramp(Float.NaN, gain, SMOOTHING_MS, FadeCurve.LINEAR, null);
+    }
+
+    /**
+     * Jumps to the gain on the next processed frame, e.g. before starting playback.
+     */
+    public void setGainImmediately(float gain) {
+        ramp(gain, gain, 0, FadeCurve.LINEAR, null);
+    }
+
+    public void rampTo(float gain, double durationMs, FadeCurve curve, Runnable onDone) {
+        ramp(Float.NaN, gain, durationMs, curve, onDone);
+    }
+
+    /**
+     * Ramps from one gain (NaN for the current one) to another along the curve.
+     * The ramp replaces any running one, whose completion is then never reported.
+     * onDone runs on the {@link FadeScheduler} thread once the ramp has been played.
+     */
+    public void ramp(float from, float to, double durationMs, FadeCurve curve, Runnable onDone) {
+        targetGain = to;
+        pendingRamp.set(new Ramp(from, to, Math.max(0, durationMs), curve, onDone));
+    }
+
+    /**
+     * Stops a running ramp at its current gain.
+     */
+    public void cancelRamp() {
+        targetGain = gain;
+        pendingRamp.set(HOLD);
+    }
+
+    @Override
+    protected AudioFormat onConfigure(AudioFormat inputAudioFormat) throws UnhandledAudioFormatException {
+        if (inputAudioFormat.encoding != C.ENCODING_PCM_16BIT && inputAudioFormat.encoding != C.ENCODING_PCM_FLOAT) {
+            throw new UnhandledAudioFormatException(inputAudioFormat);
+        }
+        return inputAudioFormat;
+    }
+
+    @Override
+    public void queueInput(ByteBuffer inputBuffer) {
+        int size = inputBuffer.remaining();
+        if (size == 0) {
+            return;
+        }
+        startPendingRamp();
+        ByteBuffer output = replaceOutputBuffer(size);
+        int frames = size / inputAudioFormat.bytesPerFrame;
+        startBufferSegment(frames);
+        AudioGroup group = this.group;
+        float targetGroupGain = group != null ? group.getGain() : 1f;
+        float groupStep = (targetGroupGain - groupGain) / frames;
+        if (stepFrames == 0 && currentGain == 1f && groupGain == 1f && targetGroupGain == 1f) {
+            output.put(inputBuffer);
+        } else if (inputAudioFormat.encoding == C.ENCODING_PCM_FLOAT) {
+            for (int i = 0; i < frames; i++) {
+                groupGain += groupStep;
+                float frameGain = nextGain() * groupGain;
+                for (int c = 0; c < inputAudioFormat.channelCount; c++) {
+                    output.putFloat(inputBuffer.getFloat() * frameGain);
+                }
+            }
+        } else {
+            for (int i = 0; i < frames; i++) {
+                groupGain += groupStep;
+                float frameGain = nextGain() * groupGain;
+                for (int c = 0; c < inputAudioFormat.channelCount; c++) {
+                    int sample = Math.round(inputBuffer.getShort() * frameGain);
+                    output.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample)));
+                }
+            }
+        }
+        inputBuffer.position(inputBuffer.limit());
+        output.flip();
+        gain = currentGain;
+        groupGain = targetGroupGain;
+        settle(frames);
+    }
+
+    private void startPendingRamp() {
+        Ramp ramp = pendingRamp.getAndSet(null);
+        if (ramp == null) {
+            return;
+        }
+        settleFrames = -1;
+        onDone = ramp.onDone;
+        if (ramp == HOLD) {
+            rampFrames = 0;
+            return;
+        }
+        if (!Float.isNaN(ramp.from)) {
+            currentGain = ramp.from;
+        }
+        curve = ramp.curve;
+        rampStart = currentGain;
+        rampTarget = ramp.to;
+        rampLength = Math.max(1, Math.round((ramp.durationMs * inputAudioFormat.sampleRate) / 1000.0));
+        rampFrames = rampLength;
+        logger.verbose("Ramping gain from " + rampStart + " to " + rampTarget + " over " + rampLength + " frames");
+    }
+
+    /**
+     * Reads the curve at the end of the ramp part falling in this buffer, the frames in between are interpolated.
+     */
+    private void startBufferSegment(int frames) {
+        stepFrames = (int) Math.min(frames, rampFrames);
+        if (stepFrames == 0) {
+            return;
+        }
+        rampFrames -= stepFrames;
+        stepTarget = rampFrames == 0 ? rampTarget : curve.apply(rampStart, rampTarget, 1f - (float) rampFrames / rampLength);
+        step = (stepTarget - currentGain) / stepFrames;
+    }
+
+    private float nextGain() {
+        if (stepFrames > 0) {
+            stepFrames--;
+            currentGain = stepFrames == 0 ? stepTarget : currentGain + step;
+        }
+        return currentGain;
+    }
+
+    private void settle(int frames) {
+        if (rampFrames > 0 || onDone == null) {
+            return;
+        }
+        if (settleFrames < 0) {
+            settleFrames = Math.round((SETTLE_MS * inputAudioFormat.sampleRate) / 1000.0);
+        }
+        settleFrames -= frames;
+        if (settleFrames <= 0) {
+            Runnable done = onDone;
+            onDone = null;
+            settleFrames = -1;
+            FadeScheduler.execute(done);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ee.forgr.audio;
+
+import android.net.Uri;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.DefaultHttpDataSource;
+import androidx.media3.datasource.TransferListener;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * HTTP data sources every remote asset, stream, queue, prefetch and probe reads through.
+ * Connections are kept alive and pooled by the platform HttpURLConnection, so requests to the same host reuse warm
+ * connections. Background transfers (prefetch, header probes) are limited to maxConnections at once; players are not,
+ * as an ExoPlayer loader keeps its source open while its buffer is full.
+ * Settings apply to the next source opened, the pool size only before the first connection of the process.
+ * The pool size is the process-wide http.maxConnections system property, shared with every other HttpURLConnection user
+ * of the app: it is only written when the app has not set it, and keep-alive is left to the platform default (on).
+ */
+@UnstableApi
+public final class HttpStack {
+
+    private static final String TAG = "HttpStack";
+    private static final Logger logger = new Logger(TAG);
+    public static final int DEFAULT_TIMEOUT_MS = 15000;
+    public static final int DEFAULT_MAX_CONNECTIONS = 8;
+    private static final String MAX_CONNECTIONS_PROPERTY = "http.maxConnections";
+    // Whether the pool size is ours to set, read before the first write
+    private static final boolean ownsPoolSize = System.getProperty(MAX_CONNECTIONS_PROPERTY) == null;
+
+    private static volatile DefaultHttpDataSource.Factory httpFactory;
+    private static volatile Semaphore permits;
+    private static int connectTimeoutMs = DEFAULT_TIMEOUT_MS;
+    private static int readTimeoutMs = DEFAULT_TIMEOUT_MS;
+    private static String userAgent = null;
+
+    private static final DataSource.Factory factory = () -> httpFactory.createDataSource();
+    private static final DataSource.Factory backgroundFactory = () -> new LimitedDataSource(httpFactory.createDataSource(), permits);
+
+    static {
+        setPoolSize(DEFAULT_MAX_CONNECTIONS);
+        rebuild();
+        permits = new Semaphore(DEFAULT_MAX_CONNECTIONS, true);
+    }
+
+    private HttpStack() {}
+
+    /**
+     * Shared factory for players, it always creates sources with the current settings.
+     */
+    public static DataSource.Factory getDataSourceFactory() {
+        return factory;
+    }
+
+    /**
+     * Shared factory for downloads nobody is listening to yet, waiting for a free connection slot.
+     */
+    public static DataSource.Factory getBackgroundDataSourceFactory() {
+        return backgroundFactory;
+    }
+
+    public static synchronized void setTimeouts(int connectTimeout, int readTimeout) {
+        connectTimeoutMs = Math.max(0, connectTimeout);
+        readTimeoutMs = Math.max(0, readTimeout);
+        rebuild();
+    }
+
+    public static synchronized void setMaxConnections(int connections) {
+        int count = Math.max(1, connections);
+        setPoolSize(count);
+        // Open sources give their permit back to the semaphore they took it from
+        permits = new Semaphore(count, true);
+    }
+
+    private static void setPoolSize(int connections) {
+        if (ownsPoolSize) {
+            System.setProperty(MAX_CONNECTIONS_PROPERTY, String.valueOf(connections));
+        } else {
+            logger.debug("Keeping the app " + MAX_CONNECTIONS_PROPERTY + " of " + System.getProperty(MAX_CONNECTIONS_PROPERTY));
+        }
+    }
+
+    public static synchronized void setUserAgent(String agent) {
+        userAgent = agent;
+        rebuild();
+    }
+
+    private static synchronized void rebuild() {
+        httpFactory = new DefaultHttpDataSource.Factory()
+            .setAllowCrossProtocolRedirects(true)
+            .setConnectTimeoutMs(connectTimeoutMs)
+            .setReadTimeoutMs(readTimeoutMs)
+            .setUserAgent(userAgent);
+        logger.debug("HTTP stack: connect timeout " + connectTimeoutMs + "ms, read timeout " + readTimeoutMs + "ms");
+    }
+
+    /**
+     * Holds a connection permit from open until close.
+     */
+    private static class LimitedDataSource implements DataSource {
+
+        private final DataSource upstream;
+        private final Semaphore semaphore;
+        private boolean holding = false;
+
+        LimitedDataSource(DataSource upstream, Semaphore semaphore) {
+            this.upstream = upstream;
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void addTransferListener(TransferListener transferListener) {
+            upstream.addTransferListener(transferListener);
+        }
+
+        @Override
+        public long open(DataSpec dataSpec) throws IOException {
+            if (!holding) {
+                try {
+                    semaphore.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for a connection");
+                }
+                holding = true;
+            }
+            return upstream.open(dataSpec);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return upstream.read(buffer, offset, length);
+        }
+
+        @Override
+        public Uri getUri() {
+            return upstream.getUri();
+        }
+
+        @Override
+        public Map<String, List<String>> getResponseHeaders() {
+            return upstream.getResponseHeaders();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                upstream.close();
+            } finally {
+                if (holding) {
+                    holding = false;
+                    semaphore.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package ee.forgr.audio;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.datasource.cache.Cache;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheEvictor;
+import androidx.media3.datasource.cache.CacheSpan;
+import androidx.media3.datasource.cache.SimpleCache;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-disk cache remote assets and queues read through.
+ * Location and eviction policy apply when the cache is opened, i.e. they must be configured before the first remote asset
+ * is preloaded; the size limit applies right away. Pinned URLs survive restarts and are never evicted.
+ */
+@UnstableApi
+public final class MediaCache {
+
+    private static final String TAG = "MediaCache";
+    private static final Logger logger = new Logger(TAG);
+    public static final long DEFAULT_MAX_BYTES = 100 * 1024 * 1024; // 100MB cache
+    private static final String DEFAULT_DIRECTORY = "media";
+    private static final String PREFERENCES = "NativeAudioCache";
+    private static final String PINNED_KEY = "pinned";
+
+    public enum EvictionPolicy {
+        LRU,
+        FIFO,
+        NONE;
+
+        public static EvictionPolicy fromString(String value, EvictionPolicy fallback) {
+            if (value == null) return fallback;
+            switch (value) {
+                case "lru":
+                    return LRU;
+                case "fifo":
+                    return FIFO;
+                case "none":
+                    return NONE;
+                default:
+                    logger.warning("Unknown eviction policy " + value);
+                    return fallback;
+            }
+        }
+    }
+
+    private static SimpleCache cache;
+    private static Evictor evictor;
+    private static CacheDataSource.Factory playbackFactory;
+    private static CacheDataSource.Factory backgroundFactory;
+    private static volatile long maxBytes = DEFAULT_MAX_BYTES;
+    private static String directory = DEFAULT_DIRECTORY;
+    private static EvictionPolicy policy = EvictionPolicy.LRU;
+    private static Set<String> pinned;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong cacheBytes = new AtomicLong();
+    private static final AtomicLong networkBytes = new AtomicLong();
+
+    private MediaCache() {}
+
+    /**
+     * Size limit in bytes, applied to the open cache as well.
+     */
+    public static synchronized void setMaxBytes(long bytes) {
+        maxBytes = Math.max(0, bytes);
+        evictNow();
+    }
+
+    public static long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Absolute path, or a folder name in the app cache directory.
+     */
+    public static synchronized void setDirectory(String path) {
+        if (!path.equals(directory) && cache != null) {
+            logger.warning("Media cache already open, the new location applies after clearCache");
+        }
+        directory = path;
+    }
+
+    public static synchronized void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        if (evictionPolicy != policy && cache != null) {
+            logger.warning("Media cache already open, the new eviction policy applies after clearCache");
+        }
+        policy = evictionPolicy;
+    }
+
+    private static synchronized void evictNow() {
+        if (cache != null) {
+            // The evictor state is guarded by the cache lock
+            synchronized (cache) {
+                evictor.evict(cache, 0);
+            }
+        }
+    }
+
+    private static File getDirectory(Context context) {
+        File dir = new File(directory);
+        return dir.isAbsolute() ? dir : new File(context.getCacheDir(), directory);
+    }
+
+    private static synchronized SimpleCache getCache(Context context) {
+        if (cache == null) {
+            File cacheDir = getDirectory(context);
+            if (!cacheDir.exists()) {
+                cacheDir.mkdirs();
+            }
+            loadPinned(context);
+            evictor = new Evictor(policy);
+            cache = new SimpleCache(cacheDir, evictor, new StandaloneDatabaseProvider(context));
+            logger.debug("Media cache opened in " + cacheDir + ", policy " + policy + ", max " + maxBytes + " bytes");
+        }
+        return cache;
+    }
+
+    /**
+     * Data source factory for players reading through the cache. It follows the cache when clearCache reopens it,
+     * so players keep working after a clear.
+     */
+    public static DataSource.Factory getDataSourceFactory(Context context) {
+        final Context appContext = context.getApplicationContext();
+        return () -> getFactory(appContext, false).createDataSource();
+    }
+
+    /**
+     * Source for background downloads, which wait for a free slot of the {@link HttpStack}.
+     */
+    public static CacheDataSource createBackgroundDataSource(Context context) {
+        return getFactory(context, true).createDataSource();
+    }
+
+    private static synchronized CacheDataSource.Factory getFactory(Context context, boolean background) {
+        CacheDataSource.Factory factory = background ? backgroundFactory : playbackFactory;
+        if (factory == null) {
+            DataSource.Factory http = background ? HttpStack.getBackgroundDataSourceFactory() : HttpStack.getDataSourceFactory();
+            factory = new CacheDataSource.Factory()
+                .setCache(getCache(context))
+                .setUpstreamDataSourceFactory(() -> {
+                    // Counts what is downloaded through the cache
+                    DataSource source = http.createDataSource();
+                    source.addTransferListener(networkListener);
+                    return source;
+                })
+                .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+                .setEventListener(cacheListener);
+            if (background) {
+                backgroundFactory = factory;
+            } else {
+                playbackFactory = factory;
+            }
+        }
+        return factory;
+    }
+
+    private static final TransferListener networkListener = new TransferListener() {
+        @Override
+        public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+        @Override
+        public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+            if (isNetwork) {
+                misses.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+            if (isNetwork) {
+                networkBytes.addAndGet(bytesTransferred);
+            }
+        }
+
+        @Override
+        public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+    };
+
+    private static final CacheDataSource.EventListener cacheListener = new CacheDataSource.EventListener() {
+        @Override
+        public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+            if (cachedBytesRead > 0) {
+                hits.incrementAndGet();
+                cacheBytes.addAndGet(cachedBytesRead);
+            }
+        }
+
+        @Override
+        public void onCacheIgnored(int reason) {
+            logger.debug("Media cache ignored, reason " + reason);
+        }
+    };
+
+    private static synchronized void loadPinned(Context context) {
+        if (pinned == null) {
+            pinned = new CopyOnWriteArraySet<>(preferences(context).getStringSet(PINNED_KEY, new HashSet<>()));
+        }
+    }
+
+    private static SharedPreferences preferences(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Keeps the cached content of a URL from being evicted, until unpinned.
+     */
+    public static synchronized void setPinned(Context context, String url, boolean pin) {
+        loadPinned(context);
+        boolean changed = pin ? pinned.add(url) : pinned.remove(url);
+        if (changed) {
+            preferences(context).edit().putStringSet(PINNED_KEY, new HashSet<>(pinned)).apply();
+            if (!pin) {
+                evictNow();
+            }
+        }
+    }
+
+    public static synchronized boolean isPinned(Context context, String url) {
+        loadPinned(context);
+        return pinned.contains(url);
+    }
+
+    public static synchronized long getBytesUsed() {
+        return cache != null ? cache.getCacheSpace() : 0;
+    }
+
+    public static synchronized int getEntryCount() {
+        return cache != null ? cache.getKeys().size() : 0;
+    }
+
+    public static synchronized int getPinnedCount(Context context) {
+        loadPinned(context);
+        return pinned.size();
+    }
+
+    /**
+     * Reads served at least partly from disk.
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Requests sent to the network.
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static long getCacheBytes() {
+        return cacheBytes.get();
+    }
+
+    public static long getNetworkBytes() {
+        return networkBytes.get();
+    }
+
+    /**
+     * Releases the cache and deletes its files, pinned content included. The next remote asset reopens it.
+     */
+    public static synchronized void clear(Context context) {
+        try {
+            if (cache != null) {
+                cache.release();
+                cache = null;
+                evictor = null;
+                playbackFactory = null;
+                backgroundFactory = null;
+            }
+            File cacheDir = getDirectory(context);
+            if (cacheDir.exists()) {
+                deleteDir(cacheDir);
+            }
+            hits.set(0);
+            misses.set(0);
+            cacheBytes.set(0);
+            networkBytes.set(0);
+        } catch (Exception e) {
+            logger.error("Error clearing audio cache", e);
+        }
+    }
+
+    private static boolean deleteDir(File dir) {
+        if (dir.isDirectory()) {
+            String[] children = dir.list();
+            if (children != null) {
+                for (String child : children) {
+                    boolean success = deleteDir(new File(dir, child));
+                    if (!success) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return dir.delete();
+    }
+
+    /**
+     * Evicts in policy order until the cache fits the size limit, skipping pinned keys.
+     * Called by SimpleCache under its own lock.
+     */
+    private static class Evictor implements CacheEvictor {
+
+        private final EvictionPolicy policy;
+        private final Map<String, Long> addedOrder = new HashMap<>();
+        // Spans per key, a key leaves addedOrder with its last span
+        private final Map<String, Integer> spanCounts = new HashMap<>();
+        private final TreeSet<CacheSpan> spans;
+        private long nextOrder = 0;
+        private long currentSize = 0;
+
+        Evictor(EvictionPolicy policy) {
+            this.policy = policy;
+            Comparator<CacheSpan> order = policy == EvictionPolicy.FIFO
+                ? (a, b) -> Long.compare(addedOrder.get(a.key), addedOrder.get(b.key))
+                : (a, b) -> Long.compare(a.lastTouchTimestamp, b.lastTouchTimestamp);
+            this.spans = new TreeSet<>((a, b) -> {
+                int result = order.compare(a, b);
+                return result != 0 ? result : a.compareTo(b);
+            });
+        }
+
+        @Override
+        public boolean requiresCacheSpanTouches() {
+            return policy == EvictionPolicy.LRU;
+        }
+
+        @Override
+        public void onCacheInitialized() {}
+
+        @Override
+        public void onStartFile(Cache cache, String key, long position, long length) {
+            if (length != C.LENGTH_UNSET) {
+                evict(cache, length);
+            }
+        }
+
+        @Override
+        public void onSpanAdded(Cache cache, CacheSpan span) {
+            if (!addedOrder.containsKey(span.key)) {
+                addedOrder.put(span.key, nextOrder++);
+            }
+            if (spans.add(span)) {
+                Integer count = spanCounts.get(span.key);
+                spanCounts.put(span.key, count != null ? count + 1 : 1);
+                currentSize += span.length;
+            }
+            evict(cache, 0);
+        }
+
+        @Override
+        public void onSpanRemoved(Cache cache, CacheSpan span) {
+            // Removed from the set before its key, the FIFO order reads addedOrder
+            if (!spans.remove(span)) {
+                return;
+            }
+            currentSize -= span.length;
+            Integer count = spanCounts.get(span.key);
+            if (count == null || count <= 1) {
+                spanCounts.remove(span.key);
+                addedOrder.remove(span.key);
+            } else {
+                spanCounts.put(span.key, count - 1);
+            }
+        }
+
+        @Override
+        public void onSpanTouched(Cache cache, CacheSpan oldSpan, CacheSpan newSpan) {
+            onSpanRemoved(cache, oldSpan);
+            onSpanAdded(cache, newSpan);
+        }
+
+        void evict(Cache cache, long requiredSpace) {
+            if (policy == EvictionPolicy.NONE || cache == null) {
+                return;
+            }
+            long limit = maxBytes;
+            if (currentSize + requiredSpace <= limit) {
+                return;
+            }
+            // Removing a span calls back onSpanRemoved, so walk a copy
+            for (CacheSpan span : new ArrayList<>(spans)) {
+                if (currentSize + requiredSpace <= limit) {
+                    break;
+                }
+                if (!pinned.contains(span.key)) {
+                    cache.removeSpan(span);
+                }
+            }
+        }
+    }
+}
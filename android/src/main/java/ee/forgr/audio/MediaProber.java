@@ -0,0 +1,572 @@
+package ee.forgr.audio;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.HttpDataSource;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads duration, sample rate and channel count from container headers (WAV, MP3, MP4, Ogg) without preparing a player.
+ * Only the few blocks holding the headers are read, which for remote files means small ranged requests
+ * through the background slots of the {@link HttpStack}.
+ */
+@UnstableApi
+public class MediaProber {
+
+    private static final String TAG = "MediaProber";
+    private static final Logger logger = new Logger(TAG);
+    private static final int BLOCK_SIZE = 16 * 1024;
+    private static final int OGG_TAIL_SIZE = 64 * 1024;
+    private static final int MAX_MOOV_SIZE = 8 * 1024 * 1024;
+
+    private static final int[] MP3_SAMPLE_RATES = { 44100, 48000, 32000 };
+    private static final int[][] MP3_BITRATES = {
+        { 0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448 }, // MPEG 1 layer I
+        { 0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384 }, // MPEG 1 layer II
+        { 0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320 }, // MPEG 1 layer III
+        { 0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256 }, // MPEG 2 and 2.5 layer I
+        { 0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160 } // MPEG 2 and 2.5 layers II and III
+    };
+
+    private MediaProber() {}
+
+    public static final class MediaInfo {
+
+        private final long durationUs;
+        private final int sampleRate;
+        private final int channels;
+        private final long length;
+
+        public MediaInfo(long durationUs, int sampleRate, int channels, long length) {
+            this.durationUs = durationUs;
+            this.sampleRate = sampleRate;
+            this.channels = channels;
+            this.length = length;
+        }
+
+        public long getDurationUs() {
+            return durationUs;
+        }
+
+        /**
+         * Duration in seconds.
+         */
+        public double getDuration() {
+            return durationUs / 1000000.0;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public int getChannels() {
+            return channels;
+        }
+
+        /**
+         * Size of the media in bytes, -1 when unknown.
+         */
+        public long getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * Random access to the bytes of a media, keeping the last block read so neighbouring headers cost one read.
+     */
+    public abstract static class Source implements Closeable {
+
+        private byte[] block;
+        private long blockOffset = -1;
+        private int blockLength = 0;
+
+        /**
+         * Size in bytes, -1 while unknown.
+         */
+        public abstract long length();
+
+        public boolean isRemote() {
+            return false;
+        }
+
+        /**
+         * Reads up to count bytes at position, returns -1 past the end.
+         */
+        protected abstract int fetch(long position, byte[] buffer, int offset, int count) throws IOException;
+
+        /**
+         * Bytes at offset, fewer than requested at the end of the media.
+         */
+        public byte[] read(long offset, int count) throws IOException {
+            if (block != null && offset >= blockOffset && offset + count <= blockOffset + blockLength) {
+                int start = (int) (offset - blockOffset);
+                return Arrays.copyOfRange(block, start, start + count);
+            }
+            int size = Math.max(count, BLOCK_SIZE);
+            long total = length();
+            if (total >= 0) {
+                size = (int) Math.max(0, Math.min(size, total - offset));
+            }
+            byte[] buffer = new byte[size];
+            int read = 0;
+            while (read < size) {
+                int n = fetch(offset + read, buffer, read, size - read);
+                if (n <= 0) {
+                    break;
+                }
+                read += n;
+            }
+            block = buffer;
+            blockOffset = offset;
+            blockLength = read;
+            return Arrays.copyOf(buffer, Math.min(count, read));
+        }
+    }
+
+    private static class FileSource extends Source {
+
+        private final FileInputStream stream;
+        private final FileChannel channel;
+        private final long start;
+        private final long length;
+
+        FileSource(AssetFileDescriptor afd) throws IOException {
+            // Closing the stream closes the descriptor
+            this.stream = afd.createInputStream();
+            this.channel = stream.getChannel();
+            this.start = afd.getStartOffset();
+            this.length = afd.getLength() != AssetFileDescriptor.UNKNOWN_LENGTH ? afd.getLength() : channel.size() - start;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        protected int fetch(long position, byte[] buffer, int offset, int count) throws IOException {
+            if (position >= length) {
+                return -1;
+            }
+            int size = (int) Math.min(count, length - position);
+            return channel.read(ByteBuffer.wrap(buffer, offset, size), start + position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+    }
+
+    private static class HttpSource extends Source {
+
+        private final String url;
+        private long length = -1;
+
+        HttpSource(String url) {
+            this.url = url;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public boolean isRemote() {
+            return true;
+        }
+
+        @Override
+        protected int fetch(long position, byte[] buffer, int offset, int count) throws IOException {
+            DataSource source = HttpStack.getBackgroundDataSourceFactory().createDataSource();
+            try {
+                source.open(new DataSpec.Builder().setUri(url).setPosition(position).setLength(count).build());
+                Map<String, List<String>> headers = source.getResponseHeaders();
+                // Content-Range: bytes start-end/total, missing when the server ignored the range and sent the whole file
+                String range = header(headers, "Content-Range");
+                String contentLength = header(headers, "Content-Length");
+                int slash = range != null ? range.lastIndexOf('/') : -1;
+                if (slash >= 0 && !range.endsWith("*")) {
+                    length = Long.parseLong(range.substring(slash + 1).trim());
+                } else if (range == null && contentLength != null) {
+                    length = Long.parseLong(contentLength.trim());
+                }
+                int read = 0;
+                while (read < count) {
+                    int n = source.read(buffer, offset + read, count - read);
+                    if (n == C.RESULT_END_OF_INPUT) {
+                        break;
+                    }
+                    read += n;
+                }
+                return read > 0 ? read : -1;
+            } catch (HttpDataSource.InvalidResponseCodeException e) {
+                if (e.responseCode == 416) {
+                    return -1;
+                }
+                throw e;
+            } finally {
+                source.close();
+            }
+        }
+
+        private static String header(Map<String, List<String>> headers, String name) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+                    return entry.getValue().get(0);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    /**
+     * Opens a remote URL, a file:// URL or a path in the app assets.
+     */
+    public static Source open(Context context, String path) throws IOException {
+        Uri uri = Uri.parse(path);
+        String scheme = uri.getScheme();
+        if ("http".equals(scheme) || "https".equals(scheme)) {
+            return new HttpSource(path);
+        }
+        if ("file".equals(scheme)) {
+            ParcelFileDescriptor pfd = ParcelFileDescriptor.open(new File(uri.getPath()), ParcelFileDescriptor.MODE_READ_ONLY);
+            return new FileSource(new AssetFileDescriptor(pfd, 0, AssetFileDescriptor.UNKNOWN_LENGTH));
+        }
+        return new FileSource(context.getAssets().openFd(path));
+    }
+
+    /**
+     * Returns null when the container is not recognized.
+     */
+    public static MediaInfo probe(Source source) throws IOException {
+        byte[] head = source.read(0, 12);
+        if (head.length < 12) {
+            return null;
+        }
+        if (matches(head, 0, "RIFF") && matches(head, 8, "WAVE")) {
+            return probeWav(source);
+        }
+        if (matches(head, 0, "OggS")) {
+            return probeOgg(source);
+        }
+        if (matches(head, 4, "ftyp")) {
+            return probeMp4(source);
+        }
+        return probeMp3(source, head);
+    }
+
+    private static MediaInfo probeWav(Source source) throws IOException {
+        long total = source.length();
+        long offset = 12;
+        int channels = 0;
+        int sampleRate = 0;
+        long byteRate = 0;
+        while (true) {
+            byte[] header = source.read(offset, 8);
+            if (header.length < 8) {
+                return null;
+            }
+            long size = le32(header, 4);
+            if (matches(header, 0, "fmt ")) {
+                byte[] format = source.read(offset + 8, 16);
+                if (format.length < 16) {
+                    return null;
+                }
+                channels = le16(format, 2);
+                sampleRate = (int) le32(format, 4);
+                byteRate = le32(format, 8);
+            } else if (matches(header, 0, "data")) {
+                if (byteRate <= 0) {
+                    return null;
+                }
+                long dataSize = size;
+                // Streamed WAVs leave the size unset
+                if (total >= 0 && (size == 0 || size == 0xFFFFFFFFL || offset + 8 + size > total)) {
+                    dataSize = total - offset - 8;
+                }
+                return new MediaInfo((dataSize * 1000000L) / byteRate, sampleRate, channels, total);
+            }
+            offset += 8 + size + (size & 1);
+        }
+    }
+
+    private static MediaInfo probeMp3(Source source, byte[] head) throws IOException {
+        long start = 0;
+        if (matches(head, 0, "ID3")) {
+            // Syncsafe tag size, plus the footer when flagged
+            long size = ((head[6] & 0x7F) << 21) | ((head[7] & 0x7F) << 14) | ((head[8] & 0x7F) << 7) | (head[9] & 0x7F);
+            start = 10 + size + ((head[5] & 0x10) != 0 ? 10 : 0);
+        }
+        byte[] data = source.read(start, BLOCK_SIZE);
+        for (int i = 0; i + 4 <= data.length; i++) {
+            if ((data[i] & 0xFF) != 0xFF || (data[i + 1] & 0xE0) != 0xE0) {
+                continue;
+            }
+            int version = (data[i + 1] >> 3) & 3;
+            int layer = (data[i + 1] >> 1) & 3;
+            int bitrateIndex = (data[i + 2] >> 4) & 0xF;
+            int rateIndex = (data[i + 2] >> 2) & 3;
+            if (version == 1 || layer == 0 || bitrateIndex == 0 || bitrateIndex == 15 || rateIndex == 3) {
+                continue;
+            }
+            boolean mpeg1 = version == 3;
+            int sampleRate = MP3_SAMPLE_RATES[rateIndex] >> (mpeg1 ? 0 : version == 2 ? 1 : 2);
+            int channels = ((data[i + 3] >> 6) & 3) == 3 ? 1 : 2;
+            // Layer bits: 3 is layer I, 2 layer II, 1 layer III
+            int samplesPerFrame = layer == 3 ? 384 : (layer == 2 || mpeg1) ? 1152 : 576;
+            int bitrate = MP3_BITRATES[mpeg1 ? 3 - layer : layer == 3 ? 3 : 4][bitrateIndex] * 1000;
+            long frames = mp3FrameCount(data, i, mpeg1, channels);
+            long total = source.length();
+            long durationUs = 0;
+            if (frames > 0) {
+                durationUs = (frames * samplesPerFrame * 1000000L) / sampleRate;
+            } else if (total > 0) {
+                // Constant bitrate
+                durationUs = ((total - start - i) * 8 * 1000000L) / bitrate;
+            }
+            return new MediaInfo(durationUs, sampleRate, channels, total);
+        }
+        return null;
+    }
+
+    /**
+     * Frame count from the Xing/Info or VBRI header of the first frame, 0 when there is none.
+     */
+    private static long mp3FrameCount(byte[] data, int frame, boolean mpeg1, int channels) {
+        int xing = frame + 4 + (mpeg1 ? (channels == 1 ? 17 : 32) : (channels == 1 ? 9 : 17));
+        if (xing + 12 <= data.length && (matches(data, xing, "Xing") || matches(data, xing, "Info"))) {
+            if ((be32(data, xing + 4) & 1) != 0) {
+                return be32(data, xing + 8);
+            }
+        }
+        int vbri = frame + 36;
+        if (vbri + 18 <= data.length && matches(data, vbri, "VBRI")) {
+            return be32(data, vbri + 14);
+        }
+        return 0;
+    }
+
+    private static MediaInfo probeMp4(Source source) throws IOException {
+        long total = source.length();
+        long offset = 0;
+        // The moov box may follow the media data, top level boxes are skipped by their header
+        while (true) {
+            byte[] header = source.read(offset, 16);
+            if (header.length < 8) {
+                return null;
+            }
+            long size = be32(header, 0);
+            int headerSize = 8;
+            if (size == 1) {
+                if (header.length < 16) {
+                    return null;
+                }
+                size = be64(header, 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                total = source.length();
+                if (total < 0) {
+                    return null;
+                }
+                size = total - offset;
+            }
+            if (size < headerSize) {
+                return null;
+            }
+            if (matches(header, 4, "moov")) {
+                if (size > MAX_MOOV_SIZE) {
+                    logger.warning("moov box too large to probe: " + size);
+                    return null;
+                }
+                byte[] moov = source.read(offset, (int) size);
+                return parseMoov(moov, headerSize, source.length());
+            }
+            offset += size;
+        }
+    }
+
+    private static MediaInfo parseMoov(byte[] moov, int start, long total) {
+        int end = moov.length;
+        int mvhd = findBox(moov, start, end, "mvhd");
+        if (mvhd < 0 || mvhd + 40 > end) {
+            return null;
+        }
+        long timescale;
+        long duration;
+        if ((moov[mvhd + 8] & 0xFF) == 1) {
+            timescale = be32(moov, mvhd + 28);
+            duration = be64(moov, mvhd + 32);
+        } else {
+            timescale = be32(moov, mvhd + 20);
+            duration = be32(moov, mvhd + 24);
+        }
+        long durationUs = timescale > 0 ? (long) (duration * 1000000.0 / timescale) : 0;
+
+        int sampleRate = 0;
+        int channels = 0;
+        for (int trak = findBox(moov, start, end, "trak"); trak >= 0; trak = findBox(moov, boxEnd(moov, trak, end), end, "trak")) {
+            int mdia = findBox(moov, trak + 8, boxEnd(moov, trak, end), "mdia");
+            if (mdia < 0) {
+                continue;
+            }
+            int mdiaEnd = boxEnd(moov, mdia, end);
+            int hdlr = findBox(moov, mdia + 8, mdiaEnd, "hdlr");
+            if (hdlr < 0 || hdlr + 20 > mdiaEnd || !matches(moov, hdlr + 16, "soun")) {
+                continue;
+            }
+            int minf = findBox(moov, mdia + 8, mdiaEnd, "minf");
+            int stbl = minf >= 0 ? findBox(moov, minf + 8, boxEnd(moov, minf, end), "stbl") : -1;
+            int stsd = stbl >= 0 ? findBox(moov, stbl + 8, boxEnd(moov, stbl, end), "stsd") : -1;
+            // First sample entry, an AudioSampleEntry with the channel count and a 16.16 sample rate
+            int entry = stsd + 16;
+            if (stsd >= 0 && entry + 36 <= end) {
+                channels = be16(moov, entry + 24);
+                sampleRate = be16(moov, entry + 32);
+            }
+            break;
+        }
+        return new MediaInfo(durationUs, sampleRate, channels, total);
+    }
+
+    /**
+     * Offset of the first box of the given type among the boxes between start and end, -1 when missing.
+     */
+    private static int findBox(byte[] data, int start, int end, String type) {
+        if (start < 0) {
+            return -1;
+        }
+        int offset = start;
+        while (offset + 8 <= end) {
+            if (matches(data, offset + 4, type)) {
+                return offset;
+            }
+            int next = boxEnd(data, offset, end);
+            if (next <= offset) {
+                return -1;
+            }
+            offset = next;
+        }
+        return -1;
+    }
+
+    private static int boxEnd(byte[] data, int offset, int end) {
+        long size = be32(data, offset);
+        if (size == 1 && offset + 16 <= end) {
+            size = be64(data, offset + 8);
+        } else if (size == 0) {
+            return end;
+        }
+        if (size < 8) {
+            return -1;
+        }
+        return (int) Math.min(end, offset + size);
+    }
+
+    private static MediaInfo probeOgg(Source source) throws IOException {
+        byte[] page = source.read(0, BLOCK_SIZE);
+        if (page.length < 27) {
+            return null;
+        }
+        long serial = le32(page, 14);
+        // The identification packet starts right after the segment table of the first page
+        int packet = 27 + (page[26] & 0xFF);
+        if (packet + 19 > page.length) {
+            return null;
+        }
+        int channels;
+        int sampleRate;
+        long granuleRate;
+        long preSkip = 0;
+        if (page[packet] == 1 && matches(page, packet + 1, "vorbis")) {
+            channels = page[packet + 11] & 0xFF;
+            sampleRate = (int) le32(page, packet + 12);
+            granuleRate = sampleRate;
+        } else if (matches(page, packet, "OpusHead")) {
+            channels = page[packet + 9] & 0xFF;
+            preSkip = le16(page, packet + 10);
+            sampleRate = (int) le32(page, packet + 12);
+            if (sampleRate == 0) {
+                sampleRate = 48000;
+            }
+            // Opus granule positions always count 48 kHz samples
+            granuleRate = 48000;
+        } else {
+            return null;
+        }
+        long total = source.length();
+        long durationUs = 0;
+        if (total > 0 && granuleRate > 0) {
+            // The granule position of the last page is the sample count of the stream
+            long tailStart = Math.max(0, total - OGG_TAIL_SIZE);
+            byte[] tail = source.read(tailStart, (int) (total - tailStart));
+            for (int i = tail.length - 27; i >= 0; i--) {
+                if (matches(tail, i, "OggS") && le32(tail, i + 14) == serial) {
+                    long granule = le64(tail, i + 6);
+                    // -1 marks pages where no packet ends
+                    if (granule > 0) {
+                        durationUs = (Math.max(0, granule - preSkip) * 1000000L) / granuleRate;
+                        break;
+                    }
+                }
+            }
+        }
+        return new MediaInfo(durationUs, sampleRate, channels, total);
+    }
+
+    private static boolean matches(byte[] data, int offset, String tag) {
+        byte[] bytes = tag.getBytes(StandardCharsets.US_ASCII);
+        if (offset < 0 || offset + bytes.length > data.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (data[offset + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int be16(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static long be32(byte[] data, int offset) {
+        return ((long) be16(data, offset) << 16) | be16(data, offset + 2);
+    }
+
+    private static long be64(byte[] data, int offset) {
+        return (be32(data, offset) << 32) | be32(data, offset + 4);
+    }
+
+    private static int le16(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+    }
+
+    private static long le32(byte[] data, int offset) {
+        return le16(data, offset) | ((long) le16(data, offset + 2) << 16);
+    }
+
+    private static long le64(byte[] data, int offset) {
+        return le32(data, offset) | (le32(data, offset + 4) << 32);
+    }
+}
@@ -0,0 +1,85 @@
+package ee.forgr.audio;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.media3.common.util.UnstableApi;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Probed metadata persisted across launches, keyed by asset path, so a file is only probed once.
+ * Entries are dropped when the size of the media no longer matches.
+ */
+@UnstableApi
+public class MetadataIndex {
+
+    private static final String TAG = "MetadataIndex";
+    private static final Logger logger = new Logger(TAG);
+    private static final String PREFERENCES = "NativeAudioMetadata";
+
+    private final SharedPreferences preferences;
+    private final Map<String, MediaProber.MediaInfo> entries = new ConcurrentHashMap<>();
+
+    public MetadataIndex(Context context) {
+        this.preferences = context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Returns null on a miss. Pass -1 as length to skip the size check, e.g. for remote files.
+     */
+    public MediaProber.MediaInfo get(String path, long length) {
+        MediaProber.MediaInfo info = entries.get(path);
+        if (info == null) {
+            String json = preferences.getString(path, null);
+            if (json == null) {
+                return null;
+            }
+            try {
+                JSONObject entry = new JSONObject(json);
+                info = new MediaProber.MediaInfo(
+                    entry.getLong("durationUs"),
+                    entry.getInt("sampleRate"),
+                    entry.getInt("channels"),
+                    entry.optLong("length", -1)
+                );
+                entries.put(path, info);
+            } catch (JSONException e) {
+                logger.warning("Dropping unreadable metadata of " + path);
+                remove(path);
+                return null;
+            }
+        }
+        if (length >= 0 && info.getLength() >= 0 && info.getLength() != length) {
+            logger.debug("Metadata of " + path + " is stale");
+            remove(path);
+            return null;
+        }
+        return info;
+    }
+
+    public void put(String path, MediaProber.MediaInfo info) {
+        entries.put(path, info);
+        try {
+            JSONObject entry = new JSONObject();
+            entry.put("durationUs", info.getDurationUs());
+            entry.put("sampleRate", info.getSampleRate());
+            entry.put("channels", info.getChannels());
+            entry.put("length", info.getLength());
+            preferences.edit().putString(path, entry.toString()).apply();
+        } catch (JSONException e) {
+            logger.error("Error storing metadata of " + path, e);
+        }
+    }
+
+    public void remove(String path) {
+        entries.remove(path);
+        preferences.edit().remove(path).apply();
+    }
+
+    public void clear() {
+        entries.clear();
+        preferences.edit().clear().apply();
+    }
+}
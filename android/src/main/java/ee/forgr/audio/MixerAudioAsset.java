@@ -0,0 +1,283 @@
+package ee.forgr.audio;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import androidx.media3.common.util.UnstableApi;
+
+/**
+ * Local asset decoded into memory and played as voices of the shared {@link AudioMixer}.
+ * It owns no native player, so a loaded asset only costs its PCM buffer.
+ */
+@UnstableApi
+public class MixerAudioAsset extends AudioAsset implements Sequencer.Target {
+
+    private static final String TAG = "MixerAudioAsset";
+    private static final Logger logger = new Logger(TAG);
+
+    private final AudioMixer mixer;
+    private final PcmBuffer.Source source;
+    private final int sampleRate;
+    private final int frameCount;
+    private final double duration;
+    private final long sizeInBytes;
+    private volatile PcmBuffer pcm;
+    private final int maxVoices;
+    private final Handler handler = AudioThread.getHandler();
+    private float volume;
+    private float rate = 1.0f;
+    private volatile boolean unloaded = false;
+    volatile int loopStart;
+    volatile int loopEnd;
+
+    /**
+     * Posted by the mixer when one of this asset's voices reaches its end.
+     */
+    final Runnable voiceEndedRunnable = () -> {
+        if (!mixerHasVoices()) {
+            dispatchComplete();
+        }
+    };
+
+    MixerAudioAsset(NativeAudio owner, String assetId, AudioMixer mixer, PcmBuffer.Source source, int audioChannelNum, float volume)
+        throws Exception {
+        super(owner, assetId, null, 0, volume);
+        this.mixer = mixer;
+        this.volume = volume;
+        this.maxVoices = Math.max(1, audioChannelNum);
+        this.source = source;
+        this.pcm = source.load();
+        this.sampleRate = pcm.getSampleRate();
+        this.frameCount = pcm.getFrameCount();
+        this.duration = pcm.getDuration();
+        this.sizeInBytes = pcm.getSizeInBytes();
+        this.loopEnd = frameCount;
+        mixer.register();
+    }
+
+    private boolean mixerHasVoices() {
+        return mixer.hasActiveVoices(this);
+    }
+
+    private void startVoice(double time, float gain, boolean loop) throws Exception {
+        startVoice(time, gain, loop, 0);
+    }
+
+    private void startVoice(double time, float gain, boolean loop, long startFrame) throws Exception {
+        ensureResident();
+        cancelFade();
+        startCurrentTimeUpdates();
+        if (!mixer.play(this, pcm, time, gain, rate, loop, maxVoices, startFrame)) {
+            throw new Exception("No voice available for " + assetId);
+        }
+    }
+
+    @Override
+    public void play(double time, float volume) throws Exception {
+        this.volume = volume;
+        startVoice(time, volume, false);
+    }
+
+    /**
+     * Starts playback on the mixer audio clock.
+     *
+     * @param when audio clock time in seconds, see {@link AudioMixer#getAudioTime()}
+     */
+    public void playAt(double when, double time, float volume) throws Exception {
+        this.volume = volume;
+        startVoice(time, volume, false, mixer.toFrame(when));
+    }
+
+    /**
+     * Starts a voice from the mixer render thread, for the {@link Sequencer}.
+     * Rejected triggers are dropped, there is no caller to report them to.
+     * Sequenced voices do not join the {@link TimeTicker}, registering would allocate on the render thread.
+     */
+    @Override
+    public void trigger(long startFrame, float gain, float rate) {
+        if (unloaded) {
+            return;
+        }
+        lastUsedAt = SystemClock.elapsedRealtime();
+        PcmBuffer pcm = this.pcm;
+        if (pcm == null) {
+            // Evicted, this trigger is dropped rather than decoding on the render thread
+            handler.post(() -> {
+                logger.warning("Dropped a trigger of evicted asset " + assetId + ", rebuilding it");
+                try {
+                    ensureResident();
+                } catch (Exception e) {
+                    logger.error("Error rebuilding " + assetId, e);
+                }
+            });
+            return;
+        }
+        completeDispatched = false;
+        mixer.play(this, pcm, 0, gain, rate, false, maxVoices, startFrame);
+    }
+
+    @Override
+    public void loop() throws Exception {
+        startVoice(0, volume, true);
+    }
+
+    @Override
+    public void setLoopRegion(double loopStart, double loopEnd) throws Exception {
+        int start = Math.min(PcmBuffer.toFrame(loopStart, sampleRate, frameCount), frameCount - 1);
+        int end = loopEnd > 0 ? PcmBuffer.toFrame(loopEnd, sampleRate, frameCount) : frameCount;
+        if (end <= start) {
+            throw new Exception("Loop end must be after loop start");
+        }
+        this.loopStart = start;
+        this.loopEnd = end;
+        mixer.setLoopRegion(this, start, end);
+    }
+
+    @Override
+    public boolean pause() throws Exception {
+        cancelFade();
+        stopCurrentTimeUpdates();
+        return mixer.pause(this);
+    }
+
+    @Override
+    public void resume() throws Exception {
+        mixer.resume(this);
+        if (mixerHasVoices()) {
+            startCurrentTimeUpdates();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        cancelFade();
+        boolean hadVoices = mixerHasVoices();
+        stopCurrentTimeUpdates();
+        mixer.stop(this);
+        if (hadVoices) {
+            dispatchComplete();
+        }
+    }
+
+    @Override
+    public void unload() throws Exception {
+        unloaded = true;
+        cancelFade();
+        stopCurrentTimeUpdates();
+        mixer.unregister(this);
+        close();
+    }
+
+    @Override
+    public void setVolume(float volume, double duration, FadeCurve curve) throws Exception {
+        cancelFade();
+        if (duration > 0 && isPlaying()) {
+            rampVolume(this.volume, volume, duration, curve, this::applyVolume, null);
+        } else {
+            applyVolume(volume);
+        }
+    }
+
+    private void applyVolume(float volume) {
+        this.volume = volume;
+        mixer.setGain(this, volume);
+    }
+
+    @Override
+    public float getVolume() {
+        return volume;
+    }
+
+    @Override
+    public void setRate(float rate) throws Exception {
+        this.rate = rate;
+        mixer.setRate(this, rate);
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return mixer.isPlaying(this);
+    }
+
+    @Override
+    public double getDuration() {
+        return duration;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return mixer.getPosition(this) / sampleRate;
+    }
+
+    /**
+     * Reports the position of the latest voice, the end itself is dispatched when the mixer reports the voice ended.
+     */
+    @Override
+    protected double pollCurrentTime() {
+        if (isPlaying()) {
+            return getCurrentPosition();
+        }
+        // Voices waiting for their start frame, paused voices already left the ticker
+        return mixerHasVoices() ? TIME_UNAVAILABLE : TIME_STOPPED;
+    }
+
+    @Override
+    public void setCurrentTime(double time) throws Exception {
+        mixer.seek(this, time, sampleRate);
+    }
+
+    @Override
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs, FadeCurve curve) throws Exception {
+        startVoice(time, 0f, false);
+        this.volume = 0f;
+        rampVolume(0f, volume, fadeInDurationMs, curve, this::applyVolume, null);
+    }
+
+    @Override
+    public void stopWithFade(double fadeOutDurationMs, boolean toPause, FadeCurve curve) throws Exception {
+        if (!isPlaying()) {
+            return;
+        }
+        final float restoreVolume = volume;
+        rampVolume(
+            volume,
+            0f,
+            fadeOutDurationMs,
+            curve,
+            this::applyVolume,
+            () ->
+                handler.post(() -> {
+                    try {
+                        if (toPause) {
+                            pause();
+                        } else {
+                            stop();
+                        }
+                        applyVolume(restoreVolume);
+                    } catch (Exception e) {
+                        logger.error("Error finishing fade out", e);
+                    }
+                })
+        );
+    }
+
+    @Override
+    public long getResidentBytes() {
+        return sizeInBytes;
+    }
+
+    @Override
+    protected boolean isIdle() {
+        return !mixerHasVoices();
+    }
+
+    @Override
+    protected void releaseResources() {
+        // Voices still rendering keep their own reference, there are none while idle
+        pcm = null;
+    }
+
+    @Override
+    protected void rebuildResources() throws Exception {
+        pcm = source.load();
+    }
+}
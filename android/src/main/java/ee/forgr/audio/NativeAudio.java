@@ -1,40 +1,102 @@
 package ee.forgr.audio;
 
 import static ee.forgr.audio.Constant.ASSET_ID;
+import static ee.forgr.audio.Constant.ASSETS;
 import static ee.forgr.audio.Constant.ASSET_PATH;
 import static ee.forgr.audio.Constant.AUDIO_CHANNEL_NUM;
+import static ee.forgr.audio.Constant.CACHE;
+import static ee.forgr.audio.Constant.CACHE_PRIORITY;
+import static ee.forgr.audio.Constant.CONNECT_TIMEOUT;
+import static ee.forgr.audio.Constant.CURVE;
 import static ee.forgr.audio.Constant.DELAY;
+import static ee.forgr.audio.Constant.DIRECTORY;
 import static ee.forgr.audio.Constant.DURATION;
+import static ee.forgr.audio.Constant.ENGINE;
+import static ee.forgr.audio.Constant.ENGINE_MEDIA_PLAYER;
+import static ee.forgr.audio.Constant.ENGINE_MIXER;
+import static ee.forgr.audio.Constant.ENGINE_PCM;
+import static ee.forgr.audio.Constant.ENGINE_SOUND_POOL;
+import static ee.forgr.audio.Constant.ERROR_ASSETS_MISSING;
 import static ee.forgr.audio.Constant.ERROR_ASSET_NOT_LOADED;
 import static ee.forgr.audio.Constant.ERROR_ASSET_PATH_MISSING;
 import static ee.forgr.audio.Constant.ERROR_AUDIO_ASSET_MISSING;
 import static ee.forgr.audio.Constant.ERROR_AUDIO_EXISTS;
 import static ee.forgr.audio.Constant.ERROR_AUDIO_ID_MISSING;
+import static ee.forgr.audio.Constant.ERROR_EVENTS_MISSING;
+import static ee.forgr.audio.Constant.ERROR_GROUP_MISSING;
+import static ee.forgr.audio.Constant.ERROR_METADATA_UNAVAILABLE;
+import static ee.forgr.audio.Constant.ERROR_OPERATIONS_MISSING;
+import static ee.forgr.audio.Constant.ERROR_PATTERN_LENGTH;
+import static ee.forgr.audio.Constant.ERROR_QUEUE_MISSING;
+import static ee.forgr.audio.Constant.ERROR_SEQUENCER_ASSET;
+import static ee.forgr.audio.Constant.ERROR_UNKNOWN_OPERATION;
+import static ee.forgr.audio.Constant.ERROR_URLS_MISSING;
+import static ee.forgr.audio.Constant.ERROR_URL_MISSING;
+import static ee.forgr.audio.Constant.ERROR_WHEN_MISSING;
+import static ee.forgr.audio.Constant.EVENTS;
+import static ee.forgr.audio.Constant.EVICTION_POLICY;
 import static ee.forgr.audio.Constant.FADE_IN;
 import static ee.forgr.audio.Constant.FADE_IN_DURATION;
 import static ee.forgr.audio.Constant.FADE_OUT;
 import static ee.forgr.audio.Constant.FADE_OUT_DURATION;
 import static ee.forgr.audio.Constant.FADE_OUT_START_TIME;
+import static ee.forgr.audio.Constant.FROM_ASSET_ID;
+import static ee.forgr.audio.Constant.FROM_HANDLE;
+import static ee.forgr.audio.Constant.GROUP;
+import static ee.forgr.audio.Constant.HANDLE;
+import static ee.forgr.audio.Constant.HTTP;
+import static ee.forgr.audio.Constant.INDEX;
+import static ee.forgr.audio.Constant.ITEMS;
+import static ee.forgr.audio.Constant.LENGTH;
 import static ee.forgr.audio.Constant.LOOP;
+import static ee.forgr.audio.Constant.LOOP_END;
+import static ee.forgr.audio.Constant.LOOP_START;
+import static ee.forgr.audio.Constant.MAX_CONNECTIONS;
+import static ee.forgr.audio.Constant.MAX_SIZE;
+import static ee.forgr.audio.Constant.MAX_STREAMS;
+import static ee.forgr.audio.Constant.MAX_VOICES;
+import static ee.forgr.audio.Constant.MEMORY_CACHE;
+import static ee.forgr.audio.Constant.MUTED;
+import static ee.forgr.audio.Constant.OFFSET;
+import static ee.forgr.audio.Constant.OPERATIONS;
 import static ee.forgr.audio.Constant.OPT_FOCUS_AUDIO;
+import static ee.forgr.audio.Constant.PCM_CACHE;
 import static ee.forgr.audio.Constant.PLAY;
+import static ee.forgr.audio.Constant.PRIORITY;
 import static ee.forgr.audio.Constant.RATE;
+import static ee.forgr.audio.Constant.READ_TIMEOUT;
+import static ee.forgr.audio.Constant.SEEK;
+import static ee.forgr.audio.Constant.SET_RATE;
+import static ee.forgr.audio.Constant.SET_VOLUME;
+import static ee.forgr.audio.Constant.STEAL_POLICY;
+import static ee.forgr.audio.Constant.STOP;
+import static ee.forgr.audio.Constant.TIME;
+import static ee.forgr.audio.Constant.TIME_UPDATE_RATE;
+import static ee.forgr.audio.Constant.TO_ASSET_ID;
+import static ee.forgr.audio.Constant.TO_HANDLE;
+import static ee.forgr.audio.Constant.TRIM_ENCODER_GAPS;
+import static ee.forgr.audio.Constant.TYPE;
+import static ee.forgr.audio.Constant.URL;
+import static ee.forgr.audio.Constant.URLS;
+import static ee.forgr.audio.Constant.USER_AGENT;
 import static ee.forgr.audio.Constant.VOLUME;
+import static ee.forgr.audio.Constant.WHEN;
 
 import android.Manifest;
 import android.content.Context;
 import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
+import android.media.AudioAttributes;
 import android.media.AudioManager;
+import android.media.SoundPool;
 import android.net.Uri;
 import android.os.Build;
-import android.os.Handler;
-import android.os.Looper;
 import android.os.ParcelFileDescriptor;
 import android.util.Log;
 
 import androidx.media3.common.util.UnstableApi;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
@@ -43,9 +105,19 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.Permission;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 @UnstableApi
@@ -62,13 +134,34 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
 
     // Use thread-safe collections
     private static ConcurrentHashMap<String, AudioAsset> audioAssetList = new ConcurrentHashMap<>();
+    // Ids whose asset is being built, until it is in audioAssetList
+    private static final Set<String> loadingIds = ConcurrentHashMap.newKeySet();
     // List to manage auto-resume assets on audio focus changes or app lifecycle events
     private static CopyOnWriteArrayList<AudioAsset> autoResumeList = new CopyOnWriteArrayList<>();
+    // Shared SoundPool for assets preloaded with the "soundpool" engine, keyed by sample id for load callbacks
+    private static SoundPool soundPool;
+    private static final Map<Integer, SoundPoolAsset> soundPoolSamples = new ConcurrentHashMap<>();
+    private static final Map<String, AudioGroup> groups = new ConcurrentHashMap<>();
+    private static final AssetRegistry assetHandles = new AssetRegistry();
+    private static ExecutorService preloadExecutor;
+    private static final int DEFAULT_MAX_STREAMS = 32;
+    private static int soundPoolMaxStreams = DEFAULT_MAX_STREAMS;
+    // Software mixer shared by every asset preloaded with the "mixer" engine
+    private static AudioMixer mixer;
     private AudioManager audioManager;
     private final Map<String, PluginCall> pendingDurationCalls = new ConcurrentHashMap<>();
-    private final Map<String, Handler> pendingPlayHandlers = new ConcurrentHashMap<>();
-    private final Map<String, Runnable> pendingPlayRunnables = new ConcurrentHashMap<>();
+    // Path each asset was loaded from, and its metadata once probed
+    private final Map<String, String> assetPaths = new ConcurrentHashMap<>();
+    private final Map<String, MediaProber.MediaInfo> assetMetadata = new ConcurrentHashMap<>();
+    private MetadataIndex metadataIndex;
+    private PcmCache pcmCache;
+    private final List<Crossfade> crossfades = new CopyOnWriteArrayList<>();
+    // Assets of the last pattern sent to the sequencer, kept resident by the memory cache
+    private Set<AudioAsset> patternAssets = new HashSet<>();
     private final Map<String, JSObject> audioData = new ConcurrentHashMap<>();
+    private final TimeTicker timeTicker = new TimeTicker(this);
+    private final Prefetcher prefetcher = new Prefetcher(this);
+    private final ClipCache clipCache = new ClipCache();
 
     private static final Logger logger = new Logger(TAG);
     protected static boolean debugEnabled = false;
@@ -79,6 +172,11 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
         this.audioManager = this.getActivity() != null ? (AudioManager) this.getActivity().getSystemService(Context.AUDIO_SERVICE) : null;
         audioAssetList = new ConcurrentHashMap<>();
         autoResumeList = new CopyOnWriteArrayList<>();
+        groups.clear();
+        assetHandles.clear();
+        clipCache.clear();
+        metadataIndex = new MetadataIndex(getContext());
+        pcmCache = new PcmCache(getContext());
     }
 
     @Override
@@ -155,6 +253,39 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
     @PluginMethod
     public void configure(PluginCall call) {
         try {
+            if (call.hasOption(MAX_STREAMS)) {
+                setSoundPoolMaxStreams(call.getInt(MAX_STREAMS, DEFAULT_MAX_STREAMS));
+            }
+            if (call.hasOption(MAX_VOICES)) {
+                VoiceAllocator.setGlobalLimit(call.getInt(MAX_VOICES, 0));
+            }
+            if (call.hasOption(TIME_UPDATE_RATE)) {
+                double rate = call.getDouble(TIME_UPDATE_RATE, 0.0);
+                timeTicker.setIntervalMs(rate > 0 ? Math.max(1, Math.round(1000 / rate)) : 0);
+            }
+            if (call.hasOption(CACHE)) {
+                configureCache(call.getObject(CACHE, new JSObject()));
+            }
+            if (call.hasOption(HTTP)) {
+                configureHttp(call.getObject(HTTP, new JSObject()));
+            }
+            if (call.hasOption(MEMORY_CACHE)) {
+                JSObject memoryCacheOptions = call.getObject(MEMORY_CACHE, new JSObject());
+                if (memoryCacheOptions.has(MAX_SIZE)) {
+                    clipCache.setMaxBytes(memoryCacheOptions.optLong(MAX_SIZE, 0));
+                }
+            }
+            if (call.hasOption(PCM_CACHE)) {
+                JSObject pcmCacheOptions = call.getObject(PCM_CACHE, new JSObject());
+                if (pcmCacheOptions.has(MAX_SIZE)) {
+                    pcmCache.setMaxBytes(pcmCacheOptions.optLong(MAX_SIZE, PcmCache.DEFAULT_MAX_BYTES));
+                }
+            }
+            if (call.hasOption(STEAL_POLICY)) {
+                VoiceAllocator.setDefaultPolicy(
+                    VoiceAllocator.StealPolicy.fromString(call.getString(STEAL_POLICY), VoiceAllocator.getDefaultPolicy())
+                );
+            }
             initSoundPool();
 
             if (this.audioManager == null) {
@@ -187,6 +318,36 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
         }
     }
 
+    private void configureCache(JSObject options) {
+        if (options.has(MAX_SIZE)) {
+            MediaCache.setMaxBytes(options.optLong(MAX_SIZE, MediaCache.DEFAULT_MAX_BYTES));
+        }
+        if (isStringValid(options.getString(DIRECTORY))) {
+            MediaCache.setDirectory(options.getString(DIRECTORY));
+        }
+        if (options.has(EVICTION_POLICY)) {
+            MediaCache.setEvictionPolicy(
+                MediaCache.EvictionPolicy.fromString(options.getString(EVICTION_POLICY), MediaCache.EvictionPolicy.LRU)
+            );
+        }
+    }
+
+    private void configureHttp(JSObject options) {
+        if (options.has(CONNECT_TIMEOUT) || options.has(READ_TIMEOUT)) {
+            double defaultTimeout = HttpStack.DEFAULT_TIMEOUT_MS / 1000.0;
+            HttpStack.setTimeouts(
+                (int) Math.round(options.optDouble(CONNECT_TIMEOUT, defaultTimeout) * 1000),
+                (int) Math.round(options.optDouble(READ_TIMEOUT, defaultTimeout) * 1000)
+            );
+        }
+        if (options.has(MAX_CONNECTIONS)) {
+            HttpStack.setMaxConnections(options.optInt(MAX_CONNECTIONS, HttpStack.DEFAULT_MAX_CONNECTIONS));
+        }
+        if (options.has(USER_AGENT)) {
+            HttpStack.setUserAgent(options.getString(USER_AGENT));
+        }
+    }
+
     @PluginMethod
     public void isPreloaded(final PluginCall call) {
         new Thread(
@@ -196,13 +357,11 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
                     try {
                         initSoundPool();
 
-                        String audioId = call.getString(ASSET_ID);
-
-                        if (!isStringValid(audioId)) {
-                            call.reject(ERROR_AUDIO_ID_MISSING + " - " + audioId);
+                        if (!hasAssetReference(call)) {
+                            call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
                             return;
                         }
-                        call.resolve(new JSObject().put("found", audioAssetList.containsKey(audioId)));
+                        call.resolve(new JSObject().put("found", getAsset(call) != null));
                     } catch (Exception ex) {
                         call.reject(ex.getMessage());
                     }
@@ -213,68 +372,639 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
 
     @PluginMethod
     public void preload(final PluginCall call) {
-        this.getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        preloadAsset(call);
-                    }
+        String engine = call.getString(ENGINE);
+        if (ENGINE_PCM.equals(engine) || ENGINE_MIXER.equals(engine)) {
+            // Decoding a whole file can take a while, keep it off the audio thread
+            getPreloadExecutor().execute(() -> preloadAsset(call));
+            return;
+        }
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    preloadAsset(call);
+                }
+            }
+        );
+    }
+
+    /**
+     * Preloads a manifest of assets on a pool sized to the core count, so MediaPlayer prepares and decodes run
+     * in parallel and off the audio thread. Resolves once every asset has loaded or failed.
+     */
+    @PluginMethod
+    public void preloadMany(final PluginCall call) {
+        JSArray assets = call.getArray(ASSETS);
+        if (assets == null || assets.length() == 0) {
+            call.reject(ERROR_ASSETS_MISSING);
+            return;
+        }
+        String duplicate = findDuplicateId(assets);
+        if (duplicate != null) {
+            call.reject(ERROR_AUDIO_EXISTS + " - " + duplicate + " is listed more than once");
+            return;
+        }
+        initSoundPool();
+        final int total = assets.length();
+        final JSObject results = new JSObject();
+        final AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < total; i++) {
+            JSObject options;
+            try {
+                options = JSObject.fromJSONObject(assets.getJSONObject(i));
+            } catch (JSONException ex) {
+                options = new JSObject();
+            }
+            final JSObject assetOptions = options;
+            // Entries without a valid id are reported under their index in the manifest
+            final String key = isStringValid(options.getString(ASSET_ID)) ? options.getString(ASSET_ID) : String.valueOf(i);
+            Runnable task = () -> {
+                JSObject result = new JSObject();
+                try {
+                    result.put("handle", loadAsset(assetOptions).getHandle());
+                    result.put("loaded", true);
+                } catch (Exception ex) {
+                    logger.error("Error preloading " + key, ex);
+                    result.put("loaded", false);
+                    result.put("error", ex.getMessage());
+                }
+                onBulkPreloaded(call, key, result, results, completed, total);
+            };
+            if (options.getBoolean("isUrl", false) && isRemoteUri(Uri.parse(options.getString(ASSET_PATH, "")))) {
+                // ExoPlayer based assets don't block while loading, and are bound to the audio thread
+                AudioThread.post(task);
+            } else {
+                getPreloadExecutor().execute(task);
+            }
+        }
+    }
+
+    private String findDuplicateId(JSArray assets) {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < assets.length(); i++) {
+            JSONObject options = assets.optJSONObject(i);
+            String id = options != null ? options.optString(ASSET_ID, null) : null;
+            if (isStringValid(id) && !ids.add(id)) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private void onBulkPreloaded(PluginCall call, String assetId, JSObject result, JSObject results, AtomicInteger counter, int total) {
+        synchronized (results) {
+            results.put(assetId, result);
+        }
+        // Counted once the result is stored, so the last asset resolves with every result
+        int completed = counter.incrementAndGet();
+        JSObject progress = new JSObject();
+        progress.put("assetId", assetId);
+        progress.put("loaded", result.getBoolean("loaded", false));
+        if (result.has("error")) {
+            progress.put("error", result.getString("error"));
+        }
+        progress.put("completed", completed);
+        progress.put("total", total);
+        notifyListeners("preloadProgress", progress);
+        if (completed == total) {
+            synchronized (results) {
+                call.resolve(new JSObject().put("results", results));
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getPreloadExecutor() {
+        if (preloadExecutor == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                30,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                (runnable) -> {
+                    Thread thread = new Thread(runnable, "NativeAudioPreload");
+                    thread.setDaemon(true);
+                    return thread;
                 }
             );
+            executor.allowCoreThreadTimeOut(true);
+            preloadExecutor = executor;
+        }
+        return preloadExecutor;
     }
 
     @PluginMethod
     public void play(final PluginCall call) {
         try {
             double delay = call.getDouble(DELAY, 0.0);
-            String assetId = call.getString(ASSET_ID);
+            AudioAsset asset = getAsset(call);
+            if (asset == null) {
+                call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
+                return;
+            }
 
             // Cancel any pending play before scheduling a new one
-            cancelPendingPlay(assetId);
+            cancelPendingPlay(asset);
+            schedulePendingPlay(asset, (long) (delay * 1000), call);
+        } catch (Exception ex) {
+            call.reject(ex.getMessage());
+        }
+    }
 
-            this.getActivity()
-                .runOnUiThread(() -> {
-                    long delayMillis = (long) (delay * 1000);
-                    Handler handler = new Handler(Looper.getMainLooper());
-                    Runnable runnable = new Runnable() {
-                        @Override
-                        public void run() {
-                            playOrLoop(PLAY, call);
-                            cancelPendingPlay(assetId);
-                        }
-                    };
-                    pendingPlayHandlers.put(assetId, handler);
-                    pendingPlayRunnables.put(assetId, runnable);
-                    handler.postDelayed(runnable, delayMillis);
+    private void schedulePendingPlay(AudioAsset asset, long delayMillis, PluginCall call) {
+        if (delayMillis <= 0) {
+            AudioThread.post(() -> playOrLoop(PLAY, call, asset));
+            return;
+        }
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                if (asset.takeDelayedPlay() == this) {
+                    playOrLoop(PLAY, call, asset);
+                }
+            }
+        };
+        asset.setDelayedPlay(runnable);
+        AudioThread.getHandler().postDelayed(runnable, delayMillis);
+    }
+
+    /**
+     * Starts an asset at a time of the audio clock returned by getAudioTime.
+     * Mixer assets start on the exact output frame, the other engines fall back to a delayed play.
+     */
+    @PluginMethod
+    public void playAt(final PluginCall call) {
+        try {
+            initSoundPool();
+            if (!hasAssetReference(call)) {
+                call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
+                return;
+            }
+            Double when = call.getDouble(WHEN);
+            if (when == null) {
+                call.reject(ERROR_WHEN_MISSING);
+                return;
+            }
+            AudioAsset asset = getAsset(call);
+            if (asset == null) {
+                call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + describeAsset(call));
+                return;
+            }
+            cancelPendingPlay(asset);
+            if (asset instanceof MixerAudioAsset) {
+                ((MixerAudioAsset) asset).playAt(when, call.getDouble(TIME, 0.0), call.getFloat(VOLUME, 1f));
+                call.resolve();
+                return;
+            }
+            double delay = when - getMixer().getAudioTime();
+            schedulePendingPlay(asset, Math.max(0, Math.round(delay * 1000)), call);
+        } catch (Exception ex) {
+            call.reject(ex.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getAudioTime(final PluginCall call) {
+        call.resolve(new JSObject().put("audioTime", getMixer().getAudioTime()));
+    }
+
+    /**
+     * Sends a whole pattern to the sequencer. A playing sequencer switches to it at the end of the current iteration.
+     */
+    @PluginMethod
+    public void setPattern(final PluginCall call) {
+        try {
+            initSoundPool();
+            JSArray events = call.getArray(EVENTS);
+            if (events == null) {
+                call.reject(ERROR_EVENTS_MISSING);
+                return;
+            }
+            AudioMixer mixer = getMixer();
+            Sequencer.Event[] pattern = new Sequencer.Event[events.length()];
+            Set<AudioAsset> assets = new HashSet<>();
+            double lastOffset = 0;
+            for (int i = 0; i < events.length(); i++) {
+                JSONObject event = events.getJSONObject(i);
+                AudioAsset asset = getAsset(event, HANDLE, ASSET_ID);
+                if (!(asset instanceof MixerAudioAsset)) {
+                    call.reject(ERROR_SEQUENCER_ASSET + " - " + describeAsset(event, HANDLE, ASSET_ID));
+                    return;
+                }
+                assets.add(asset);
+                double offset = Math.max(0, event.optDouble(OFFSET, 0));
+                lastOffset = Math.max(lastOffset, offset);
+                pattern[i] = new Sequencer.Event(
+                    (MixerAudioAsset) asset,
+                    mixer.toFrame(offset),
+                    (float) event.optDouble(VOLUME, 1),
+                    (float) event.optDouble(RATE, 1)
+                );
+            }
+            boolean loop = Boolean.TRUE.equals(call.getBoolean(LOOP, true));
+            // Looping without an explicit length would put the last event on the first frame of the next pass
+            Double explicitLength = call.getDouble(LENGTH);
+            double length = explicitLength != null ? explicitLength : lastOffset;
+            if (loop && (explicitLength == null || length <= 0)) {
+                call.reject(ERROR_PATTERN_LENGTH);
+                return;
+            }
+            pinPatternAssets(assets);
+            mixer.getSequencer().setPattern(new Sequencer.Pattern(pattern, mixer.toFrame(length), loop));
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getMessage());
+        }
+    }
+
+    /**
+     * Keeps the assets of a pattern resident and releases those of the previous one, so the render thread
+     * never triggers an asset the memory cache evicted.
+     */
+    private synchronized void pinPatternAssets(Set<AudioAsset> assets) throws Exception {
+        for (AudioAsset asset : patternAssets) {
+            if (!assets.contains(asset)) {
+                asset.setPinned(false);
+            }
+        }
+        for (AudioAsset asset : assets) {
+            asset.setPinned(true);
+            asset.ensureResident();
+        }
+        patternAssets = assets;
+    }
+
+    @PluginMethod
+    public void startSequencer(final PluginCall call) {
+        AudioMixer mixer = getMixer();
+        if (!mixer.isRunning()) {
+            call.reject(ERROR_SEQUENCER_ASSET);
+            return;
+        }
+        Double when = call.getDouble(WHEN);
+        mixer.getSequencer().start(mixer.toFrame(when != null ? when : mixer.getAudioTime()));
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void stopSequencer(final PluginCall call) {
+        getMixer().getSequencer().stop();
+        call.resolve();
+    }
+
+    /**
+     * Fades an asset out and another one in from one clock. A crossfade touching either asset is cancelled first.
+     */
+    @PluginMethod
+    public void crossfade(final PluginCall call) {
+        try {
+            initSoundPool();
+            JSObject options = call.getData();
+            if (!hasAssetReference(options, FROM_HANDLE, FROM_ASSET_ID) || !hasAssetReference(options, TO_HANDLE, TO_ASSET_ID)) {
+                call.reject(ERROR_AUDIO_ID_MISSING);
+                return;
+            }
+            AudioAsset from = getAsset(options, FROM_HANDLE, FROM_ASSET_ID);
+            AudioAsset to = getAsset(options, TO_HANDLE, TO_ASSET_ID);
+            if (from == null || to == null) {
+                String missing = from == null
+                    ? describeAsset(options, FROM_HANDLE, FROM_ASSET_ID)
+                    : describeAsset(options, TO_HANDLE, TO_ASSET_ID);
+                call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + missing);
+                return;
+            }
+            final double durationMs = call.getDouble(DURATION, AudioAsset.DEFAULT_FADE_DURATION_MS / 1000) * 1000;
+            final FadeCurve curve = FadeCurve.fromString(call.getString(CURVE), FadeCurve.EQUAL_POWER);
+            final float toVolume = call.getFloat(VOLUME, 1F);
+            AudioThread.post(() -> {
+                try {
+                    cancelCrossfade(from);
+                    cancelCrossfade(to);
+                    clearFadeOutToStopTimer(from.getAssetId());
+                    cancelPendingPlay(to);
+                    float fromVolume = from.getVolume();
+                    final Crossfade[] holder = new Crossfade[1];
+                    holder[0] = new Crossfade(
+                        from,
+                        to,
+                        durationMs,
+                        curve,
+                        fromVolume > 0 ? fromVolume : 1f,
+                        toVolume,
+                        () -> crossfades.remove(holder[0])
+                    );
+                    crossfades.add(holder[0]);
+                    holder[0].start();
+                    call.resolve();
+                } catch (Exception ex) {
+                    call.reject(ex.getMessage());
+                }
+            });
+        } catch (Exception ex) {
+            call.reject(ex.getMessage());
+        }
+    }
+
+    private interface BatchCommand {
+        void run() throws Exception;
+    }
+
+    /**
+     * Applies several operations in one bridge call. Every asset is resolved before anything is applied,
+     * then the operations run in one pass on the audio thread, the mixer ones under a single hold of the mixer lock
+     * so they land in the same render buffer.
+     */
+    @PluginMethod
+    public void batch(final PluginCall call) {
+        initSoundPool();
+        JSArray operations = call.getArray(OPERATIONS);
+        if (operations == null) {
+            call.reject(ERROR_OPERATIONS_MISSING);
+            return;
+        }
+        final List<BatchCommand> commands = new ArrayList<>();
+        final List<BatchCommand> mixerCommands = new ArrayList<>();
+        try {
+            for (int i = 0; i < operations.length(); i++) {
+                JSONObject operation = operations.getJSONObject(i);
+                AudioAsset asset = getAsset(operation, HANDLE, ASSET_ID);
+                if (asset == null) {
+                    call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + describeAsset(operation, HANDLE, ASSET_ID));
+                    return;
+                }
+                BatchCommand command = toBatchCommand(operation, asset.getAssetId(), asset);
+                if (asset instanceof MixerAudioAsset) {
+                    mixerCommands.add(command);
+                } else {
+                    commands.add(command);
+                }
+            }
+        } catch (Exception ex) {
+            call.reject(ex.getMessage());
+            return;
+        }
+        AudioThread.post(() -> {
+            final String[] error = { runBatch(commands) };
+            if (!mixerCommands.isEmpty()) {
+                getMixer().runLocked(() -> {
+                    String mixerError = runBatch(mixerCommands);
+                    if (error[0] == null) {
+                        error[0] = mixerError;
+                    }
                 });
+            }
+            if (error[0] != null) {
+                call.reject(error[0]);
+            } else {
+                call.resolve();
+            }
+        });
+    }
+
+    private BatchCommand toBatchCommand(JSONObject operation, String audioId, AudioAsset asset) throws Exception {
+        String type = operation.optString(TYPE);
+        switch (type) {
+            case PLAY: {
+                final double time = operation.optDouble(TIME, 0.0);
+                final float volume = (float) operation.optDouble(VOLUME, 1.0);
+                return () -> {
+                    cancelPendingPlay(asset);
+                    asset.play(time, volume);
+                };
+            }
+            case STOP: {
+                final boolean fadeOut = operation.optBoolean(FADE_OUT, false);
+                final double fadeOutDurationMs = operation.optDouble(FADE_OUT_DURATION, AudioAsset.DEFAULT_FADE_DURATION_MS / 1000) * 1000;
+                final FadeCurve curve = FadeCurve.fromString(operation.optString(CURVE, null), AudioAsset.DEFAULT_FADE_CURVE);
+                return () -> {
+                    cancelPendingPlay(asset);
+                    stopAudio(asset, fadeOut, fadeOutDurationMs, curve);
+                };
+            }
+            case SET_VOLUME: {
+                final float volume = (float) operation.optDouble(VOLUME, 1.0);
+                final double durationMs = operation.optDouble(DURATION, 0.0) * 1000;
+                final FadeCurve curve = FadeCurve.fromString(operation.optString(CURVE, null), AudioAsset.DEFAULT_VOLUME_CURVE);
+                return () -> asset.setVolume(volume, durationMs, curve);
+            }
+            case SET_RATE: {
+                final float rate = (float) operation.optDouble(RATE, 1.0);
+                return () -> {
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                        asset.setRate(rate);
+                    }
+                };
+            }
+            case SEEK: {
+                final double time = operation.optDouble(TIME, 0.0);
+                return () -> {
+                    clearFadeOutToStopTimer(audioId);
+                    cancelPendingPlay(asset);
+                    asset.setCurrentTime(time);
+                };
+            }
+            default:
+                throw new Exception(ERROR_UNKNOWN_OPERATION + " - " + type);
+        }
+    }
+
+    /**
+     * Runs every command even when one fails, and returns the first error.
+     */
+    private String runBatch(List<BatchCommand> commands) {
+        String error = null;
+        for (BatchCommand command : commands) {
+            try {
+                command.run();
+            } catch (Exception ex) {
+                logger.error("Error in batch operation", ex);
+                if (error == null) {
+                    error = ex.getMessage();
+                }
+            }
+        }
+        return error;
+    }
+
+    private void cancelCrossfade(AudioAsset asset) {
+        for (Crossfade crossfade : crossfades) {
+            if (crossfade.getFrom() == asset || crossfade.getTo() == asset) {
+                crossfade.cancel();
+                crossfades.remove(crossfade);
+            }
+        }
+    }
+
+    /**
+     * Creates a playlist asset, played with the regular play/pause/stop methods under its assetId.
+     */
+    @PluginMethod
+    public void createQueue(final PluginCall call) {
+        AudioThread.post(() -> {
+            try {
+                initSoundPool();
+                String assetId = call.getString(ASSET_ID);
+                if (!isStringValid(assetId)) {
+                    call.reject(ERROR_AUDIO_ID_MISSING + " - " + assetId);
+                    return;
+                }
+                if (audioAssetList.containsKey(assetId)) {
+                    call.reject(ERROR_AUDIO_EXISTS + " - " + assetId);
+                    return;
+                }
+                List<Uri> items = getQueueItems(call);
+                QueueAudioAsset queue = new QueueAudioAsset(this, assetId, items, call.getFloat(VOLUME, 1F));
+                queue.setCompletionListener(this::dispatchComplete);
+                joinGroup(call.getData(), queue);
+                assetHandles.add(queue);
+                audioAssetList.put(assetId, queue);
+                call.resolve(new JSObject().put("handle", queue.getHandle()));
+            } catch (Exception ex) {
+                call.reject(ex.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void addToQueue(final PluginCall call) {
+        try {
+            QueueAudioAsset queue = getQueue(call);
+            if (queue != null) {
+                queue.addItems(getQueueItems(call), call.getInt(INDEX, -1));
+                call.resolve();
+            }
+        } catch (Exception ex) {
+            call.reject(ex.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void removeFromQueue(final PluginCall call) {
+        try {
+            QueueAudioAsset queue = getQueue(call);
+            if (queue != null) {
+                queue.removeItem(call.getInt(INDEX, -1));
+                call.resolve();
+            }
         } catch (Exception ex) {
             call.reject(ex.getMessage());
         }
     }
 
-    private void cancelPendingPlay(String assetId) {
-        Handler handler = pendingPlayHandlers.remove(assetId);
-        Runnable runnable = pendingPlayRunnables.remove(assetId);
-        if (handler != null && runnable != null) {
-            handler.removeCallbacks(runnable);
+    @PluginMethod
+    public void skipQueue(final PluginCall call) {
+        try {
+            QueueAudioAsset queue = getQueue(call);
+            if (queue != null) {
+                queue.skipTo(call.getInt(INDEX, -1));
+                call.resolve();
+            }
+        } catch (Exception ex) {
+            call.reject(ex.getMessage());
         }
     }
 
+    @PluginMethod
+    public void getQueueState(final PluginCall call) {
+        QueueAudioAsset queue = getQueue(call);
+        if (queue != null) {
+            call.resolve(new JSObject().put("index", queue.getCurrentIndex()).put("count", queue.getItemCount()));
+        }
+    }
+
+    private QueueAudioAsset getQueue(PluginCall call) {
+        initSoundPool();
+        AudioAsset asset = getAsset(call);
+        if (!(asset instanceof QueueAudioAsset)) {
+            call.reject(ERROR_QUEUE_MISSING + " - " + describeAsset(call));
+            return null;
+        }
+        return (QueueAudioAsset) asset;
+    }
+
+    private List<Uri> getQueueItems(PluginCall call) throws Exception {
+        JSArray items = call.getArray(ITEMS);
+        List<Uri> uris = new ArrayList<>();
+        if (items != null) {
+            for (int i = 0; i < items.length(); i++) {
+                uris.add(Uri.parse(items.getString(i)));
+            }
+        }
+        return uris;
+    }
+
+    void notifyQueueItemChanged(String assetId, int index) {
+        JSObject ret = new JSObject();
+        ret.put("assetId", assetId);
+        ret.put("index", index);
+        notifyListeners("queueItemChanged", ret);
+    }
+
+    private void cancelPendingPlay(AudioAsset asset) {
+        Runnable runnable = asset.takeDelayedPlay();
+        if (runnable != null) {
+            AudioThread.getHandler().removeCallbacks(runnable);
+        }
+    }
+
+    /**
+     * Asset of the call, from its handle when one is given so no string is hashed, or from its asset id.
+     */
+    private AudioAsset getAsset(PluginCall call) {
+        return getAsset(call.getData(), HANDLE, ASSET_ID);
+    }
+
+    /**
+     * Asset referenced by the handle key of the options, or by their asset id key when no handle is given.
+     */
+    private AudioAsset getAsset(JSONObject options, String handleKey, String idKey) {
+        if (hasHandle(options, handleKey)) {
+            return assetHandles.get(options.optInt(handleKey, -1));
+        }
+        String assetId = options.optString(idKey, null);
+        return isStringValid(assetId) ? audioAssetList.get(assetId) : null;
+    }
+
+    /**
+     * Whether the call names an asset at all, to tell a missing id from an unknown one.
+     */
+    private boolean hasAssetReference(PluginCall call) {
+        return hasAssetReference(call.getData(), HANDLE, ASSET_ID);
+    }
+
+    private boolean hasAssetReference(JSONObject options, String handleKey, String idKey) {
+        return hasHandle(options, handleKey) || isStringValid(options.optString(idKey, null));
+    }
+
+    /**
+     * Handle or asset id of the call, for error messages.
+     */
+    private String describeAsset(PluginCall call) {
+        return describeAsset(call.getData(), HANDLE, ASSET_ID);
+    }
+
+    private static String describeAsset(JSONObject options, String handleKey, String idKey) {
+        return hasHandle(options, handleKey) ? handleKey + " " + options.optInt(handleKey, -1) : options.optString(idKey, null);
+    }
+
+    private static boolean hasHandle(JSONObject options, String handleKey) {
+        return options.has(handleKey) && !options.isNull(handleKey);
+    }
+
     @PluginMethod
     public void getCurrentTime(final PluginCall call) {
         try {
             initSoundPool();
-            String audioId = call.getString(ASSET_ID);
-            if (!isStringValid(audioId)) {
-                call.reject(ERROR_AUDIO_ID_MISSING + " - " + audioId);
+            if (!hasAssetReference(call)) {
+                call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
                 return;
             }
-            AudioAsset asset = audioAssetList.get(audioId);
+            AudioAsset asset = getAsset(call);
             if (asset != null) {
                 call.resolve(new JSObject().put("currentTime", asset.getCurrentPosition()));
             } else {
-                call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + audioId);
+                call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + describeAsset(call));
             }
         } catch (Exception ex) {
             call.reject(ex.getMessage());
@@ -284,43 +1014,89 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
     @PluginMethod
     public void getDuration(PluginCall call) {
         try {
-            String audioId = call.getString(ASSET_ID);
-            if (!isStringValid(audioId)) {
-                call.reject(ERROR_AUDIO_ID_MISSING + " - " + audioId);
+            if (!hasAssetReference(call)) {
+                call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
                 return;
             }
-            AudioAsset asset = audioAssetList.get(audioId);
+            AudioAsset asset = getAsset(call);
             if (asset != null) {
+                String audioId = asset.getAssetId();
                 double duration = asset.getDuration();
+                if (duration <= 0) {
+                    duration = getProbedDuration(audioId);
+                }
                 if (duration > 0) {
                     JSObject ret = new JSObject();
                     ret.put("duration", duration);
                     call.resolve(ret);
                 } else {
                     saveDurationCall(audioId, call);
+                    // The probe may have completed in between
+                    duration = getProbedDuration(audioId);
+                    if (duration > 0) {
+                        notifyDurationAvailable(audioId, duration);
+                    }
                 }
             } else {
-                call.reject(ERROR_ASSET_NOT_LOADED + " - " + audioId);
+                call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
             }
         } catch (Exception ex) {
             call.reject(ex.getMessage());
         }
     }
 
+    private double getProbedDuration(String audioId) {
+        MediaProber.MediaInfo info = assetMetadata.get(audioId);
+        return info != null ? info.getDuration() : 0;
+    }
+
+    /**
+     * Duration, sample rate and channel count read from the container headers, without waiting for the player.
+     */
+    @PluginMethod
+    public void getMetadata(final PluginCall call) {
+        if (!hasAssetReference(call)) {
+            call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
+            return;
+        }
+        AudioAsset asset = getAsset(call);
+        if (asset == null) {
+            call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
+            return;
+        }
+        final String audioId = asset.getAssetId();
+        getPreloadExecutor().execute(() -> {
+            MediaProber.MediaInfo info = resolveMetadata(audioId);
+            if (info == null) {
+                call.reject(ERROR_METADATA_UNAVAILABLE + " - " + audioId);
+                return;
+            }
+            JSObject ret = new JSObject();
+            ret.put("duration", info.getDuration());
+            ret.put("durationUs", info.getDurationUs());
+            ret.put("sampleRate", info.getSampleRate());
+            ret.put("channels", info.getChannels());
+            call.resolve(ret);
+        });
+    }
+
     @PluginMethod
     public void loop(final PluginCall call) {
         try {
-            String audioId = call.getString(ASSET_ID);
-            cancelPendingPlay(audioId);
-            this.getActivity()
-                .runOnUiThread(
-                    new Runnable() {
-                        @Override
-                        public void run() {
-                            playOrLoop("loop", call);
-                        }
+            AudioAsset asset = getAsset(call);
+            if (asset == null) {
+                call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
+                return;
+            }
+            cancelPendingPlay(asset);
+            AudioThread.post(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        playOrLoop(LOOP, call, asset);
                     }
-                );
+                }
+            );
         } catch (Exception ex) {
             call.reject(ex.getMessage());
         }
@@ -328,87 +1104,97 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
 
     @PluginMethod
     public void pause(PluginCall call) {
-        try {
-            initSoundPool();
-            String audioId = call.getString(ASSET_ID);
-            boolean fadeOut = call.getBoolean(FADE_OUT, false);
-            double fadeOutDurationSecs = call.getDouble(FADE_OUT_DURATION, AudioAsset.DEFAULT_FADE_DURATION_MS / 1000);
-            double fadeOutDurationMs = fadeOutDurationSecs * 1000;
-            AudioAsset asset = audioAssetList.get(audioId);
-            if (asset != null) {
-                if (fadeOut) {
-                    JSObject data = getAudioAssetData(audioId);
-                    data.put("volumeBeforePause", asset.getVolume());
-                    setAudioAssetData(audioId, data);
-                    asset.stopWithFade(fadeOutDurationMs, true);
+        AudioThread.post(() -> {
+            try {
+                initSoundPool();
+                boolean fadeOut = call.getBoolean(FADE_OUT, false);
+                double fadeOutDurationSecs = call.getDouble(FADE_OUT_DURATION, AudioAsset.DEFAULT_FADE_DURATION_MS / 1000);
+                double fadeOutDurationMs = fadeOutDurationSecs * 1000;
+                AudioAsset asset = getAsset(call);
+                if (asset != null) {
+                    String audioId = asset.getAssetId();
+                    if (fadeOut) {
+                        JSObject data = getAudioAssetData(audioId);
+                        data.put("volumeBeforePause", asset.getVolume());
+                        setAudioAssetData(audioId, data);
+                        asset.stopWithFade(fadeOutDurationMs, true, getFadeCurve(call));
+                    } else {
+                        asset.pause();
+                    }
+                    call.resolve();
                 } else {
-                    asset.pause();
+                    call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
                 }
-                call.resolve();
-            } else {
-                call.reject(ERROR_ASSET_NOT_LOADED + " - " + audioId);
+            } catch (Exception ex) {
+                call.reject(ex.getMessage());
             }
-        } catch (Exception ex) {
-            call.reject(ex.getMessage());
-        }
+        });
     }
 
     @PluginMethod
     public void resume(PluginCall call) {
-        try {
-            initSoundPool();
-            String audioId = call.getString(ASSET_ID);
-            boolean fadeIn = Boolean.TRUE.equals(call.getBoolean(FADE_IN, false));
-            final double fadeInDurationSecs = call.getDouble(FADE_IN_DURATION, AudioAsset.DEFAULT_FADE_DURATION_MS / 1000);
-            final double fadeInDurationMs = fadeInDurationSecs * 1000;
-            AudioAsset asset = audioAssetList.get(audioId);
-            if (asset != null) {
-                if (fadeIn) {
-                    double time = asset.getCurrentPosition();
-                    JSObject data = getAudioAssetData(audioId);
-                    float volume = (float) data.optDouble("volumeBeforePause", 1.0);
-                    data.remove("volumeBeforePause");
-                    setAudioAssetData(audioId, data);
-                    asset.playWithFadeIn(time, volume, fadeInDurationMs);
+        AudioThread.post(() -> {
+            try {
+                initSoundPool();
+                boolean fadeIn = Boolean.TRUE.equals(call.getBoolean(FADE_IN, false));
+                final double fadeInDurationSecs = call.getDouble(FADE_IN_DURATION, AudioAsset.DEFAULT_FADE_DURATION_MS / 1000);
+                final double fadeInDurationMs = fadeInDurationSecs * 1000;
+                AudioAsset asset = getAsset(call);
+                if (asset != null) {
+                    String audioId = asset.getAssetId();
+                    if (fadeIn) {
+                        double time = asset.getCurrentPosition();
+                        JSObject data = getAudioAssetData(audioId);
+                        float volume = (float) data.optDouble("volumeBeforePause", 1.0);
+                        data.remove("volumeBeforePause");
+                        setAudioAssetData(audioId, data);
+                        asset.playWithFadeIn(time, volume, fadeInDurationMs, getFadeCurve(call));
+                    } else {
+                        asset.resume();
+                    }
+                    autoResumeList.remove(asset);
+                    call.resolve();
                 } else {
-                    asset.resume();
+                    call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
                 }
-                autoResumeList.remove(asset);
-                call.resolve();
-            } else {
-                call.reject(ERROR_ASSET_NOT_LOADED + " - " + audioId);
+            } catch (Exception ex) {
+                call.reject(ex.getMessage());
             }
-        } catch (Exception ex) {
-            call.reject(ex.getMessage());
-        }
+        });
     }
 
     @PluginMethod
     public void stop(final PluginCall call) {
         try {
-            String audioId = call.getString(ASSET_ID);
-            cancelPendingPlay(audioId);
+            AudioAsset asset = getAsset(call);
+            if (asset != null) {
+                cancelPendingPlay(asset);
+            }
             boolean fadeOut = call.getBoolean(FADE_OUT, false);
             double fadeOutDurationSecs = call.getDouble(FADE_OUT_DURATION, AudioAsset.DEFAULT_FADE_DURATION_MS / 1000);
             double fadeOutDurationMs = fadeOutDurationSecs * 1000;
-            this.getActivity()
-                .runOnUiThread(
-                    new Runnable() {
-                        @Override
-                        public void run() {
-                            try {
-                                if (!isStringValid(audioId)) {
-                                    call.reject(ERROR_AUDIO_ID_MISSING + " - " + audioId);
-                                    return;
-                                }
-                                stopAudio(audioId, fadeOut, fadeOutDurationMs);
-                                call.resolve();
-                            } catch (Exception ex) {
-                                call.reject(ex.getMessage());
+            FadeCurve curve = getFadeCurve(call);
+            AudioThread.post(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (!hasAssetReference(call)) {
+                                call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
+                                return;
+                            }
+                            if (asset == null) {
+                                call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
+                                return;
                             }
+                            stopAudio(asset, fadeOut, fadeOutDurationMs, curve);
+                            call.resolve();
+                        } catch (Exception ex) {
+                            call.reject(ex.getMessage());
                         }
                     }
-                );
+                }
+            );
         } catch (Exception ex) {
             call.reject(ex.getMessage());
         }
@@ -416,91 +1202,175 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
 
     @PluginMethod
     public void unload(PluginCall call) {
-        try {
-            initSoundPool();
-            new JSObject();
-            JSObject status;
-            if (isStringValid(call.getString(ASSET_ID))) {
-                String audioId = call.getString(ASSET_ID);
-                cancelPendingPlay(audioId);
-                pendingPlayHandlers.remove(audioId);
-                pendingPlayRunnables.remove(audioId);
-                audioData.remove(audioId);
-                AudioAsset asset = audioAssetList.get(audioId);
-                if (asset != null) {
-                    clearFadeOutToStopTimer(audioId);
-                    asset.unload();
-                    audioAssetList.remove(audioId);
-                    call.resolve();
+        AudioThread.post(() -> {
+            try {
+                initSoundPool();
+                new JSObject();
+                JSObject status;
+                if (hasAssetReference(call)) {
+                    AudioAsset asset = getAsset(call);
+                    String audioId = asset != null ? asset.getAssetId() : call.getString(ASSET_ID);
+                    if (isStringValid(audioId)) {
+                        audioData.remove(audioId);
+                        assetPaths.remove(audioId);
+                        assetMetadata.remove(audioId);
+                    }
+                    if (asset != null) {
+                        cancelPendingPlay(asset);
+                        clearFadeOutToStopTimer(audioId);
+                        leaveGroup(asset);
+                        assetHandles.remove(asset);
+                        clipCache.remove(asset);
+                        asset.unload();
+                        audioAssetList.remove(audioId);
+                        call.resolve();
+                    } else {
+                        call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + describeAsset(call));
+                    }
                 } else {
-                    call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + audioId);
+                    call.reject(ERROR_AUDIO_ID_MISSING);
                 }
-            } else {
-                call.reject(ERROR_AUDIO_ID_MISSING);
-            }
-        } catch (Exception ex) {
-            String audioId = call.getString(ASSET_ID);
-            if (audioId != null) {
-                pendingPlayHandlers.remove(audioId);
-                pendingPlayRunnables.remove(audioId);
-                audioData.remove(audioId);
+            } catch (Exception ex) {
+                AudioAsset asset = getAsset(call);
+                if (asset != null) {
+                    audioData.remove(asset.getAssetId());
+                }
+                call.reject(ex.getMessage());
             }
-            call.reject(ex.getMessage());
-        }
+        });
     }
 
     @PluginMethod
     public void setVolume(PluginCall call) {
-        try {
-            initSoundPool();
+        AudioThread.post(() -> {
+            try {
+                initSoundPool();
 
-            String audioId = call.getString(ASSET_ID);
-            float volume = call.getFloat(VOLUME, 1F);
-            double durationSecs = call.getDouble(DURATION, 0.0);
+                float volume = call.getFloat(VOLUME, 1F);
+                double durationSecs = call.getDouble(DURATION, 0.0);
 
-            if (durationSecs > 0) {
-                logger.debug("setVolume " + volume + " over duration " + durationSecs + " seconds");
-            } else {
-                logger.debug("setVolume " + volume);
-            }
+                if (durationSecs > 0) {
+                    logger.debug("setVolume " + volume + " over duration " + durationSecs + " seconds");
+                } else {
+                    logger.debug("setVolume " + volume);
+                }
 
-            if (audioAssetList.containsKey(audioId)) {
-                AudioAsset asset = audioAssetList.get(audioId);
+                AudioAsset asset = getAsset(call);
                 if (asset != null) {
                     double durationMs = durationSecs * 1000;
-                    asset.setVolume(volume, durationMs);
+                    FadeCurve curve = FadeCurve.fromString(call.getString(CURVE), AudioAsset.DEFAULT_VOLUME_CURVE);
+                    asset.setVolume(volume, durationMs, curve);
                     call.resolve();
                 } else {
                     call.reject(ERROR_AUDIO_ASSET_MISSING);
                 }
-            } else {
-                call.reject(ERROR_AUDIO_ASSET_MISSING);
+            } catch (Exception ex) {
+                call.reject(ex.getMessage());
             }
-        } catch (Exception ex) {
-            call.reject(ex.getMessage());
+        });
+    }
+
+    @PluginMethod
+    public void setGroupVolume(PluginCall call) {
+        AudioGroup group = getGroup(call);
+        if (group != null) {
+            double durationMs = call.getDouble(DURATION, 0.0) * 1000;
+            FadeCurve curve = FadeCurve.fromString(call.getString(CURVE), AudioAsset.DEFAULT_VOLUME_CURVE);
+            float volume = call.getFloat(VOLUME, 1F);
+            AudioThread.post(() -> {
+                group.setVolume(volume, durationMs, curve);
+                call.resolve();
+            });
+        }
+    }
+
+    @PluginMethod
+    public void muteGroup(PluginCall call) {
+        AudioGroup group = getGroup(call);
+        if (group != null) {
+            boolean muted = call.getBoolean(MUTED, true);
+            AudioThread.post(() -> {
+                group.setMuted(muted);
+                call.resolve();
+            });
+        }
+    }
+
+    @PluginMethod
+    public void pauseGroup(PluginCall call) {
+        AudioGroup group = getGroup(call);
+        if (group != null) {
+            AudioThread.post(() -> {
+                try {
+                    for (AudioAsset asset : group.getMembers()) {
+                        asset.pause();
+                    }
+                    call.resolve();
+                } catch (Exception ex) {
+                    call.reject(ex.getMessage());
+                }
+            });
+        }
+    }
+
+    @PluginMethod
+    public void resumeGroup(PluginCall call) {
+        AudioGroup group = getGroup(call);
+        if (group != null) {
+            AudioThread.post(() -> {
+                try {
+                    for (AudioAsset asset : group.getMembers()) {
+                        asset.resume();
+                        autoResumeList.remove(asset);
+                    }
+                    call.resolve();
+                } catch (Exception ex) {
+                    call.reject(ex.getMessage());
+                }
+            });
+        }
+    }
+
+    @PluginMethod
+    public void stopGroup(PluginCall call) {
+        AudioGroup group = getGroup(call);
+        if (group != null) {
+            AudioThread.post(() -> {
+                try {
+                    for (AudioAsset asset : group.getMembers()) {
+                        cancelPendingPlay(asset);
+                        clearFadeOutToStopTimer(asset.getAssetId());
+                        asset.stop();
+                    }
+                    call.resolve();
+                } catch (Exception ex) {
+                    call.reject(ex.getMessage());
+                }
+            });
         }
     }
 
     @PluginMethod
     public void setRate(PluginCall call) {
-        try {
-            initSoundPool();
+        AudioThread.post(() -> {
+            try {
+                initSoundPool();
 
-            String audioId = call.getString(ASSET_ID);
-            float rate = call.getFloat(RATE, 1F);
+                float rate = call.getFloat(RATE, 1F);
 
-            if (audioAssetList.containsKey(audioId)) {
-                AudioAsset asset = audioAssetList.get(audioId);
-                if (asset != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                    asset.setRate(rate);
+                AudioAsset asset = getAsset(call);
+                if (asset != null) {
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                        asset.setRate(rate);
+                    }
+                    call.resolve();
+                } else {
+                    call.reject(ERROR_AUDIO_ASSET_MISSING);
                 }
-                call.resolve();
-            } else {
-                call.reject(ERROR_AUDIO_ASSET_MISSING);
+            } catch (Exception ex) {
+                call.reject(ex.getMessage());
             }
-        } catch (Exception ex) {
-            call.reject(ex.getMessage());
-        }
+        });
     }
 
     @PluginMethod
@@ -508,22 +1378,16 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
         try {
             initSoundPool();
 
-            String audioId = call.getString(ASSET_ID);
-
-            if (!isStringValid(audioId)) {
-                call.reject(ERROR_AUDIO_ID_MISSING + " - " + audioId);
+            if (!hasAssetReference(call)) {
+                call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
                 return;
             }
 
-            if (audioAssetList.containsKey(audioId)) {
-                AudioAsset asset = audioAssetList.get(audioId);
-                if (asset != null) {
-                    call.resolve(new JSObject().put("isPlaying", asset.isPlaying()));
-                } else {
-                    call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + audioId);
-                }
+            AudioAsset asset = getAsset(call);
+            if (asset != null) {
+                call.resolve(new JSObject().put("isPlaying", asset.isPlaying()));
             } else {
-                call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + audioId);
+                call.reject(ERROR_AUDIO_ASSET_MISSING + " - " + describeAsset(call));
             }
         } catch (Exception ex) {
             call.reject(ex.getMessage());
@@ -533,51 +1397,132 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
     @PluginMethod
     public void clearCache(PluginCall call) {
         try {
-            RemoteAudioAsset.clearCache(getContext());
+            MediaCache.clear(getContext());
             call.resolve();
         } catch (Exception ex) {
             call.reject(ex.getMessage());
         }
     }
 
+    @PluginMethod
+    public void pinCache(PluginCall call) {
+        setCachePinned(call, true);
+    }
+
+    @PluginMethod
+    public void unpinCache(PluginCall call) {
+        setCachePinned(call, false);
+    }
+
+    private void setCachePinned(PluginCall call, boolean pinned) {
+        String url = call.getString(URL);
+        if (!isStringValid(url)) {
+            call.reject(ERROR_URL_MISSING);
+            return;
+        }
+        MediaCache.setPinned(getContext(), url, pinned);
+        call.resolve();
+    }
+
+    /**
+     * Downloads remote files into the cache without creating players, reporting through prefetchProgress.
+     * Resolves once the URLs are queued.
+     */
+    @PluginMethod
+    public void prefetch(PluginCall call) {
+        List<String> urls = getUrls(call);
+        if (urls == null || urls.isEmpty()) {
+            call.reject(ERROR_URLS_MISSING);
+            return;
+        }
+        prefetcher.prefetch(urls, call.getInt(PRIORITY, 0));
+        call.resolve();
+    }
+
+    /**
+     * Cancels the given URLs, or every prefetch when none are given.
+     */
+    @PluginMethod
+    public void cancelPrefetch(PluginCall call) {
+        prefetcher.cancel(getUrls(call));
+        call.resolve();
+    }
+
+    private List<String> getUrls(PluginCall call) {
+        JSArray array = call.getArray(URLS);
+        if (array == null) {
+            return null;
+        }
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++) {
+            String url = array.optString(i, null);
+            if (isStringValid(url)) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
+
+    void notifyPrefetchProgress(String url, long bytesCached, long length, boolean done, boolean cancelled, String error) {
+        JSObject ret = new JSObject();
+        ret.put("url", url);
+        ret.put("bytesCached", bytesCached);
+        ret.put("length", length);
+        ret.put("done", done);
+        if (cancelled) {
+            ret.put("cancelled", true);
+        }
+        if (error != null) {
+            ret.put("error", error);
+        }
+        notifyListeners("prefetchProgress", ret);
+    }
+
+    @PluginMethod
+    public void getCacheStats(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("bytesUsed", MediaCache.getBytesUsed());
+        ret.put("maxBytes", MediaCache.getMaxBytes());
+        ret.put("entries", MediaCache.getEntryCount());
+        ret.put("pinned", MediaCache.getPinnedCount(getContext()));
+        ret.put("hits", MediaCache.getHits());
+        ret.put("misses", MediaCache.getMisses());
+        ret.put("cacheBytes", MediaCache.getCacheBytes());
+        ret.put("networkBytes", MediaCache.getNetworkBytes());
+        call.resolve(ret);
+    }
+
     @PluginMethod
     public void setCurrentTime(final PluginCall call) {
         try {
             initSoundPool();
 
-            String audioId = call.getString(ASSET_ID);
-            clearFadeOutToStopTimer(audioId);
             double time = call.getDouble("time", 0.0);
 
-            cancelPendingPlay(audioId);
-
-            if (!isStringValid(audioId)) {
-                call.reject(ERROR_AUDIO_ID_MISSING + " - " + audioId);
+            if (!hasAssetReference(call)) {
+                call.reject(ERROR_AUDIO_ID_MISSING + " - " + describeAsset(call));
                 return;
             }
 
-            if (audioAssetList.containsKey(audioId)) {
-                AudioAsset asset = audioAssetList.get(audioId);
-                if (asset != null) {
-                    this.getActivity()
-                        .runOnUiThread(
-                            new Runnable() {
-                                @Override
-                                public void run() {
-                                    try {
-                                        asset.setCurrentTime(time);
-                                        call.resolve();
-                                    } catch (Exception e) {
-                                        call.reject("Error setting current time: " + e.getMessage());
-                                    }
-                                }
+            AudioAsset asset = getAsset(call);
+            if (asset != null) {
+                clearFadeOutToStopTimer(asset.getAssetId());
+                cancelPendingPlay(asset);
+                AudioThread.post(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                asset.setCurrentTime(time);
+                                call.resolve();
+                            } catch (Exception e) {
+                                call.reject("Error setting current time: " + e.getMessage());
                             }
-                        );
-                } else {
-                    call.reject(ERROR_ASSET_NOT_LOADED + " - " + audioId);
-                }
+                        }
+                    }
+                );
             } else {
-                call.reject(ERROR_ASSET_NOT_LOADED + " - " + audioId);
+                call.reject(ERROR_ASSET_NOT_LOADED + " - " + describeAsset(call));
             }
         } catch (Exception ex) {
             call.reject(ex.getMessage());
@@ -596,13 +1541,66 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
         }
     }
 
-    public void notifyCurrentTime(String assetId, double currentTime) {
+    @Override
+    @PluginMethod(returnType = PluginMethod.RETURN_NONE)
+    public void addListener(PluginCall call) {
+        super.addListener(call);
+        // The time tick sleeps while nobody listens
+        timeTicker.update();
+    }
+
+    TimeTicker getTimeTicker() {
+        return timeTicker;
+    }
+
+    ClipCache getClipCache() {
+        return clipCache;
+    }
+
+    /**
+     * Whether the time tick has anything to do: report positions, detect ends or trigger a scheduled fade-out.
+     */
+    boolean needsTimeTick(boolean reportTimes) {
+        if (reportTimes && (hasListeners("timeUpdate") || hasListeners("currentTime"))) {
+            return true;
+        }
+        if (hasListeners("complete")) {
+            return true;
+        }
+        for (JSObject data : audioData.values()) {
+            if (data.has("fadeOut")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Positions of the playing assets at one tick of the {@link TimeTicker}, sent as a single timeUpdate event.
+     */
+    void onTimeTick(Map<String, Double> times, boolean reportTimes) {
+        if (reportTimes && hasListeners("timeUpdate")) {
+            JSArray updates = new JSArray();
+            for (Map.Entry<String, Double> entry : times.entrySet()) {
+                JSObject update = new JSObject();
+                update.put("assetId", entry.getKey());
+                update.put("currentTime", Math.round(entry.getValue() * 1000.0) / 1000.0);
+                updates.put(update);
+            }
+            notifyListeners("timeUpdate", new JSObject().put("updates", updates));
+        }
+        for (Map.Entry<String, Double> entry : times.entrySet()) {
+            notifyCurrentTime(entry.getKey(), entry.getValue(), reportTimes);
+        }
+    }
+
+    private void notifyCurrentTime(String assetId, double currentTime, boolean reportTime) {
         // Round to nearest 100ms
         double roundedTime = Math.round(currentTime * 10.0) / 10.0;
-        JSObject ret = new JSObject();
-        ret.put("currentTime", roundedTime);
-        ret.put("assetId", assetId);
-        if (hasListeners("currentTime")) {
+        if (reportTime && hasListeners("currentTime")) {
+            JSObject ret = new JSObject();
+            ret.put("currentTime", roundedTime);
+            ret.put("assetId", assetId);
             notifyListeners("currentTime", ret);
         }
 
@@ -610,6 +1608,7 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
         if (data.has("fadeOut")) {
             double fadeOutStartTime = data.optDouble("fadeOutStartTime", 0.0);
             double fadeOutDuration = data.optDouble("fadeOutDuration", AudioAsset.DEFAULT_FADE_DURATION_MS);
+            FadeCurve fadeOutCurve = FadeCurve.valueOf(data.optString("fadeOutCurve", AudioAsset.DEFAULT_FADE_CURVE.name()));
             if (roundedTime >= fadeOutStartTime) {
                 try {
                     // Synchronize on audioAssetList to prevent race conditions
@@ -622,7 +1621,7 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
                         // Synchronize on the asset instance as well
                         synchronized (asset) {
                             logger.debug("Triggering fade-out for asset: " + assetId + " at time: " + roundedTime);
-                            asset.stopWithFade(fadeOutDuration, false);
+                            asset.stopWithFade(fadeOutDuration, false, fadeOutCurve);
                         }
                     }
                 } catch (Exception e) {
@@ -633,111 +1632,241 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
     }
 
     private void preloadAsset(PluginCall call) {
-        float volume = 1F;
-        int audioChannelNum = 1;
         JSObject status = new JSObject();
         status.put("STATUS", "OK");
-
         try {
             initSoundPool();
+            status.put("handle", loadAsset(call.getData()).getHandle());
+            call.resolve(status);
+        } catch (Exception ex) {
+            logger.error("Error in preloadAsset", ex);
+            call.reject(ex.getMessage());
+        }
+    }
 
-            String audioId = call.getString(ASSET_ID);
-            if (!isStringValid(audioId)) {
-                call.reject(ERROR_AUDIO_ID_MISSING + " - " + audioId);
-                return;
+    /**
+     * Creates and registers the asset described by preload options, throwing with the rejection message on failure.
+     */
+    private AudioAsset loadAsset(JSObject options) throws Exception {
+        String audioId = options.getString(ASSET_ID);
+        if (!isStringValid(audioId)) {
+            throw new Exception(ERROR_AUDIO_ID_MISSING + " - " + audioId);
+        }
+        // Reserved before building, so parallel preloads of one id cannot both create an asset
+        if (!loadingIds.add(audioId)) {
+            throw new Exception(ERROR_AUDIO_EXISTS + " - " + audioId);
+        }
+        try {
+            if (audioAssetList.containsKey(audioId)) {
+                throw new Exception(ERROR_AUDIO_EXISTS + " - " + audioId);
             }
+            return createAsset(options, audioId);
+        } finally {
+            loadingIds.remove(audioId);
+        }
+    }
 
-            String assetPath = call.getString(ASSET_PATH);
-            if (!isStringValid(assetPath)) {
-                call.reject(ERROR_ASSET_PATH_MISSING + " - " + audioId + " - " + assetPath);
-                return;
-            }
+    private AudioAsset createAsset(JSObject options, String audioId) throws Exception {
+        float volume = 1F;
+        int audioChannelNum = 1;
 
-            boolean isLocalUrl = call.getBoolean("isUrl", false);
-            boolean isComplex = call.getBoolean("isComplex", false);
+        String assetPath = options.getString(ASSET_PATH);
+        if (!isStringValid(assetPath)) {
+            throw new Exception(ERROR_ASSET_PATH_MISSING + " - " + audioId + " - " + assetPath);
+        }
 
-            Log.d(
-                TAG,
-                "Preloading asset: " + audioId + ", path: " + assetPath + ", isLocalUrl: " + isLocalUrl + ", isComplex: " + isComplex
-            );
+        boolean isLocalUrl = options.getBoolean("isUrl", false);
+        boolean isComplex = options.getBoolean("isComplex", false);
 
-            if (audioAssetList.containsKey(audioId)) {
-                call.reject(ERROR_AUDIO_EXISTS + " - " + audioId);
-                return;
-            }
+        Log.d(
+            TAG,
+            "Preloading asset: " + audioId + ", path: " + assetPath + ", isLocalUrl: " + isLocalUrl + ", isComplex: " + isComplex
+        );
 
-            if (isComplex) {
-                volume = call.getFloat(VOLUME, 1F);
-                audioChannelNum = call.getInt(AUDIO_CHANNEL_NUM, 1);
-            }
+        if (isComplex) {
+            volume = (float) options.optDouble(VOLUME, 1.0);
+            audioChannelNum = options.getInteger(AUDIO_CHANNEL_NUM, 1);
+        }
 
-            if (isLocalUrl) {
-                try {
-                    Uri uri = Uri.parse(assetPath);
-                    if (uri.getScheme() != null && (uri.getScheme().equals("http") || uri.getScheme().equals("https"))) {
-                        // Remote URL
-                        logger.debug("Remote URL detected");
-                        if (assetPath.endsWith(".m3u8")) {
-                            // HLS Stream - resolve immediately since it's a stream
-                            StreamAudioAsset streamAudioAsset = new StreamAudioAsset(this, audioId, uri, volume);
-                            audioAssetList.put(audioId, streamAudioAsset);
-                            call.resolve(status);
-                        } else {
-                            // Regular remote audio
-                            RemoteAudioAsset remoteAudioAsset = new RemoteAudioAsset(this, audioId, uri, audioChannelNum, volume);
-                            remoteAudioAsset.setCompletionListener(this::dispatchComplete);
-                            audioAssetList.put(audioId, remoteAudioAsset);
-                            call.resolve(status);
-                        }
-                    } else if (uri.getScheme() != null && uri.getScheme().equals("file")) {
-                        // Local file URL
-                        logger.debug("Local file URL detected");
-                        File file = new File(uri.getPath());
-                        if (!file.exists()) {
-                            logger.error("File does not exist - " + file.getAbsolutePath());
-                            call.reject(ERROR_ASSET_PATH_MISSING + " - " + assetPath);
-                            return;
-                        }
-                        ParcelFileDescriptor pfd = ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
-                        AssetFileDescriptor afd = new AssetFileDescriptor(pfd, 0, AssetFileDescriptor.UNKNOWN_LENGTH);
-                        AudioAsset asset = new AudioAsset(this, audioId, afd, audioChannelNum, volume);
-                        asset.setCompletionListener(this::dispatchComplete);
-                        audioAssetList.put(audioId, asset);
-                        call.resolve(status);
+        AudioAsset asset;
+        String probePath = assetPath;
+        if (isLocalUrl) {
+            try {
+                Uri uri = Uri.parse(assetPath);
+                if (isRemoteUri(uri)) {
+                    // Remote URL
+                    logger.debug("Remote URL detected");
+                    if (assetPath.endsWith(".m3u8")) {
+                        // HLS Stream - resolve immediately since it's a stream
+                        asset = new StreamAudioAsset(this, audioId, uri, volume);
+                        // Playlists have no container headers to probe
+                        probePath = null;
                     } else {
-                        throw new IllegalArgumentException("Invalid URL scheme: " + uri.getScheme());
+                        // Regular remote audio
+                        asset = new RemoteAudioAsset(this, audioId, uri, audioChannelNum, volume);
+                        asset.setCompletionListener(this::dispatchComplete);
+                        applyVoiceOptions(options, asset);
                     }
-                } catch (Exception e) {
-                    logger.error("Error handling URL", e);
-                    call.reject("Error handling URL: " + e.getMessage());
-                }
-            } else {
-                // Handle asset in public folder
-                logger.debug("Handling asset in public folder");
-                if (!assetPath.startsWith("public/")) {
-                    assetPath = "public/" + assetPath;
+                } else if (uri.getScheme() != null && uri.getScheme().equals("file")) {
+                    // Local file URL
+                    logger.debug("Local file URL detected");
+                    File file = new File(uri.getPath());
+                    if (!file.exists()) {
+                        logger.error("File does not exist - " + file.getAbsolutePath());
+                        throw new Exception(ERROR_ASSET_PATH_MISSING + " - " + assetPath);
+                    }
+                    ParcelFileDescriptor pfd = ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
+                    // SoundPool and MediaMetadataRetriever need an explicit length
+                    AssetFileDescriptor afd = new AssetFileDescriptor(pfd, 0, file.length());
+                    asset = createLocalAsset(options, audioId, afd, audioChannelNum, volume);
+                    asset.setCompletionListener(this::dispatchComplete);
+                    applyVoiceOptions(options, asset);
+                } else {
+                    throw new IllegalArgumentException("Invalid URL scheme: " + uri.getScheme());
                 }
-                try {
-                    Context ctx = getContext().getApplicationContext();
-                    AssetManager am = ctx.getResources().getAssets();
-                    AssetFileDescriptor assetFileDescriptor = am.openFd(assetPath);
-                    AudioAsset asset = new AudioAsset(this, audioId, assetFileDescriptor, audioChannelNum, volume);
-                    audioAssetList.put(audioId, asset);
-                    call.resolve(status);
-                } catch (IOException e) {
-                    logger.error("Error opening asset: " + assetPath, e);
-                    call.reject(ERROR_ASSET_PATH_MISSING + " - " + assetPath);
+            } catch (Exception e) {
+                logger.error("Error handling URL", e);
+                throw new Exception("Error handling URL: " + e.getMessage());
+            }
+        } else {
+            // Handle asset in public folder
+            logger.debug("Handling asset in public folder");
+            if (!assetPath.startsWith("public/")) {
+                assetPath = "public/" + assetPath;
+            }
+            probePath = assetPath;
+            try {
+                Context ctx = getContext().getApplicationContext();
+                AssetManager am = ctx.getResources().getAssets();
+                AssetFileDescriptor assetFileDescriptor = am.openFd(assetPath);
+                asset = createLocalAsset(options, audioId, assetFileDescriptor, audioChannelNum, volume);
+                applyVoiceOptions(options, asset);
+            } catch (IOException e) {
+                logger.error("Error opening asset: " + assetPath, e);
+                throw new Exception(ERROR_ASSET_PATH_MISSING + " - " + assetPath);
+            }
+        }
+        joinGroup(options, asset);
+        assetHandles.add(asset);
+        audioAssetList.put(audioId, asset);
+        asset.setCachePriority(options.getInteger(CACHE_PRIORITY, 0));
+        clipCache.add(asset);
+        if (probePath != null) {
+            assetPaths.put(audioId, probePath);
+            probeMetadata(audioId);
+        }
+        return asset;
+    }
+
+    /**
+     * Reads the metadata of an asset off the audio thread, resolving a pending getDuration with it.
+     */
+    private void probeMetadata(final String audioId) {
+        getPreloadExecutor().execute(() -> {
+            MediaProber.MediaInfo info = resolveMetadata(audioId);
+            if (info != null && info.getDurationUs() > 0) {
+                notifyDurationAvailable(audioId, info.getDuration());
+            }
+        });
+    }
+
+    /**
+     * Metadata of an asset from the index, probing its headers on a miss. Blocks on IO, remote files included.
+     */
+    private MediaProber.MediaInfo resolveMetadata(String audioId) {
+        MediaProber.MediaInfo info = assetMetadata.get(audioId);
+        String path = assetPaths.get(audioId);
+        if (info != null || path == null || metadataIndex == null) {
+            return info;
+        }
+        try (MediaProber.Source source = MediaProber.open(getContext(), path)) {
+            // Remote sizes are only known after a request, their entries are trusted as is
+            info = metadataIndex.get(path, source.isRemote() ? -1 : source.length());
+            if (info == null) {
+                info = MediaProber.probe(source);
+                if (info == null) {
+                    logger.debug("No known container headers in " + path);
+                    return null;
                 }
+                metadataIndex.put(path, info);
             }
         } catch (Exception ex) {
-            logger.error("Error in preloadAsset", ex);
-            call.reject("Error in preloadAsset: " + ex.getMessage());
+            logger.warning("Could not probe " + path + ": " + ex.getMessage());
+            return null;
+        }
+        // Not kept when the asset was unloaded in the meantime
+        if (assetPaths.containsKey(audioId)) {
+            assetMetadata.put(audioId, info);
+        }
+        return info;
+    }
+
+    private static boolean isRemoteUri(Uri uri) {
+        return uri.getScheme() != null && (uri.getScheme().equals("http") || uri.getScheme().equals("https"));
+    }
+
+    private void joinGroup(JSObject options, AudioAsset asset) {
+        String name = options.getString(GROUP);
+        if (isStringValid(name)) {
+            AudioGroup group = groups.computeIfAbsent(name, AudioGroup::new);
+            group.add(asset);
+            asset.setGroup(group);
+        }
+    }
+
+    private void leaveGroup(AudioAsset asset) {
+        AudioGroup group = asset.getGroup();
+        if (group != null) {
+            group.remove(asset);
         }
     }
 
-    private void playOrLoop(String action, final PluginCall call) {
+    /**
+     * Groups are created on first use, so a group volume can be set before its assets are preloaded.
+     */
+    private AudioGroup getGroup(PluginCall call) {
+        String name = call.getString(GROUP);
+        if (!isStringValid(name)) {
+            call.reject(ERROR_GROUP_MISSING + " - " + name);
+            return null;
+        }
+        return groups.computeIfAbsent(name, AudioGroup::new);
+    }
+
+    private void applyVoiceOptions(JSObject options, AudioAsset asset) {
+        asset.setPriority(options.getInteger(PRIORITY, 1));
+        if (options.has(STEAL_POLICY)) {
+            asset.setStealPolicy(VoiceAllocator.StealPolicy.fromString(options.getString(STEAL_POLICY), null));
+        }
+    }
+
+    private AudioAsset createLocalAsset(JSObject options, String audioId, AssetFileDescriptor afd, int audioChannelNum, float volume)
+        throws Exception {
+        String engine = options.getString(ENGINE, ENGINE_MEDIA_PLAYER);
+        boolean trimEncoderGaps = Boolean.TRUE.equals(options.getBoolean(TRIM_ENCODER_GAPS, false));
+        AudioAsset asset;
+        if (ENGINE_SOUND_POOL.equals(engine)) {
+            int priority = options.getInteger(PRIORITY, 1);
+            asset = new SoundPoolAsset(this, audioId, soundPool, afd, volume, priority);
+        } else if (ENGINE_PCM.equals(engine)) {
+            asset = new PcmAudioAsset(this, audioId, pcmCache.source(afd, trimEncoderGaps), volume);
+        } else if (ENGINE_MIXER.equals(engine)) {
+            PcmBuffer.Source source = pcmCache.source(afd, trimEncoderGaps);
+            asset = new MixerAudioAsset(this, audioId, getMixer(), source, audioChannelNum, volume);
+        } else {
+            if (!ENGINE_MEDIA_PLAYER.equals(engine)) {
+                logger.warning("Unknown engine " + engine + ", falling back to " + ENGINE_MEDIA_PLAYER);
+            }
+            asset = new AudioAsset(this, audioId, afd, audioChannelNum, volume);
+        }
+        if (options.has(LOOP_START) || options.has(LOOP_END)) {
+            asset.setLoopRegion(options.optDouble(LOOP_START, 0.0), options.optDouble(LOOP_END, 0.0));
+        }
+        return asset;
+    }
+
+    private void playOrLoop(String action, final PluginCall call, final AudioAsset asset) {
         try {
-            final String audioId = call.getString(ASSET_ID);
             final double time = call.getDouble("time", 0.0);
             final float volume = call.getFloat("volume", 1f);
             boolean fadeIn = Boolean.TRUE.equals(call.getBoolean(FADE_IN, false));
@@ -749,41 +1878,34 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
             final double fadeOutDurationMs = fadeOutDurationSecs * 1000;
             final double fadeOutStartTimeSecs = call.getDouble(FADE_OUT_START_TIME, 0.0);
             final double fadeOutStartTimeMs = fadeOutStartTimeSecs * 1000;
-            logger.debug("Playing asset: " + audioId + ", action: " + action + ", time: " + time + ", volume: " + volume);
-
-            if (audioAssetList.containsKey(audioId)) {
-                AudioAsset asset = audioAssetList.get(audioId);
-                logger.debug("Found asset: " + audioId + ", type: " + asset.getClass().getSimpleName());
+            final FadeCurve curve = getFadeCurve(call);
+            logger.debug("Playing asset: " + asset.getAssetId() + ", action: " + action + ", time: " + time + ", volume: " + volume);
 
-                if (asset != null) {
-                    if (LOOP.equals(action)) {
-                        asset.loop();
-                    } else {
-                        if (fadeOut) {
-                            scheduleFadeOut(asset, fadeOutDurationMs, fadeOutStartTimeMs);
-                        }
-                        if (fadeIn) {
-                            asset.playWithFadeIn(time, volume, fadeInDurationMs);
-                        } else {
-                            asset.play(time, volume);
-                        }
-                    }
-                    call.resolve();
+            if (LOOP.equals(action)) {
+                asset.loop();
+            } else {
+                if (fadeOut) {
+                    scheduleFadeOut(asset, fadeOutDurationMs, fadeOutStartTimeMs, curve);
+                }
+                if (fadeIn) {
+                    asset.playWithFadeIn(time, volume, fadeInDurationMs, curve);
                 } else {
-                    call.reject("Asset is null: " + audioId);
+                    asset.play(time, volume);
                 }
-            } else {
-                call.reject("Asset not found: " + audioId);
             }
+            call.resolve();
         } catch (Exception ex) {
             logger.error("Error in playOrLoop", ex);
             call.reject(ex.getMessage());
         }
     }
 
-    private void scheduleFadeOut(AudioAsset asset, double fadeOutDurationMs, double fadeOutStartTimeMs) {
+    private void scheduleFadeOut(AudioAsset asset, double fadeOutDurationMs, double fadeOutStartTimeMs, FadeCurve curve) {
         try {
             double duration = asset.getDuration();
+            if (duration <= 0) {
+                duration = getProbedDuration(asset.assetId);
+            }
             if (duration > 0) {
                 double fadeOutStartTime = duration - (fadeOutDurationMs / 1000.0);
                 if (fadeOutStartTimeMs > 0) {
@@ -797,7 +1919,9 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
                 data.put("fadeOut", true);
                 data.put("fadeOutStartTime", fadeOutStartTime);
                 data.put("fadeOutDuration", fadeOutDurationMs);
+                data.put("fadeOutCurve", curve.name());
                 setAudioAssetData(asset.assetId, data);
+                timeTicker.update();
             } else {
                 logger.warning("Duration not available, skipping fade-out scheduling");
             }
@@ -813,11 +1937,12 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
             data.remove("fadeOut");
             data.remove("fadeOutStartTime");
             data.remove("fadeOutDuration");
+            data.remove("fadeOutCurve");
             setAudioAssetData(audioId, data);
         }
     }
 
-    private void initSoundPool() {
+    private synchronized void initSoundPool() {
         if (audioAssetList == null) {
             logger.debug("Initializing audio asset list");
             audioAssetList = new ConcurrentHashMap<>();
@@ -826,26 +1951,87 @@ public class NativeAudio extends Plugin implements AudioManager.OnAudioFocusChan
             logger.debug("Initializing resume list");
             autoResumeList = new CopyOnWriteArrayList<>();
         }
+        if (soundPool == null) {
+            logger.debug("Initializing sound pool with " + soundPoolMaxStreams + " streams");
+            soundPool = new SoundPool.Builder()
+                .setMaxStreams(soundPoolMaxStreams)
+                .setAudioAttributes(
+                    new AudioAttributes.Builder()
+                        .setUsage(AudioAttributes.USAGE_GAME)
+                        .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                        .build()
+                )
+                .build();
+            SoundPoolAsset.setMaxStreams(soundPoolMaxStreams);
+            soundPool.setOnLoadCompleteListener((pool, sampleId, status) -> {
+                SoundPoolAsset asset;
+                synchronized (soundPoolSamples) {
+                    asset = soundPoolSamples.get(sampleId);
+                }
+                if (asset != null) {
+                    asset.onLoadComplete(status);
+                }
+            });
+        }
     }
 
-    private boolean isStringValid(String value) {
-        return (value != null && !value.isEmpty() && !value.equals("null"));
+    private void setSoundPoolMaxStreams(int maxStreams) {
+        maxStreams = Math.max(1, maxStreams);
+        if (maxStreams == soundPoolMaxStreams) {
+            return;
+        }
+        if (soundPool != null && !soundPoolSamples.isEmpty()) {
+            // SoundPool cannot be resized, and releasing it would drop every loaded sample
+            logger.warning("Sound pool already holds samples, keeping " + soundPoolMaxStreams + " streams");
+            return;
+        }
+        soundPoolMaxStreams = maxStreams;
+        if (soundPool != null) {
+            soundPool.release();
+            soundPool = null;
+        }
     }
 
-    private void stopAudio(String audioId, boolean fadeOut, double fadeOutDurationMs) throws Exception {
-        if (!audioAssetList.containsKey(audioId)) {
-            throw new Exception(ERROR_ASSET_NOT_LOADED);
+    private synchronized AudioMixer getMixer() {
+        if (mixer == null) {
+            mixer = new AudioMixer(getContext().getApplicationContext(), AudioMixer.DEFAULT_MAX_VOICES);
         }
+        return mixer;
+    }
 
-        logger.debug("Stopping audio asset: " + audioId);
-        AudioAsset asset = audioAssetList.get(audioId);
-        if (asset != null) {
-            clearFadeOutToStopTimer(audioId);
-            if (fadeOut) {
-                asset.stopWithFade(fadeOutDurationMs, false);
-            } else {
-                asset.stop();
+    /**
+     * Loads a sample into the shared SoundPool and registers it for the load callback.
+     * The callback takes the same lock, so a load that completes before {@code load()} returns still finds its asset.
+     */
+    int loadSoundPoolSample(SoundPoolAsset asset, AssetFileDescriptor afd, int priority) {
+        synchronized (soundPoolSamples) {
+            int sampleId = soundPool.load(afd, priority);
+            if (sampleId != 0) {
+                soundPoolSamples.put(sampleId, asset);
             }
+            return sampleId;
+        }
+    }
+
+    void onSoundPoolAssetUnloaded(SoundPoolAsset asset) {
+        soundPoolSamples.remove(asset.getSampleId());
+    }
+
+    private boolean isStringValid(String value) {
+        return (value != null && !value.isEmpty() && !value.equals("null"));
+    }
+
+    private FadeCurve getFadeCurve(PluginCall call) {
+        return FadeCurve.fromString(call.getString(CURVE), AudioAsset.DEFAULT_FADE_CURVE);
+    }
+
+    private void stopAudio(AudioAsset asset, boolean fadeOut, double fadeOutDurationMs, FadeCurve curve) throws Exception {
+        logger.debug("Stopping audio asset: " + asset.getAssetId());
+        clearFadeOutToStopTimer(asset.getAssetId());
+        if (fadeOut) {
+            asset.stopWithFade(fadeOutDurationMs, false, curve);
+        } else {
+            asset.stop();
         }
     }
 
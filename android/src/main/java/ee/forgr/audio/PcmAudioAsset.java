@@ -0,0 +1,370 @@
+package ee.forgr.audio;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+import android.os.Handler;
+import androidx.media3.common.util.UnstableApi;
+import java.nio.ByteBuffer;
+
+/**
+ * Local asset decoded once at preload and played from memory through a single static {@link AudioTrack}.
+ * Starting playback only moves the playback head, there is no decoder or seek round-trip involved.
+ * The track holds its own copy of the samples, so the decoded buffer is not kept once the track is loaded.
+ */
+@UnstableApi
+public class PcmAudioAsset extends AudioAsset {
+
+    private static final String TAG = "PcmAudioAsset";
+    private static final Logger logger = new Logger(TAG);
+
+    private final PcmBuffer.Source source;
+    private final int sampleRate;
+    private final int frameCount;
+    private final double duration;
+    private final long sizeInBytes;
+    private volatile AudioTrack track;
+    private final Handler handler = AudioThread.getHandler();
+    private float volume;
+    private float rate = 1.0f;
+    private boolean looping = false;
+    private boolean paused = false;
+    private int loopStart;
+    private int loopEnd;
+
+    PcmAudioAsset(NativeAudio owner, String assetId, PcmBuffer.Source source, float volume) throws Exception {
+        super(owner, assetId, null, 0, volume);
+        this.volume = volume;
+        this.source = source;
+        PcmBuffer pcm = source.load();
+        this.sampleRate = pcm.getSampleRate();
+        this.frameCount = pcm.getFrameCount();
+        this.duration = pcm.getDuration();
+        this.sizeInBytes = pcm.getSizeInBytes();
+        this.loopEnd = frameCount;
+        this.track = loadTrack(pcm);
+    }
+
+    private AudioTrack loadTrack(PcmBuffer pcm) throws Exception {
+        AudioTrack track = createTrack(pcm);
+        track.setVolume(volume * getGroupGain());
+        track.setPlaybackPositionUpdateListener(
+            new AudioTrack.OnPlaybackPositionUpdateListener() {
+                @Override
+                public void onMarkerReached(AudioTrack audioTrack) {
+                    if (!looping) {
+                        onPlaybackEnded();
+                    }
+                }
+
+                @Override
+                public void onPeriodicNotification(AudioTrack audioTrack) {}
+            },
+            handler
+        );
+        return track;
+    }
+
+    /**
+     * Builds the static track holding the samples, called once from the constructor.
+     */
+    AudioTrack createTrack(PcmBuffer pcm) throws Exception {
+        int channelMask = pcm.getChannelCount() == 1 ? AudioFormat.CHANNEL_OUT_MONO : AudioFormat.CHANNEL_OUT_STEREO;
+        int sizeInBytes = (int) pcm.getSizeInBytes();
+        if (sizeInBytes <= 0) {
+            throw new Exception("Decoded audio is empty");
+        }
+        AudioTrack track = new AudioTrack.Builder()
+            .setAudioAttributes(
+                new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_MEDIA)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                    .build()
+            )
+            .setAudioFormat(
+                new AudioFormat.Builder()
+                    .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                    .setSampleRate(pcm.getSampleRate())
+                    .setChannelMask(channelMask)
+                    .build()
+            )
+            .setTransferMode(AudioTrack.MODE_STATIC)
+            .setBufferSizeInBytes(sizeInBytes)
+            .build();
+        ByteBuffer data = pcm.getData();
+        int written = track.write(data, sizeInBytes, AudioTrack.WRITE_BLOCKING);
+        if (written != sizeInBytes) {
+            track.release();
+            throw new Exception("Could not load decoded audio into AudioTrack (" + written + ")");
+        }
+        return track;
+    }
+
+    private void onPlaybackEnded() {
+        logger.debug("Playback ended for " + assetId);
+        AudioTrack track = this.track;
+        if (track == null) {
+            return;
+        }
+        try {
+            track.stop();
+        } catch (IllegalStateException e) {
+            logger.error("Error stopping track", e);
+        }
+        dispatchComplete();
+    }
+
+    private void startAt(double time, boolean loop) {
+        AudioTrack track = this.track;
+        cancelFade();
+        if (track.getPlayState() == AudioTrack.PLAYSTATE_PLAYING) {
+            track.pause();
+        }
+        looping = loop;
+        paused = false;
+        track.setLoopPoints(loop ? loopStart : 0, loop ? loopEnd : 0, loop ? -1 : 0);
+        int frame = (int) Math.max(0, Math.min(frameCount - 1, Math.round(time * sampleRate)));
+        track.setPlaybackHeadPosition(frame);
+        track.setNotificationMarkerPosition(loop ? 0 : frameCount);
+        startCurrentTimeUpdates();
+        track.play();
+    }
+
+    @Override
+    public void play(double time, float volume) throws Exception {
+        ensureResident();
+        setVolume(volume, 0);
+        startAt(time, false);
+    }
+
+    @Override
+    public void loop() throws Exception {
+        ensureResident();
+        startAt(0, true);
+    }
+
+    @Override
+    public void setLoopRegion(double loopStart, double loopEnd) throws Exception {
+        int start = Math.min(PcmBuffer.toFrame(loopStart, sampleRate, frameCount), frameCount - 1);
+        int end = loopEnd > 0 ? PcmBuffer.toFrame(loopEnd, sampleRate, frameCount) : frameCount;
+        if (end <= start) {
+            throw new Exception("Loop end must be after loop start");
+        }
+        this.loopStart = start;
+        this.loopEnd = end;
+        AudioTrack track = this.track;
+        if (looping && track != null && track.getPlayState() == AudioTrack.PLAYSTATE_PLAYING) {
+            track.setLoopPoints(start, end, -1);
+        }
+    }
+
+    @Override
+    public boolean pause() throws Exception {
+        cancelFade();
+        AudioTrack track = this.track;
+        if (track != null && track.getPlayState() == AudioTrack.PLAYSTATE_PLAYING) {
+            track.pause();
+            paused = true;
+            stopCurrentTimeUpdates();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void resume() throws Exception {
+        AudioTrack track = this.track;
+        if (paused && track != null) {
+            paused = false;
+            track.play();
+            startCurrentTimeUpdates();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        cancelFade();
+        AudioTrack track = this.track;
+        boolean wasActive = track != null && track.getPlayState() != AudioTrack.PLAYSTATE_STOPPED;
+        paused = false;
+        stopCurrentTimeUpdates();
+        if (wasActive) {
+            track.pause();
+            track.stop();
+            dispatchComplete();
+        }
+    }
+
+    @Override
+    public void unload() throws Exception {
+        stop();
+        AudioTrack track = this.track;
+        if (track != null) {
+            track.release();
+        }
+        close();
+    }
+
+    @Override
+    public void setVolume(float volume, double duration, FadeCurve curve) throws Exception {
+        cancelFade();
+        if (duration > 0 && isPlaying()) {
+            rampVolume(this.volume, volume, duration, curve, this::applyVolume, null);
+        } else {
+            applyVolume(volume);
+        }
+    }
+
+    private void applyVolume(float volume) {
+        this.volume = volume;
+        AudioTrack track = this.track;
+        if (track != null) {
+            track.setVolume(volume * getGroupGain());
+        }
+    }
+
+    @Override
+    protected void onGroupGainChanged() {
+        applyVolume(volume);
+    }
+
+    @Override
+    public float getVolume() {
+        return volume;
+    }
+
+    @Override
+    public void setRate(float rate) throws Exception {
+        this.rate = rate;
+        AudioTrack track = this.track;
+        if (track != null) {
+            applyRate(track);
+        }
+    }
+
+    private void applyRate(AudioTrack track) {
+        // A static track can be resampled up to twice its native rate
+        int playbackRate = (int) Math.max(1, Math.min(sampleRate * 2L, Math.round(sampleRate * rate)));
+        track.setPlaybackRate(playbackRate);
+    }
+
+    @Override
+    public boolean isPlaying() {
+        AudioTrack track = this.track;
+        return track != null && track.getPlayState() == AudioTrack.PLAYSTATE_PLAYING;
+    }
+
+    @Override
+    public double getDuration() {
+        return duration;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        AudioTrack track = this.track;
+        if (track == null) {
+            return 0;
+        }
+        int frame = track.getPlaybackHeadPosition();
+        if (looping && frame >= loopEnd) {
+            frame = loopStart + (frame - loopEnd) % (loopEnd - loopStart);
+        }
+        return (double) Math.min(frame, frameCount) / sampleRate;
+    }
+
+    /**
+     * Reports the playback head of the track, the end itself is dispatched by the track marker.
+     */
+    @Override
+    protected double pollCurrentTime() {
+        if (isPlaying()) {
+            return getCurrentPosition();
+        }
+        if (!paused) {
+            dispatchComplete();
+        }
+        return TIME_STOPPED;
+    }
+
+    @Override
+    public void setCurrentTime(double time) throws Exception {
+        AudioTrack track = this.track;
+        if (track == null) {
+            return;
+        }
+        boolean wasPlaying = track.getPlayState() == AudioTrack.PLAYSTATE_PLAYING;
+        if (wasPlaying) {
+            track.pause();
+        }
+        int frame = (int) Math.max(0, Math.min(frameCount - 1, Math.round(time * sampleRate)));
+        track.setPlaybackHeadPosition(frame);
+        if (wasPlaying) {
+            track.play();
+        }
+    }
+
+    @Override
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs, FadeCurve curve) throws Exception {
+        ensureResident();
+        applyVolume(0f);
+        startAt(time, false);
+        rampVolume(0f, volume, fadeInDurationMs, curve, this::applyVolume, null);
+    }
+
+    @Override
+    public void stopWithFade(double fadeOutDurationMs, boolean toPause, FadeCurve curve) throws Exception {
+        if (!isPlaying()) {
+            return;
+        }
+        final float restoreVolume = volume;
+        rampVolume(
+            volume,
+            0f,
+            fadeOutDurationMs,
+            curve,
+            this::applyVolume,
+            () ->
+                handler.post(() -> {
+                    try {
+                        if (toPause) {
+                            pause();
+                        } else {
+                            stop();
+                        }
+                        applyVolume(restoreVolume);
+                    } catch (Exception e) {
+                        logger.error("Error finishing fade out", e);
+                    }
+                })
+        );
+    }
+
+    @Override
+    public long getResidentBytes() {
+        return sizeInBytes;
+    }
+
+    @Override
+    protected boolean isIdle() {
+        AudioTrack track = this.track;
+        return track == null || track.getPlayState() == AudioTrack.PLAYSTATE_STOPPED;
+    }
+
+    @Override
+    protected void releaseResources() {
+        AudioTrack track = this.track;
+        this.track = null;
+        if (track != null) {
+            track.release();
+        }
+    }
+
+    @Override
+    protected void rebuildResources() throws Exception {
+        AudioTrack track = loadTrack(source.load());
+        if (rate != 1.0f) {
+            applyRate(track);
+        }
+        this.track = track;
+    }
+}
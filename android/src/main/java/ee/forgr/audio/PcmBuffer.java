@@ -0,0 +1,84 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Decoded, interleaved 16-bit PCM held in memory.
+ */
+@UnstableApi
+public class PcmBuffer {
+
+    public static final int BYTES_PER_SAMPLE = 2;
+
+    /**
+     * Produces the buffer of an asset, at preload and again after the {@link ClipCache} evicted it.
+     */
+    public interface Source {
+        PcmBuffer load() throws IOException;
+    }
+
+    private final ByteBuffer data;
+    private final ShortBuffer samples;
+    private final int sampleRate;
+    private final int channelCount;
+    private final int frameCount;
+
+    PcmBuffer(ByteBuffer data, int sampleRate, int channelCount) {
+        this.data = data.order(ByteOrder.nativeOrder());
+        this.samples = this.data.asShortBuffer();
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+        this.frameCount = data.limit() / (BYTES_PER_SAMPLE * channelCount);
+    }
+
+    /**
+     * Read-only view over the raw bytes, positioned at the first frame.
+     */
+    public ByteBuffer getData() {
+        ByteBuffer view = data.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+        view.rewind();
+        return view;
+    }
+
+    /**
+     * Absolute-indexed sample view, safe to read from any thread without allocation.
+     */
+    public ShortBuffer getSamples() {
+        return samples;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public long getSizeInBytes() {
+        return (long) frameCount * channelCount * BYTES_PER_SAMPLE;
+    }
+
+    public double getDuration() {
+        return sampleRate > 0 ? (double) frameCount / sampleRate : 0;
+    }
+
+    /**
+     * Frame index of a time in seconds, clamped to the buffer.
+     */
+    public int toFrame(double seconds) {
+        return toFrame(seconds, sampleRate, frameCount);
+    }
+
+    static int toFrame(double seconds, int sampleRate, int frameCount) {
+        return (int) Math.max(0, Math.min(frameCount, Math.round(seconds * sampleRate)));
+    }
+}
@@ -0,0 +1,237 @@
+package ee.forgr.audio;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import androidx.media3.common.util.UnstableApi;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Decoded PCM kept on disk across launches, keyed by a hash of the source bytes and the decode options.
+ * A hit is memory-mapped instead of decoded, so preloading it only costs paging in the samples.
+ * Files of another format version or byte order are dropped when read; the least recently used files are
+ * deleted when the cache outgrows its size limit.
+ */
+@UnstableApi
+public class PcmCache {
+
+    private static final String TAG = "PcmCache";
+    private static final Logger logger = new Logger(TAG);
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024; // 256MB cache
+    private static final String DIRECTORY = "pcm";
+    private static final String EXTENSION = ".pcm";
+    private static final int MAGIC = 0x4e415043; // "NAPC"
+    // 2: sources with more than two channels are down-mixed instead of keeping the front pair
+    private static final int VERSION = 2;
+    // magic, version, little endian flag, sample rate, channels, reserved, data length
+    private static final int HEADER_SIZE = 32;
+
+    private final File directory;
+    private volatile long maxBytes = DEFAULT_MAX_BYTES;
+
+    public PcmCache(Context context) {
+        this.directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+    }
+
+    /**
+     * Size limit in bytes, 0 disables the cache and deletes its files.
+     */
+    public void setMaxBytes(long bytes) {
+        maxBytes = Math.max(0, bytes);
+        trim();
+    }
+
+    /**
+     * Source of an asset backed by the cache. Each load maps the PCM of the source when it was decoded before, otherwise
+     * decodes it and stores the result. The source is hashed on its first load only, so reloading it after an eviction
+     * is a re-map of the cached file. Cache errors are logged and fall back to decoding.
+     */
+    public PcmBuffer.Source source(AssetFileDescriptor afd, boolean trimEncoderGaps) {
+        return new CachedSource(afd, trimEncoderGaps);
+    }
+
+    private final class CachedSource implements PcmBuffer.Source {
+
+        private final AssetFileDescriptor afd;
+        private final boolean trimEncoderGaps;
+        // Cache file of the source, known once the source has been hashed
+        private File file;
+
+        CachedSource(AssetFileDescriptor afd, boolean trimEncoderGaps) {
+            this.afd = afd;
+            this.trimEncoderGaps = trimEncoderGaps;
+        }
+
+        @Override
+        public synchronized PcmBuffer load() throws IOException {
+            if (maxBytes <= 0) {
+                return PcmDecoder.decode(afd, trimEncoderGaps);
+            }
+            try {
+                if (file == null) {
+                    file = new File(directory, hash(afd, trimEncoderGaps) + EXTENSION);
+                }
+                PcmBuffer cached = read(file);
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (IOException | NoSuchAlgorithmException e) {
+                logger.warning("Could not read decoded audio cache: " + e.getMessage());
+            }
+            PcmBuffer pcm = PcmDecoder.decode(afd, trimEncoderGaps);
+            if (file != null) {
+                write(file, pcm);
+            }
+            return pcm;
+        }
+    }
+
+    private static String hash(AssetFileDescriptor afd, boolean trimEncoderGaps) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        digest.update((byte) VERSION);
+        digest.update((byte) (trimEncoderGaps ? 1 : 0));
+        // Not closed: the stream does not own the descriptor, which the decoder still needs
+        FileChannel channel = new FileInputStream(afd.getFileDescriptor()).getChannel();
+        long start = afd.getStartOffset();
+        long end = afd.getLength() != AssetFileDescriptor.UNKNOWN_LENGTH ? start + afd.getLength() : channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = start;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            digest.update(buffer.array(), 0, read);
+            position += read;
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private PcmBuffer read(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE) {
+                return drop(file, "truncated");
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return drop(file, "of another version");
+            }
+            if ((header.getInt() == 1) != (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN)) {
+                return drop(file, "of another byte order");
+            }
+            int sampleRate = header.getInt();
+            int channelCount = header.getInt();
+            header.getInt();
+            long length = header.getLong();
+            if (sampleRate <= 0 || channelCount <= 0 || length <= 0 || HEADER_SIZE + length != channel.size()) {
+                return drop(file, "corrupted");
+            }
+            // The mapping stays valid once the channel is closed
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length);
+            // Paged in now on the preload thread, not by the mixer thread on first play
+            data.load();
+            file.setLastModified(System.currentTimeMillis());
+            logger.debug("Mapped " + length + " bytes of decoded audio from " + file.getName());
+            return new PcmBuffer(data, sampleRate, channelCount);
+        }
+    }
+
+    private static PcmBuffer drop(File file, String reason) {
+        logger.debug("Dropping cached decoded audio " + file.getName() + ", " + reason);
+        file.delete();
+        return null;
+    }
+
+    private void write(File file, PcmBuffer pcm) {
+        File temp = null;
+        try {
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+            temp = File.createTempFile(file.getName(), ".tmp", directory);
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                FileChannel channel = out.getChannel();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC);
+                header.putInt(VERSION);
+                header.putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0);
+                header.putInt(pcm.getSampleRate());
+                header.putInt(pcm.getChannelCount());
+                header.putInt(0);
+                header.putLong(pcm.getSizeInBytes());
+                header.flip();
+                writeFully(channel, header);
+                writeFully(channel, pcm.getData());
+            }
+            // Concurrent preloads of the same file each write their own temp file, the last rename wins
+            if (!temp.renameTo(file)) {
+                throw new IOException("Could not rename " + temp.getName());
+            }
+            temp = null;
+            trim();
+        } catch (IOException e) {
+            logger.warning("Could not store decoded audio: " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the cache fits its size limit.
+     * Assets still playing mapped files are unaffected, a mapping outlives its file.
+     */
+    private synchronized void trim() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        long limit = maxBytes;
+        if (total <= limit) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (total <= limit) {
+                break;
+            }
+            long size = file.length();
+            if (file.delete()) {
+                total -= size;
+            }
+        }
+        logger.debug("Decoded audio cache trimmed to " + total + " bytes");
+    }
+}
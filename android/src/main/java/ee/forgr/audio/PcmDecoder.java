@@ -0,0 +1,310 @@
+package ee.forgr.audio;
+
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioFormat;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.os.Build;
+import androidx.media3.common.util.UnstableApi;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Decodes a compressed audio file into a {@link PcmBuffer} with MediaExtractor and MediaCodec.
+ * Output is interleaved 16-bit PCM with at most two channels: sources with more are down-mixed to stereo with the
+ * ITU-R BS.775 coefficients (centre and surrounds at -3 dB, LFE dropped), scaled so a full-scale source cannot clip.
+ * The encoder delay and padding reported by the container can be trimmed so loops are gapless.
+ */
+@UnstableApi
+public class PcmDecoder {
+
+    private static final String TAG = "PcmDecoder";
+    private static final Logger logger = new Logger(TAG);
+    private static final long TIMEOUT_US = 10000;
+    private static final String KEY_ENCODER_DELAY = "encoder-delay";
+    private static final String KEY_ENCODER_PADDING = "encoder-padding";
+    private static final float MINUS_3DB = 0.70710678f;
+
+    private ByteBuffer output;
+    private int sampleRate;
+    private int sourceChannels;
+    private int channelCount;
+    private int pcmEncoding = AudioFormat.ENCODING_PCM_16BIT;
+    private int encoderDelay = 0;
+    private int encoderPadding = 0;
+    // Gain of each source channel in the left and right outputs, null when the source has at most two channels
+    private float[] leftGains;
+    private float[] rightGains;
+
+    private PcmDecoder() {}
+
+    public static PcmBuffer decode(AssetFileDescriptor afd) throws IOException {
+        return decode(afd, false);
+    }
+
+    /**
+     * @param trimEncoderGaps drop the encoder delay and padding frames, e.g. the silence MP3 and AAC encoders add
+     */
+    public static PcmBuffer decode(AssetFileDescriptor afd, boolean trimEncoderGaps) throws IOException {
+        return new PcmDecoder().run(afd, trimEncoderGaps);
+    }
+
+    private PcmBuffer run(AssetFileDescriptor afd, boolean trimEncoderGaps) throws IOException {
+        long start = System.currentTimeMillis();
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            extractor.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            int track = selectAudioTrack(extractor);
+            if (track < 0) {
+                throw new IOException("No audio track found");
+            }
+            extractor.selectTrack(track);
+            MediaFormat format = extractor.getTrackFormat(track);
+            updateFormat(format);
+            long durationUs = format.containsKey(MediaFormat.KEY_DURATION) ? format.getLong(MediaFormat.KEY_DURATION) : 0;
+            // Size the buffer from the container duration to avoid regrowing it while decoding
+            long estimatedBytes = (durationUs * sampleRate / 1000000L + sampleRate) * channelCount * PcmBuffer.BYTES_PER_SAMPLE;
+            output = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE, Math.max(estimatedBytes, 64 * 1024))).order(
+                ByteOrder.nativeOrder()
+            );
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean outputDone = false;
+            while (!outputDone) {
+                if (!inputDone) {
+                    int inIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+                    if (inIndex >= 0) {
+                        ByteBuffer in = codec.getInputBuffer(inIndex);
+                        int size = in != null ? extractor.readSampleData(in, 0) : -1;
+                        if (size < 0) {
+                            codec.queueInputBuffer(inIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+                int outIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outIndex >= 0) {
+                    ByteBuffer out = codec.getOutputBuffer(outIndex);
+                    if (out != null && info.size > 0) {
+                        out.position(info.offset);
+                        out.limit(info.offset + info.size);
+                        append(out.order(ByteOrder.nativeOrder()));
+                    }
+                    codec.releaseOutputBuffer(outIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        outputDone = true;
+                    }
+                } else if (outIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    updateFormat(codec.getOutputFormat());
+                }
+            }
+            output.flip();
+            if (trimEncoderGaps) {
+                trim();
+            }
+            logger.debug(
+                "Decoded " + output.limit() + " bytes (" + sampleRate + " Hz, " + channelCount + " ch) in " +
+                (System.currentTimeMillis() - start) + " ms"
+            );
+            return new PcmBuffer(output, sampleRate, channelCount);
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (Exception ignored) {}
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+
+    private static int selectAudioTrack(MediaExtractor extractor) {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith("audio/")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Drops the encoder delay from the start and the encoder padding from the end of the decoded output.
+     */
+    private void trim() {
+        int frameSize = channelCount * PcmBuffer.BYTES_PER_SAMPLE;
+        int frames = output.limit() / frameSize;
+        int start = Math.min(encoderDelay, frames);
+        int end = Math.max(start, frames - encoderPadding);
+        if (start == 0 && end == frames) {
+            return;
+        }
+        logger.debug("Trimming " + start + " delay frames and " + (frames - end) + " padding frames");
+        output.position(start * frameSize);
+        output.limit(end * frameSize);
+        output = output.slice().order(ByteOrder.nativeOrder());
+    }
+
+    private void updateFormat(MediaFormat format) throws IOException {
+        if (format.containsKey(KEY_ENCODER_DELAY)) {
+            encoderDelay = format.getInteger(KEY_ENCODER_DELAY);
+        }
+        if (format.containsKey(KEY_ENCODER_PADDING)) {
+            encoderPadding = format.getInteger(KEY_ENCODER_PADDING);
+        }
+        sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+        sourceChannels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+        channelCount = Math.min(2, sourceChannels);
+        if (sourceChannels > 2) {
+            int mask = format.containsKey(MediaFormat.KEY_CHANNEL_MASK) ? format.getInteger(MediaFormat.KEY_CHANNEL_MASK) : 0;
+            setDownmix(mask);
+        } else {
+            leftGains = null;
+            rightGains = null;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && format.containsKey(MediaFormat.KEY_PCM_ENCODING)) {
+            pcmEncoding = format.getInteger(MediaFormat.KEY_PCM_ENCODING);
+        }
+    }
+
+    /**
+     * Sets the stereo gains of each source channel. The decoder interleaves channels in the ascending bit order of
+     * the channel mask, the default layout for the channel count is used when the format has no usable mask.
+     */
+    private void setDownmix(int mask) throws IOException {
+        if (Integer.bitCount(mask) != sourceChannels) {
+            mask = defaultChannelMask(sourceChannels);
+            if (mask == 0) {
+                throw new IOException("Unsupported channel layout with " + sourceChannels + " channels");
+            }
+        }
+        leftGains = new float[sourceChannels];
+        rightGains = new float[sourceChannels];
+        float leftSum = 0;
+        float rightSum = 0;
+        int channel = 0;
+        for (int bit = 0; bit < 32; bit++) {
+            int position = 1 << bit;
+            if ((mask & position) == 0) {
+                continue;
+            }
+            float left = 0;
+            float right = 0;
+            switch (position) {
+                case AudioFormat.CHANNEL_OUT_FRONT_LEFT:
+                case AudioFormat.CHANNEL_OUT_FRONT_LEFT_OF_CENTER:
+                    left = 1f;
+                    break;
+                case AudioFormat.CHANNEL_OUT_FRONT_RIGHT:
+                case AudioFormat.CHANNEL_OUT_FRONT_RIGHT_OF_CENTER:
+                    right = 1f;
+                    break;
+                case AudioFormat.CHANNEL_OUT_FRONT_CENTER:
+                case AudioFormat.CHANNEL_OUT_BACK_CENTER:
+                    left = MINUS_3DB;
+                    right = MINUS_3DB;
+                    break;
+                case AudioFormat.CHANNEL_OUT_BACK_LEFT:
+                case AudioFormat.CHANNEL_OUT_SIDE_LEFT:
+                    left = MINUS_3DB;
+                    break;
+                case AudioFormat.CHANNEL_OUT_BACK_RIGHT:
+                case AudioFormat.CHANNEL_OUT_SIDE_RIGHT:
+                    right = MINUS_3DB;
+                    break;
+                default:
+                    // LFE and height channels are left out of a stereo fold-down
+                    break;
+            }
+            leftGains[channel] = left;
+            rightGains[channel] = right;
+            leftSum += left;
+            rightSum += right;
+            channel++;
+        }
+        float scale = 1f / Math.max(1f, Math.max(leftSum, rightSum));
+        for (int i = 0; i < sourceChannels; i++) {
+            leftGains[i] *= scale;
+            rightGains[i] *= scale;
+        }
+        logger.debug("Down-mixing " + sourceChannels + " channels (mask 0x" + Integer.toHexString(mask) + ") to stereo");
+    }
+
+    private static int defaultChannelMask(int channels) {
+        switch (channels) {
+            case 3:
+                return AudioFormat.CHANNEL_OUT_STEREO | AudioFormat.CHANNEL_OUT_FRONT_CENTER;
+            case 4:
+                return AudioFormat.CHANNEL_OUT_QUAD;
+            case 5:
+                return AudioFormat.CHANNEL_OUT_QUAD | AudioFormat.CHANNEL_OUT_FRONT_CENTER;
+            case 6:
+                return AudioFormat.CHANNEL_OUT_5POINT1;
+            case 7:
+                return AudioFormat.CHANNEL_OUT_5POINT1 | AudioFormat.CHANNEL_OUT_BACK_CENTER;
+            case 8:
+                return AudioFormat.CHANNEL_OUT_7POINT1_SURROUND;
+            default:
+                return 0;
+        }
+    }
+
+    private void append(ByteBuffer in) {
+        boolean isFloat = pcmEncoding == AudioFormat.ENCODING_PCM_FLOAT;
+        int bytesPerSample = isFloat ? 4 : 2;
+        int frames = in.remaining() / (bytesPerSample * sourceChannels);
+        ensureCapacity(frames * channelCount * PcmBuffer.BYTES_PER_SAMPLE);
+        for (int frame = 0; frame < frames; frame++) {
+            int base = in.position() + frame * sourceChannels * bytesPerSample;
+            if (leftGains != null) {
+                float left = 0;
+                float right = 0;
+                for (int channel = 0; channel < sourceChannels; channel++) {
+                    float value = readSample(in, base + channel * bytesPerSample, isFloat);
+                    left += value * leftGains[channel];
+                    right += value * rightGains[channel];
+                }
+                output.putShort(toShort(left));
+                output.putShort(toShort(right));
+                continue;
+            }
+            for (int channel = 0; channel < channelCount; channel++) {
+                int index = base + channel * bytesPerSample;
+                output.putShort(isFloat ? toShort(in.getFloat(index)) : in.getShort(index));
+            }
+        }
+    }
+
+    private static float readSample(ByteBuffer in, int index, boolean isFloat) {
+        return isFloat ? in.getFloat(index) : in.getShort(index) / 32768f;
+    }
+
+    private static short toShort(float value) {
+        return (short) (Math.max(-1f, Math.min(1f, value)) * Short.MAX_VALUE);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (output.remaining() >= extra) {
+            return;
+        }
+        int capacity = output.capacity();
+        while (capacity - output.position() < extra) {
+            capacity = capacity * 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        output.flip();
+        grown.put(output);
+        output = grown;
+    }
+}
@@ -0,0 +1,128 @@
+package ee.forgr.audio;
+
+import android.os.SystemClock;
+import androidx.media3.common.C;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable snapshot of an ExoPlayer, taken on the audio thread whenever the player reports a change.
+ * The position is anchored to the clock time it was read at, so it can be extrapolated from any thread
+ * without asking the player again.
+ */
+@UnstableApi
+public final class PlaybackState {
+
+    public static final PlaybackState EMPTY = new PlaybackState(Player.STATE_IDLE, false, 0, 0, 1f, C.TIME_UNSET, C.INDEX_UNSET, 0);
+
+    private final int state;
+    private final boolean playing;
+    private final long positionMs;
+    private final long anchorRealtimeMs;
+    private final float speed;
+    private final long durationMs;
+    private final int itemIndex;
+    private final int itemCount;
+
+    private PlaybackState(
+        int state,
+        boolean playing,
+        long positionMs,
+        long anchorRealtimeMs,
+        float speed,
+        long durationMs,
+        int itemIndex,
+        int itemCount
+    ) {
+        this.state = state;
+        this.playing = playing;
+        this.positionMs = positionMs;
+        this.anchorRealtimeMs = anchorRealtimeMs;
+        this.speed = speed;
+        this.durationMs = durationMs;
+        this.itemIndex = itemIndex;
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * Must be called on the thread of the player.
+     */
+    public static PlaybackState capture(Player player) {
+        return new PlaybackState(
+            player.getPlaybackState(),
+            player.isPlaying(),
+            player.getCurrentPosition(),
+            SystemClock.elapsedRealtime(),
+            player.getPlaybackParameters().speed,
+            player.getDuration(),
+            player.getCurrentMediaItemIndex(),
+            player.getMediaItemCount()
+        );
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public boolean isReady() {
+        return state == Player.STATE_READY;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Duration in seconds, 0 while unknown.
+     */
+    public double getDuration() {
+        return durationMs != C.TIME_UNSET ? durationMs / 1000.0 : 0;
+    }
+
+    /**
+     * Index of the current playlist item, {@link C#INDEX_UNSET} before the first snapshot.
+     */
+    public int getItemIndex() {
+        return itemIndex;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Position in seconds, advanced by the time elapsed since the snapshot while playing.
+     */
+    public double getPosition() {
+        long position = positionMs;
+        if (playing) {
+            position += (long) ((SystemClock.elapsedRealtime() - anchorRealtimeMs) * speed);
+            if (durationMs != C.TIME_UNSET) {
+                position = Math.min(position, durationMs);
+            }
+        }
+        return position / 1000.0;
+    }
+
+    /**
+     * Listener keeping the latest snapshot of the players it is added to.
+     */
+    public static class Tracker implements Player.Listener {
+
+        private final AtomicReference<PlaybackState> state = new AtomicReference<>(EMPTY);
+
+        public PlaybackState get() {
+            return state.get();
+        }
+
+        public void reset() {
+            state.set(EMPTY);
+        }
+
+        @Override
+        public void onEvents(Player player, Player.Events events) {
+            state.set(capture(player));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ee.forgr.audio;
+
+import android.net.Uri;
+import android.os.Process;
+import android.os.SystemClock;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.cache.CacheWriter;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads remote files into the {@link MediaCache} ahead of playback, without any player.
+ * Queued URLs run by priority on a small background pool, higher first and in order of arrival within a priority.
+ */
+@UnstableApi
+public class Prefetcher {
+
+    private static final String TAG = "Prefetcher";
+    private static final Logger logger = new Logger(TAG);
+    private static final int MAX_CONCURRENT = 2;
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    private final NativeAudio owner;
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+
+    public Prefetcher(NativeAudio owner) {
+        this.owner = owner;
+        this.executor = new ThreadPoolExecutor(
+            MAX_CONCURRENT,
+            MAX_CONCURRENT,
+            30,
+            TimeUnit.SECONDS,
+            new PriorityBlockingQueue<>(),
+            (runnable) -> {
+                Thread thread = new Thread(
+                    () -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    },
+                    "NativeAudioPrefetch"
+                );
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * URLs already queued or downloading are left as they are.
+     */
+    public void prefetch(List<String> urls, int priority) {
+        for (String url : urls) {
+            Task task = new Task(url, priority, sequence.getAndIncrement());
+            if (tasks.putIfAbsent(url, task) == null) {
+                executor.execute(task);
+            }
+        }
+    }
+
+    /**
+     * Cancels the given URLs, or everything when urls is null.
+     */
+    public void cancel(List<String> urls) {
+        List<Task> cancelled = new ArrayList<>();
+        if (urls == null) {
+            cancelled.addAll(tasks.values());
+        } else {
+            for (String url : urls) {
+                Task task = tasks.get(url);
+                if (task != null) {
+                    cancelled.add(task);
+                }
+            }
+        }
+        for (Task task : cancelled) {
+            task.cancel();
+            // Still queued, it will never run
+            if (executor.remove(task)) {
+                task.finish(null);
+            }
+        }
+    }
+
+    private class Task implements Runnable, Comparable<Task> {
+
+        private final String url;
+        private final int priority;
+        private final long order;
+        private volatile CacheWriter writer;
+        private volatile boolean cancelled = false;
+        private long bytesCached = 0;
+        private long length = C.LENGTH_UNSET;
+        private long lastProgressAt = 0;
+
+        Task(String url, int priority, long order) {
+            this.url = url;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            return Long.compare(order, other.order);
+        }
+
+        void cancel() {
+            cancelled = true;
+            CacheWriter current = writer;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                finish(null);
+                return;
+            }
+            String error = null;
+            try {
+                writer = new CacheWriter(
+                    MediaCache.createBackgroundDataSource(owner.getContext()),
+                    new DataSpec(Uri.parse(url)),
+                    null,
+                    this::onProgress
+                );
+                // The writer may have been created after a cancel
+                if (cancelled) {
+                    writer.cancel();
+                }
+                writer.cache();
+                logger.debug("Prefetched " + url + " (" + bytesCached + " bytes)");
+            } catch (InterruptedIOException e) {
+                logger.debug("Prefetch cancelled: " + url);
+            } catch (Exception e) {
+                logger.error("Error prefetching " + url, e);
+                error = e.getMessage() != null ? e.getMessage() : e.toString();
+            }
+            finish(error);
+        }
+
+        private void onProgress(long requestLength, long bytesCached, long newBytesCached) {
+            this.length = requestLength;
+            this.bytesCached = bytesCached;
+            long now = SystemClock.elapsedRealtime();
+            if (now - lastProgressAt >= PROGRESS_INTERVAL_MS) {
+                lastProgressAt = now;
+                owner.notifyPrefetchProgress(url, bytesCached, length, false, false, null);
+            }
+        }
+
+        void finish(String error) {
+            tasks.remove(url, this);
+            boolean done = !cancelled && error == null;
+            owner.notifyPrefetchProgress(url, bytesCached, length, done, cancelled, error);
+        }
+    }
+}
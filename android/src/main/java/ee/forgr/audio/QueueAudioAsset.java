@@ -0,0 +1,277 @@
+package ee.forgr.audio;
+
+import android.net.Uri;
+import android.os.Handler;
+import androidx.media3.common.C;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Playlist of remote tracks played back to back by a single ExoPlayer.
+ * ExoPlayer buffers the next item while the current one plays and removes encoder gaps between items,
+ * and queue edits only change the playlist, the player is never rebuilt.
+ */
+@UnstableApi
+public class QueueAudioAsset extends AudioAsset {
+
+    private static final String TAG = "QueueAudioAsset";
+    private static final Logger logger = new Logger(TAG);
+
+    private final Handler handler = AudioThread.getHandler();
+    private final GainAudioProcessor gain;
+    private final PlaybackState.Tracker state = new PlaybackState.Tracker();
+    private ExoPlayer player;
+    private volatile boolean playing = false;
+
+    public QueueAudioAsset(NativeAudio owner, String assetId, List<Uri> uris, float volume) throws Exception {
+        super(owner, assetId, null, 0, volume);
+        this.gain = new GainAudioProcessor(volume);
+        final List<MediaItem> items = toMediaItems(uris);
+        runOnPlayerThread(() -> {
+            player = new ExoPlayer.Builder(owner.getContext(), GainAudioProcessor.renderersFactory(owner.getContext(), gain))
+                .setLooper(AudioThread.getLooper())
+                .setMediaSourceFactory(new DefaultMediaSourceFactory(MediaCache.getDataSourceFactory(owner.getContext())))
+                .build();
+            player.addListener(state);
+            player.addListener(
+                new Player.Listener() {
+                    @Override
+                    public void onIsPlayingChanged(boolean isPlaying) {
+                        playing = isPlaying;
+                    }
+
+                    @Override
+                    public void onMediaItemTransition(MediaItem mediaItem, int reason) {
+                        if (mediaItem != null && reason != Player.MEDIA_ITEM_TRANSITION_REASON_PLAYLIST_CHANGED) {
+                            owner.notifyQueueItemChanged(assetId, player.getCurrentMediaItemIndex());
+                        }
+                    }
+
+                    @Override
+                    public void onPlaybackStateChanged(int playbackState) {
+                        if (playbackState == Player.STATE_ENDED) {
+                            dispatchComplete();
+                        }
+                    }
+
+                    @Override
+                    public void onPlayerError(PlaybackException error) {
+                        logger.error("Queue playback error: " + error.getMessage());
+                    }
+                }
+            );
+            player.setMediaItems(items);
+            player.prepare();
+        });
+    }
+
+    private static List<MediaItem> toMediaItems(List<Uri> uris) {
+        List<MediaItem> items = new ArrayList<>(uris.size());
+        for (Uri uri : uris) {
+            items.add(MediaItem.fromUri(uri));
+        }
+        return items;
+    }
+
+    private void runOnPlayerThread(Runnable runnable) {
+        if (AudioThread.isCurrentThread()) {
+            runnable.run();
+        } else {
+            handler.post(runnable);
+        }
+    }
+
+    /**
+     * Inserts tracks at the given index, or appends them when index is negative or past the end.
+     */
+    public void addItems(List<Uri> uris, int index) {
+        final List<MediaItem> items = toMediaItems(uris);
+        runOnPlayerThread(() -> {
+            int count = player.getMediaItemCount();
+            player.addMediaItems(index < 0 || index > count ? count : index, items);
+        });
+    }
+
+    public void removeItem(int index) throws Exception {
+        if (index < 0) {
+            throw new Exception("Invalid queue index " + index);
+        }
+        runOnPlayerThread(() -> {
+            if (index < player.getMediaItemCount()) {
+                player.removeMediaItem(index);
+            }
+        });
+    }
+
+    /**
+     * Jumps to the item at index, or to the next item when index is negative.
+     */
+    public void skipTo(int index) {
+        runOnPlayerThread(() -> {
+            if (index < 0) {
+                if (player.hasNextMediaItem()) {
+                    player.seekToNextMediaItem();
+                }
+            } else if (index < player.getMediaItemCount()) {
+                player.seekTo(index, C.TIME_UNSET);
+            }
+        });
+    }
+
+    /**
+     * Read from the latest playback snapshot, so queue edits show once the player has reported them.
+     */
+    public int getCurrentIndex() {
+        return state.get().getItemIndex();
+    }
+
+    public int getItemCount() {
+        return state.get().getItemCount();
+    }
+
+    @Override
+    public void play(double time, float volume) throws Exception {
+        gain.setGain(volume);
+        start(time);
+    }
+
+    private void start(double time) {
+        completeDispatched = false;
+        runOnPlayerThread(() -> {
+            if (player.getPlaybackState() == Player.STATE_ENDED) {
+                player.seekToDefaultPosition(0);
+            }
+            if (time != 0) {
+                player.seekTo(Math.round(time * 1000));
+            }
+            player.play();
+        });
+    }
+
+    @Override
+    public void loop() throws Exception {
+        completeDispatched = false;
+        runOnPlayerThread(() -> {
+            player.setRepeatMode(Player.REPEAT_MODE_ALL);
+            player.play();
+        });
+    }
+
+    @Override
+    public boolean pause() throws Exception {
+        boolean wasPlaying = playing;
+        cancelFade();
+        runOnPlayerThread(() -> player.pause());
+        return wasPlaying;
+    }
+
+    @Override
+    public void resume() throws Exception {
+        runOnPlayerThread(() -> player.play());
+    }
+
+    @Override
+    public void stop() throws Exception {
+        cancelFade();
+        runOnPlayerThread(() -> {
+            player.pause();
+            player.seekToDefaultPosition(0);
+        });
+        dispatchComplete();
+    }
+
+    @Override
+    public void unload() throws Exception {
+        cancelFade();
+        runOnPlayerThread(() -> player.release());
+        close();
+    }
+
+    @Override
+    public void setVolume(float volume, double duration, FadeCurve curve) throws Exception {
+        if (duration > 0 && playing) {
+            gain.rampTo(volume, duration, curve, null);
+        } else {
+            gain.setGain(volume);
+        }
+    }
+
+    @Override
+    public void setGroup(AudioGroup group) {
+        super.setGroup(group);
+        gain.setGroup(group);
+    }
+
+    @Override
+    protected void cancelFade() {
+        gain.cancelRamp();
+    }
+
+    @Override
+    public float getVolume() {
+        return gain.getTargetGain();
+    }
+
+    @Override
+    public void setRate(float rate) throws Exception {
+        runOnPlayerThread(() -> player.setPlaybackSpeed(rate));
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    @Override
+    public double getDuration() {
+        return state.get().getDuration();
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return state.get().getPosition();
+    }
+
+    @Override
+    public void setCurrentTime(double time) throws Exception {
+        runOnPlayerThread(() -> player.seekTo(Math.round(time * 1000)));
+    }
+
+    @Override
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs, FadeCurve curve) throws Exception {
+        gain.ramp(0f, volume, fadeInDurationMs, curve, null);
+        start(time);
+    }
+
+    @Override
+    public void stopWithFade(double fadeOutDurationMs, boolean toPause, FadeCurve curve) throws Exception {
+        if (!playing) {
+            return;
+        }
+        final float restoreVolume = gain.getTargetGain();
+        gain.rampTo(
+            0f,
+            fadeOutDurationMs,
+            curve,
+            () ->
+                handler.post(() -> {
+                    try {
+                        if (toPause) {
+                            pause();
+                        } else {
+                            stop();
+                        }
+                        gain.setGainImmediately(restoreVolume);
+                    } catch (Exception e) {
+                        logger.error("Error finishing fade out", e);
+                    }
+                })
+        );
+    }
+}
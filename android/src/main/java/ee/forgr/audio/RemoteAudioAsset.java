@@ -1,105 +1,93 @@
 package ee.forgr.audio;
 
-import android.content.Context;
 import android.net.Uri;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.Player;
 import androidx.media3.common.util.UnstableApi;
-import androidx.media3.database.StandaloneDatabaseProvider;
-import androidx.media3.datasource.DefaultHttpDataSource;
-import androidx.media3.datasource.cache.CacheDataSource;
-import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
-import androidx.media3.datasource.cache.SimpleCache;
 import androidx.media3.exoplayer.ExoPlayer;
-import androidx.media3.exoplayer.source.MediaSource;
 import androidx.media3.exoplayer.source.ProgressiveMediaSource;
-import java.io.File;
 import java.util.ArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @UnstableApi
 public class RemoteAudioAsset extends AudioAsset implements AutoCloseable {
 
     private static final String TAG = "RemoteAudioAsset";
     private static final Logger logger = new Logger(TAG);
+    // Rough memory of a prepared ExoPlayer: buffered compressed media plus codec and output buffers
+    private static final long PREPARED_EXOPLAYER_BYTES = 1024 * 1024;
     private final ArrayList<ExoPlayer> players;
+    // Changed on the audio thread, read by state queries from any thread
+    private final List<PlayerVoice> voices = new CopyOnWriteArrayList<>();
     private final Uri uri;
+    private final int channels;
+    // Shared by the players of the asset, sources come from the engine wide cache and HTTP stack
+    private final ProgressiveMediaSource.Factory mediaSourceFactory;
     private float volume;
     private boolean isPrepared = false;
-    private static SimpleCache cache;
-    private static final long MAX_CACHE_SIZE = 100 * 1024 * 1024; // 100MB cache
+    // Set once the player reached READY after the time updates started, only used on the audio thread
+    private boolean playerReady = false;
 
     public RemoteAudioAsset(NativeAudio owner, String assetId, Uri uri, int audioChannelNum, float volume) throws Exception {
         super(owner, assetId, null, 0, volume);
         this.uri = uri;
         this.volume = volume;
         this.players = new ArrayList<>();
-        this.fadeExecutor = Executors.newSingleThreadScheduledExecutor();
+        this.mediaSourceFactory = new ProgressiveMediaSource.Factory(MediaCache.getDataSourceFactory(owner.getContext()));
 
         if (audioChannelNum < 1) {
             audioChannelNum = 1;
         }
+        this.channels = audioChannelNum;
 
-        final int channels = audioChannelNum;
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            for (int i = 0; i < channels; i++) {
-                                ExoPlayer player = new ExoPlayer.Builder(owner.getContext()).build();
-                                player.setPlaybackSpeed(1.0f);
-                                players.add(player);
-                                initializePlayer(player);
-                            }
-                        } catch (Exception e) {
-                            logger.error("Error initializing players", e);
-                        }
-                    }
-                }
-            );
+        AudioThread.post(this::createPlayers);
     }
 
-    @UnstableApi
-    private void initializePlayer(ExoPlayer player) {
-        logger.debug("Initializing player");
-
-        // Initialize cache if not already done
-        if (cache == null) {
-            File cacheDir = new File(owner.getContext().getCacheDir(), "media");
-            if (!cacheDir.exists()) {
-                cacheDir.mkdirs();
+    /**
+     * Creates the players with the volume and group last set. Runs on the audio thread the players are bound to.
+     */
+    private void createPlayers() {
+        try {
+            for (int i = 0; i < channels; i++) {
+                GainAudioProcessor gain = new GainAudioProcessor(volume);
+                gain.setGroup(group);
+                ExoPlayer player = new ExoPlayer.Builder(owner.getContext(), GainAudioProcessor.renderersFactory(owner.getContext(), gain))
+                    .setLooper(AudioThread.getLooper())
+                    .build();
+                player.setPlaybackSpeed(1.0f);
+                players.add(player);
+                voices.add(new PlayerVoice(player, gain));
+                initializePlayer(player);
             }
-            cache = new SimpleCache(
-                cacheDir,
-                new LeastRecentlyUsedCacheEvictor(MAX_CACHE_SIZE),
-                new StandaloneDatabaseProvider(owner.getContext())
-            );
+        } catch (Exception e) {
+            logger.error("Error initializing players", e);
         }
+    }
 
-        // Create cached data source factory
-        DefaultHttpDataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory()
-            .setAllowCrossProtocolRedirects(true)
-            .setConnectTimeoutMs(15000)
-            .setReadTimeoutMs(15000);
+    private void releasePlayers() {
+        cancelFade();
+        for (PlayerVoice voice : voices) {
+            VoiceAllocator.forget(voice);
+        }
+        voices.clear();
+        for (ExoPlayer player : players) {
+            player.release();
+        }
+        players.clear();
+        isPrepared = false;
+    }
 
-        CacheDataSource.Factory cacheDataSourceFactory = new CacheDataSource.Factory()
-            .setCache(cache)
-            .setUpstreamDataSourceFactory(httpDataSourceFactory)
-            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+    private void prepareSource(ExoPlayer player) {
+        player.setMediaSource(mediaSourceFactory.createMediaSource(MediaItem.fromUri(uri)));
+        player.prepare();
+    }
 
-        // Create media source
-        MediaSource mediaSource = new ProgressiveMediaSource.Factory(cacheDataSourceFactory).createMediaSource(MediaItem.fromUri(uri));
+    @UnstableApi
+    private void initializePlayer(ExoPlayer player) {
+        logger.debug("Initializing player");
 
-        player.setMediaSource(mediaSource);
-        player.setVolume(volume);
-        player.prepare();
+        prepareSource(player);
 
         // Add listener for duration
         player.addListener(
@@ -134,6 +122,104 @@ public class RemoteAudioAsset extends AudioAsset implements AutoCloseable {
         logger.debug("Player initialization complete");
     }
 
+    /**
+     * Voice view of a player for the {@link VoiceAllocator}, along with the processor applying its volume.
+     * State is mirrored from the player callbacks so it can be read from any thread.
+     */
+    private class PlayerVoice implements VoiceAllocator.Voice, Player.Listener {
+
+        private final ExoPlayer player;
+        private final GainAudioProcessor gain;
+        private final PlaybackState.Tracker state = new PlaybackState.Tracker();
+        private volatile boolean busy = false;
+        private volatile long startedAt = 0;
+
+        PlayerVoice(ExoPlayer player, GainAudioProcessor gain) {
+            this.player = player;
+            this.gain = gain;
+            player.addListener(this);
+            player.addListener(state);
+        }
+
+        void markStarted() {
+            busy = true;
+            startedAt = System.nanoTime();
+        }
+
+        @Override
+        public void onPlaybackStateChanged(int playbackState) {
+            if (playbackState == Player.STATE_ENDED || playbackState == Player.STATE_IDLE) {
+                busy = false;
+            }
+        }
+
+        @Override
+        public boolean isBusy() {
+            return busy;
+        }
+
+        @Override
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        @Override
+        public float getVolume() {
+            return gain.getGain();
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void release() {
+            busy = false;
+            AudioThread.post(() -> {
+                player.pause();
+                player.seekTo(0);
+            });
+        }
+    }
+
+    @Override
+    public void setGroup(AudioGroup group) {
+        super.setGroup(group);
+        // Players are created on the audio thread
+        AudioThread.post(() -> {
+            for (PlayerVoice voice : voices) {
+                voice.gain.setGroup(group);
+            }
+        });
+    }
+
+    private GainAudioProcessor gainOf(ExoPlayer player) {
+        for (PlayerVoice voice : voices) {
+            if (voice.player == player) {
+                return voice.gain;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the player a new trigger plays on and points playIndex at it.
+     */
+    private ExoPlayer nextPlayer() throws Exception {
+        VoiceAllocator.StealPolicy policy = getStealPolicy();
+        PlayerVoice voice = VoiceAllocator.allocate(voices, policy, priority);
+        if (voice == null || !VoiceAllocator.admit(voice, policy, priority)) {
+            throw new Exception("No voice available for " + assetId);
+        }
+        if (voice.isBusy()) {
+            voice.release();
+        }
+        voice.markStarted();
+        playIndex = voices.indexOf(voice);
+        return voice.player;
+    }
+
     private String getStateString(int state) {
         switch (state) {
             case Player.STATE_IDLE:
@@ -151,280 +237,250 @@ public class RemoteAudioAsset extends AudioAsset implements AutoCloseable {
 
     @Override
     public void play(double time, float volume) throws Exception {
+        ensureResident();
         if (players.isEmpty()) {
             throw new Exception("No ExoPlayer available");
         }
 
-        final ExoPlayer player = players.get(playIndex);
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        if (!isPrepared) {
-                            player.addListener(
-                                new Player.Listener() {
-                                    @Override
-                                    public void onPlaybackStateChanged(int playbackState) {
-                                        if (playbackState == Player.STATE_READY) {
-                                            isPrepared = true;
-                                            try {
-                                                playInternal(player, time, volume);
-                                                startCurrentTimeUpdates();
-                                            } catch (Exception e) {
-                                                logger.error("Error playing after prepare", e);
-                                            }
-                                        } else if (playbackState == Player.STATE_ENDED) {
-                                            owner.dispatchComplete(getAssetId());
-                                            notifyCompletion();
+        final ExoPlayer player = nextPlayer();
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    if (!isPrepared) {
+                        player.addListener(
+                            new Player.Listener() {
+                                @Override
+                                public void onPlaybackStateChanged(int playbackState) {
+                                    if (playbackState == Player.STATE_READY) {
+                                        isPrepared = true;
+                                        try {
+                                            playInternal(player, time, volume);
+                                            startCurrentTimeUpdates();
+                                        } catch (Exception e) {
+                                            logger.error("Error playing after prepare", e);
                                         }
+                                    } else if (playbackState == Player.STATE_ENDED) {
+                                        owner.dispatchComplete(getAssetId());
+                                        notifyCompletion();
                                     }
                                 }
-                            );
-                        } else {
-                            try {
-                                playInternal(player, time, volume);
-                                startCurrentTimeUpdates();
-                            } catch (Exception e) {
-                                logger.error("Error playing", e);
                             }
+                        );
+                    } else {
+                        try {
+                            playInternal(player, time, volume);
+                            startCurrentTimeUpdates();
+                        } catch (Exception e) {
+                            logger.error("Error playing", e);
                         }
                     }
                 }
-            );
-
-        playIndex = (playIndex + 1) % players.size();
+            }
+        );
     }
 
     private void playInternal(final ExoPlayer player, final double time, final float volume) throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        if (time != 0) {
-                            player.seekTo(Math.round(time * 1000));
-                        }
-                        if (volume != 0) {
-                            player.setVolume(volume);
-                        }
-                        player.play();
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    if (time != 0) {
+                        player.seekTo(Math.round(time * 1000));
                     }
+                    GainAudioProcessor gain = gainOf(player);
+                    if (volume != 0 && gain != null) {
+                        gain.setGain(volume);
+                    }
+                    player.play();
                 }
-            );
+            }
+        );
     }
 
     @Override
     public boolean pause() throws Exception {
-        final boolean[] wasPlaying = { false };
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        cancelFade();
-                        for (ExoPlayer player : players) {
-                            if (player != null && player.isPlaying()) {
-                                player.pause();
-                                stopCurrentTimeUpdates();
-                                wasPlaying[0] = true;
-                            }
+        // Answered from the snapshots, the pause itself runs later on the audio thread
+        boolean wasPlaying = false;
+        for (PlayerVoice voice : voices) {
+            wasPlaying |= voice.state.get().isPlaying();
+        }
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    cancelFade();
+                    for (ExoPlayer player : players) {
+                        if (player != null && player.isPlaying()) {
+                            player.pause();
+                            stopCurrentTimeUpdates();
                         }
                     }
                 }
-            );
-        return wasPlaying[0];
+            }
+        );
+        return wasPlaying;
     }
 
     @Override
     public void resume() throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        for (ExoPlayer player : players) {
-                            if (player != null && !player.isPlaying()) {
-                                player.play();
-                            }
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    for (ExoPlayer player : players) {
+                        if (player != null && !player.isPlaying()) {
+                            player.play();
                         }
-                        startCurrentTimeUpdates();
                     }
+                    startCurrentTimeUpdates();
                 }
-            );
+            }
+        );
     }
 
     @Override
     public void stop() throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        cancelFade();
-                        for (ExoPlayer player : players) {
-                            if (player != null && player.isPlaying()) {
-                                player.stop();
-                                dispatchComplete();
-                            }
-                            // Reset the ExoPlayer to make it ready for future playback
-                            initializePlayer(player);
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    cancelFade();
+                    for (ExoPlayer player : players) {
+                        if (player != null && player.isPlaying()) {
+                            player.stop();
+                            dispatchComplete();
                         }
-                        isPrepared = false;
+                        // Reset the ExoPlayer to make it ready for future playback
+                        prepareSource(player);
                     }
+                    isPrepared = false;
                 }
-            );
+            }
+        );
     }
 
     @Override
     public void loop() throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        if (!players.isEmpty()) {
-                            ExoPlayer player = players.get(playIndex);
+        ensureResident();
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    if (!players.isEmpty()) {
+                        try {
+                            ExoPlayer player = nextPlayer();
                             player.setRepeatMode(Player.REPEAT_MODE_ONE);
                             player.play();
-                            playIndex = (playIndex + 1) % players.size();
                             startCurrentTimeUpdates();
+                        } catch (Exception e) {
+                            logger.error("Error looping", e);
                         }
                     }
                 }
-            );
+            }
+        );
     }
 
     @Override
     public void unload() throws Exception {
-        cancelFade();
-        for (ExoPlayer player : players) {
-            player.release();
-        }
-        players.clear();
-        close(); // Ensure fadeExecutor is shutdown
+        // Players are bound to the audio thread
+        AudioThread.post(() -> {
+            releasePlayers();
+            close(); // Cancel any running fade
+        });
     }
 
     @Override
-    public void close() {
-        if (fadeExecutor != null && !fadeExecutor.isShutdown()) {
-            fadeExecutor.shutdown();
-        }
+    public long getResidentBytes() {
+        return channels * PREPARED_EXOPLAYER_BYTES;
     }
 
     @Override
-    protected void finalize() throws Throwable {
-        try {
-            close();
-        } finally {
-            super.finalize();
+    protected boolean isIdle() {
+        for (PlayerVoice voice : voices) {
+            if (voice.isBusy() || voice.state.get().isPlaying()) return false;
         }
+        return true;
+    }
+
+    /**
+     * Releases the players, the cached media stays on disk so the rebuilt players prepare from it.
+     */
+    @Override
+    protected void releaseResources() throws Exception {
+        super.releaseResources();
+        AudioThread.run(this::releasePlayers);
+    }
+
+    /**
+     * Recreates the players. Plays of this engine run on the audio thread, so they are ready when the play continues.
+     */
+    @Override
+    protected void rebuildResources() throws Exception {
+        AudioThread.run(this::createPlayers);
     }
 
     @Override
-    public void setVolume(final float volume, final double duration) throws Exception {
+    public void setVolume(final float volume, final double duration, FadeCurve curve) throws Exception {
         this.volume = volume;
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        cancelFade();
-                        for (ExoPlayer player : players) {
-                            if (player == null) continue;
-                            if (player.isPlaying() && duration > 0) {
-                                fadeTo(player, (float) duration, volume);
-                            } else {
-                                player.setVolume(volume);
-                            }
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    for (PlayerVoice voice : voices) {
+                        if (voice.player.isPlaying() && duration > 0) {
+                            logger.debug("Fading to volume " + volume + " over " + (duration / 1000.0) + "s");
+                            voice.gain.rampTo(volume, duration, curve, null);
+                        } else {
+                            voice.gain.setGain(volume);
                         }
                     }
                 }
-            );
+            }
+        );
     }
 
     @Override
     public float getVolume() throws Exception {
-        if (players.isEmpty()) {
+        if (voices.isEmpty()) {
             throw new Exception("No ExoPlayer available");
         }
 
-        final ExoPlayer player = players.get(playIndex);
-        return player != null ? player.getVolume() : 0;
+        return voices.get(playIndex).gain.getTargetGain();
     }
 
     @Override
     public boolean isPlaying() throws Exception {
-        if (players.isEmpty() || !isPrepared) return false;
+        return currentState().isPlaying();
+    }
 
-        ExoPlayer player = players.get(playIndex);
-        return player != null && player.isPlaying();
+    /**
+     * Snapshot of the player playIndex points at, readable from any thread.
+     */
+    private PlaybackState currentState() {
+        int index = playIndex;
+        try {
+            return index >= 0 && index < voices.size() ? voices.get(index).state.get() : PlaybackState.EMPTY;
+        } catch (IndexOutOfBoundsException e) {
+            // Voices are being released on the audio thread
+            return PlaybackState.EMPTY;
+        }
     }
 
     @Override
     public double getDuration() {
-        logger.debug("getDuration called, players empty: " + players.isEmpty() + ", isPrepared: " + isPrepared);
-        if (!players.isEmpty() && isPrepared) {
-            final double[] duration = { 0 };
-            owner
-                .getActivity()
-                .runOnUiThread(
-                    new Runnable() {
-                        @Override
-                        public void run() {
-                            ExoPlayer player = players.get(playIndex);
-                            int state = player.getPlaybackState();
-                            logger.debug("Player state: " + state + " (READY=" + Player.STATE_READY + ")");
-                            if (state == Player.STATE_READY) {
-                                long rawDuration = player.getDuration();
-                                logger.debug("Raw duration: " + rawDuration + ", TIME_UNSET=" + androidx.media3.common.C.TIME_UNSET);
-                                if (rawDuration != androidx.media3.common.C.TIME_UNSET) {
-                                    duration[0] = rawDuration / 1000.0;
-                                    logger.debug("Final duration in seconds: " + duration[0]);
-                                } else {
-                                    logger.debug("Duration is TIME_UNSET");
-                                }
-                            } else {
-                                logger.debug("Player not in READY state");
-                            }
-                        }
-                    }
-                );
-            return duration[0];
+        if (isEvicted()) {
+            return super.getDuration();
         }
-        logger.debug("No players or not prepared for duration");
-        return 0;
+        PlaybackState state = currentState();
+        return state.isReady() ? state.getDuration() : 0;
     }
 
     @Override
     public double getCurrentPosition() {
-        if (!players.isEmpty() && isPrepared) {
-            final double[] position = { 0 };
-            owner
-                .getActivity()
-                .runOnUiThread(
-                    new Runnable() {
-                        @Override
-                        public void run() {
-                            ExoPlayer player = players.get(playIndex);
-                            if (player.getPlaybackState() == Player.STATE_READY) {
-                                long rawPosition = player.getCurrentPosition();
-                                logger.debug("Raw position: " + rawPosition);
-                                position[0] = rawPosition / 1000.0;
-                            }
-                        }
-                    }
-                );
-            return position[0];
-        }
-        return 0;
+        PlaybackState state = currentState();
+        return state.isReady() ? state.getPosition() : 0;
     }
 
     @Override
@@ -434,395 +490,132 @@ public class RemoteAudioAsset extends AudioAsset implements AutoCloseable {
         }
 
         final ExoPlayer player = players.get(playIndex);
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        if (isPrepared) {
-                            player.seekTo(Math.round(time * 1000));
-                        } else {
-                            player.addListener(
-                                new Player.Listener() {
-                                    @Override
-                                    public void onPlaybackStateChanged(int playbackState) {
-                                        if (playbackState == Player.STATE_READY) {
-                                            isPrepared = true;
-                                            player.seekTo(Math.round(time * 1000));
-                                        }
+        AudioThread.post(
+            new Runnable() {
+                @Override
+                public void run() {
+                    if (isPrepared) {
+                        player.seekTo(Math.round(time * 1000));
+                    } else {
+                        player.addListener(
+                            new Player.Listener() {
+                                @Override
+                                public void onPlaybackStateChanged(int playbackState) {
+                                    if (playbackState == Player.STATE_READY) {
+                                        isPrepared = true;
+                                        player.seekTo(Math.round(time * 1000));
                                     }
                                 }
-                            );
-                        }
-                    }
-                }
-            );
-    }
-
-    @UnstableApi
-    public static void clearCache(Context context) {
-        try {
-            if (cache != null) {
-                cache.release();
-                cache = null;
-            }
-            File cacheDir = new File(context.getCacheDir(), "media");
-            if (cacheDir.exists()) {
-                deleteDir(cacheDir);
-            }
-        } catch (Exception e) {
-            logger.error("Error clearing audio cache", e);
-        }
-    }
-
-    private static boolean deleteDir(File dir) {
-        if (dir.isDirectory()) {
-            String[] children = dir.list();
-            if (children != null) {
-                for (String child : children) {
-                    boolean success = deleteDir(new File(dir, child));
-                    if (!success) {
-                        return false;
+                            }
+                        );
                     }
                 }
             }
-        }
-        return dir.delete();
+        );
     }
 
-    public void playWithFadeIn(double time, float volume, float fadeInDurationMs) throws Exception {
+    @Override
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs, FadeCurve curve) throws Exception {
+        ensureResident();
         if (players.isEmpty()) {
             throw new Exception("No ExoPlayer available");
         }
 
-        final ExoPlayer player = players.get(playIndex);
-        owner
-            .getActivity()
-            .runOnUiThread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        if (player != null && !player.isPlaying()) {
-                            if (time != 0) {
-                                player.seekTo(Math.round(time * 1000));
-                            }
-                            player.setVolume(0);
-                            player.play();
-                            startCurrentTimeUpdates();
-                            fadeIn(player, fadeInDurationMs, volume);
-                        }
-                    }
-                }
-            );
-    }
-
-    private void fadeIn(final ExoPlayer player, float fadeInDurationMs, float volume) {
-        cancelFade();
-        fadeState = FadeState.FADE_IN;
-
-        final float targetVolume = volume;
-        final int steps = Math.max(1, (int) (fadeInDurationMs / FADE_DELAY_MS));
-        final float fadeStep = targetVolume / steps;
-
-        Log.d(
-            TAG,
-            "Beginning fade in at time " +
-            getCurrentPosition() +
-            " over " +
-            (fadeInDurationMs / 1000.0) +
-            "s to target volume " +
-            targetVolume +
-            " in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s"
-        );
-
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
+        final ExoPlayer player = nextPlayer();
+        AudioThread.post(
             new Runnable() {
-                float currentVolume = 0;
-
                 @Override
                 public void run() {
-                    if (fadeState != FadeState.FADE_IN || currentVolume >= targetVolume) {
-                        fadeState = FadeState.NONE;
-                        cancelFade();
-                        logger.debug("Fade in complete at time " + getCurrentPosition());
-                        return;
+                    GainAudioProcessor gain = gainOf(player);
+                    if (player != null && gain != null && !player.isPlaying()) {
+                        if (time != 0) {
+                            player.seekTo(Math.round(time * 1000));
+                        }
+                        logger.debug("Fading in to volume " + volume + " over " + (fadeInDurationMs / 1000.0) + "s");
+                        gain.ramp(0f, volume, fadeInDurationMs, curve, null);
+                        player.play();
+                        startCurrentTimeUpdates();
                     }
-                    final float previousCurrentVolume = currentVolume;
-                    currentVolume += fadeStep;
-                    final float resolvedTargetVolume = Math.min(currentVolume, targetVolume);
-                    Log.v(
-                        TAG,
-                        "Fade in step: from " + previousCurrentVolume + " to " + currentVolume + " to target " + resolvedTargetVolume
-                    );
-                    owner
-                        .getActivity()
-                        .runOnUiThread(() -> {
-                            if (player != null && player.isPlaying()) {
-                                player.setVolume(currentVolume);
-                            }
-                        });
                 }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
+            }
         );
     }
 
-    public void stopWithFade(float fadeOutDurationMs, boolean asPause) throws Exception {
-        if (players.isEmpty()) {
+    @Override
+    public void stopWithFade(double fadeOutDurationMs, boolean asPause, FadeCurve curve) throws Exception {
+        if (voices.isEmpty()) {
             return;
         }
 
-        final ExoPlayer player = players.get(playIndex);
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                if (player != null && player.isPlaying()) {
-                    fadeOut(player, fadeOutDurationMs, asPause);
-                }
-            });
-    }
-
-    private void fadeOut(final ExoPlayer player, float fadeOutDurationMs, boolean asPause) {
-        cancelFade();
-        fadeState = FadeState.FADE_OUT;
-
-        final int steps = Math.max(1, (int) (fadeOutDurationMs / FADE_DELAY_MS));
-        final float initialVolume = player.getVolume();
-        final float fadeStep = initialVolume / steps;
-
-        Log.d(
-            TAG,
-            "Beginning fade out from volume " +
-            initialVolume +
-            " at time " +
-            getCurrentPosition() +
-            " over " +
-            (fadeOutDurationMs / 1000.0) +
-            "s in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s)"
-        );
-
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
-            new Runnable() {
-                float currentVolume = initialVolume;
-
-                @Override
-                public void run() {
-                    if (fadeState != FadeState.FADE_OUT || currentVolume <= 0) {
-                        fadeState = FadeState.NONE;
-                        owner
-                            .getActivity()
-                            .runOnUiThread(() -> {
-                                if (player != null && player.isPlaying()) {
-                                    if (asPause) {
-                                        player.pause();
-                                        logger.verbose("Faded out to pause at time " + getCurrentPosition());
-                                    } else {
-                                        player.setVolume(0);
-                                        player.stop();
-                                        logger.verbose("Faded out to stop at time " + getCurrentPosition());
-                                    }
-                                }
-                            });
-                        cancelFade();
-                        logger.verbose("Fade out complete at time " + getCurrentPosition());
-                        return;
-                    }
-                    final float previousCurrentVolume = currentVolume;
-                    currentVolume -= fadeStep;
-                    final float thisTargetVolume = Math.max(currentVolume, 0);
-                    logger.debug(
-                        "Fade out step: from " + previousCurrentVolume + " to " + currentVolume + " to target " + thisTargetVolume
-                    );
-                    owner
-                        .getActivity()
-                        .runOnUiThread(() -> {
-                            if (player != null && player.isPlaying()) {
-                                player.setVolume(thisTargetVolume);
-                            }
-                        });
-                }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
-        );
-    }
-
-    private void fadeTo(final ExoPlayer player, float fadeDurationMs, float targetVolume) {
-        cancelFade();
-        fadeState = FadeState.FADE_TO;
-
-        final int steps = Math.max(1, (int) (fadeDurationMs / FADE_DELAY_MS));
-        final float minVolume = zeroVolume;
-        final float maxVol = maxVolume;
-        final float initialVolume = Math.max(player.getVolume(), minVolume);
-        final float finalTargetVolume = Math.max(targetVolume, minVolume);
-
-        // Clamp values to avoid overflow/underflow and invalid pow inputs
-        final float safeInitialVolume = Math.max(initialVolume, minVolume);
-        final float safeFinalTargetVolume = Math.max(finalTargetVolume, minVolume);
-
-        double ratio;
-        if (steps <= 0 || safeInitialVolume <= 0f || safeFinalTargetVolume <= 0f) {
-            ratio = 1.0;
-        } else if (safeInitialVolume == safeFinalTargetVolume) {
-            ratio = 1.0;
-        } else {
-            ratio = Math.pow(safeFinalTargetVolume / safeInitialVolume, 1.0 / steps);
-            if (Double.isNaN(ratio) || Double.isInfinite(ratio) || ratio <= 0.0) {
-                ratio = 1.0;
+        final PlayerVoice voice = voices.get(playIndex);
+        AudioThread.post(() -> {
+            if (voice.player.isPlaying()) {
+                fadeOut(voice, fadeOutDurationMs, asPause, curve);
             }
-        }
-
-        Log.d(
-            TAG,
-            "Beginning exponential fade from volume " +
-            initialVolume +
-            " to " +
-            finalTargetVolume +
-            " over " +
-            (fadeDurationMs / 1000.0) +
-            "s in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s, ratio: " +
-            ratio +
-            ")"
-        );
-
-        double finalRatio = ratio;
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
-            new Runnable() {
-                int currentStep = 0;
-                float currentVolume = initialVolume;
+        });
+    }
 
-                @Override
-                public void run() {
-                    if (fadeState != FadeState.FADE_TO || player == null || !player.isPlaying() || currentStep >= steps) {
-                        fadeState = FadeState.NONE;
-                        cancelFade();
-                        logger.debug("Fade to complete at time " + getCurrentPosition());
-                        return;
-                    }
-                    try {
-                        if (finalRatio == 1.0) {
-                            currentVolume = safeFinalTargetVolume;
+    private void fadeOut(final PlayerVoice voice, double fadeOutDurationMs, boolean asPause, FadeCurve curve) {
+        logger.debug("Fading out over " + (fadeOutDurationMs / 1000.0) + "s at time " + getCurrentPosition());
+        voice.gain.rampTo(
+            0f,
+            fadeOutDurationMs,
+            curve,
+            () ->
+                AudioThread.post(() -> {
+                    if (voice.player.isPlaying()) {
+                        if (asPause) {
+                            voice.player.pause();
+                            logger.verbose("Faded out to pause at time " + getCurrentPosition());
                         } else {
-                            currentVolume *= (float) finalRatio;
+                            voice.player.stop();
+                            logger.verbose("Faded out to stop at time " + getCurrentPosition());
                         }
-                        // Clamp volume between minVolume and maxVolume
-                        currentVolume = Math.min(Math.max(currentVolume, minVolume), maxVol);
-                        logger.verbose("Fade to step " + currentStep + ": volume set to " + currentVolume);
-                        owner
-                            .getActivity()
-                            .runOnUiThread(() -> {
-                                if (player != null && player.isPlaying()) {
-                                    player.setVolume(currentVolume);
-                                }
-                            });
-                        currentStep++;
-                    } catch (Exception e) {
-                        logger.error("Error during fade to", e);
-                        cancelFade();
                     }
-                }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
+                })
         );
     }
 
-    private void cancelFade() {
-        if (fadeTask != null && !fadeTask.isCancelled()) {
-            fadeTask.cancel(true);
+    @Override
+    protected void cancelFade() {
+        for (PlayerVoice voice : voices) {
+            voice.gain.cancelRamp();
         }
-        fadeState = FadeState.NONE;
-        fadeTask = null;
     }
 
     @Override
     protected void startCurrentTimeUpdates() {
-        logger.debug("Starting timer updates");
-        if (currentTimeHandler == null) {
-            currentTimeHandler = new Handler(Looper.getMainLooper());
-        }
-        // Reset completion status for this assetId
-        dispatchedCompleteMap.put(assetId, false);
-
         // Wait for player to be truly ready
-        currentTimeHandler.postDelayed(
-            new Runnable() {
-                @Override
-                public void run() {
-                    if (!players.isEmpty() && playIndex >= 0 && playIndex < players.size()) {
-                        ExoPlayer player = players.get(playIndex);
-                        if (player != null && player.getPlaybackState() == Player.STATE_READY) {
-                            startTimeUpdateLoop();
-                        } else {
-                            // Check again in 100ms
-                            currentTimeHandler.postDelayed(this, 100);
-                        }
-                    }
-                }
-            },
-            100
-        );
+        playerReady = false;
+        super.startCurrentTimeUpdates();
     }
 
-    private void startTimeUpdateLoop() {
-        currentTimeRunnable = new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    boolean isPaused = false;
-                    if (!players.isEmpty() && playIndex >= 0 && playIndex < players.size()) {
-                        ExoPlayer player = players.get(playIndex);
-                        if (player != null && player.getPlaybackState() == Player.STATE_READY) {
-                            if (player.isPlaying()) {
-                                double currentTime = player.getCurrentPosition() / 1000.0; // Get time directly
-                                logger.debug("Play timer update: currentTime = " + currentTime);
-                                if (owner != null) owner.notifyCurrentTime(assetId, currentTime);
-                                currentTimeHandler.postDelayed(this, 100);
-                                return;
-                            } else if (!player.getPlayWhenReady()) {
-                                isPaused = true;
-                            }
-                        }
-                    }
-                    logger.debug("Stopping play timer - not playing or not ready");
-                    stopCurrentTimeUpdates();
-                    if (isPaused) {
-                        logger.verbose("Playback is paused, not dispatching complete");
-                    } else {
-                        logger.verbose("Playback is stopped, dispatching complete");
-                        dispatchComplete();
-                    }
-                } catch (Exception e) {
-                    logger.error("Error getting current time", e);
-                    stopCurrentTimeUpdates();
+    @Override
+    protected double pollCurrentTime() {
+        boolean isPaused = false;
+        if (!players.isEmpty() && playIndex >= 0 && playIndex < players.size()) {
+            ExoPlayer player = players.get(playIndex);
+            if (player != null && player.getPlaybackState() == Player.STATE_READY) {
+                playerReady = true;
+                if (player.isPlaying()) {
+                    double currentTime = player.getCurrentPosition() / 1000.0; // Get time directly
+                    logger.debug("Play timer update: currentTime = " + currentTime);
+                    return currentTime;
+                } else if (!player.getPlayWhenReady()) {
+                    isPaused = true;
                 }
+            } else if (!playerReady) {
+                // Check again on the next tick
+                return TIME_UNAVAILABLE;
             }
-        };
-        try {
-            if (currentTimeHandler == null) {
-                currentTimeHandler = new Handler(Looper.getMainLooper());
-            }
-            currentTimeHandler.post(currentTimeRunnable);
-        } catch (Exception e) {
-            logger.error("Error starting current time updates", e);
         }
+        logger.debug("Stopping play timer - not playing or not ready");
+        if (isPaused) {
+            logger.verbose("Playback is paused, not dispatching complete");
+        } else {
+            logger.verbose("Playback is stopped, dispatching complete");
+            dispatchComplete();
+        }
+        return TIME_STOPPED;
     }
 }
@@ -0,0 +1,155 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Plays patterns of mixer assets from the mixer render thread.
+ * Each render pass schedules the events falling in the buffer being rendered on their exact frame,
+ * so once a pattern is sent nothing goes through the bridge or the UI thread.
+ * Control methods only publish requests, the pattern state itself is only touched by the render thread.
+ */
+@UnstableApi
+public class Sequencer {
+
+    private static final String TAG = "Sequencer";
+    private static final Logger logger = new Logger(TAG);
+
+    /**
+     * What an event starts, a {@link MixerAudioAsset} in the plugin.
+     */
+    interface Target {
+        /**
+         * Called from the render thread with the mixer lock held.
+         */
+        void trigger(long startFrame, float gain, float rate);
+    }
+
+    public static final class Event {
+
+        final Target asset;
+        final long offset;
+        final float volume;
+        final float rate;
+
+        /**
+         * @param offset frames from the start of the pattern
+         */
+        public Event(Target asset, long offset, float volume, float rate) {
+            this.asset = asset;
+            this.offset = offset;
+            this.volume = volume;
+            this.rate = rate;
+        }
+    }
+
+    public static final class Pattern {
+
+        final Event[] events;
+        final long length;
+        final boolean loop;
+
+        /**
+         * @param length length of the pattern in frames, the next loop iteration starts after it
+         */
+        public Pattern(Event[] events, long length, boolean loop) {
+            this.events = events.clone();
+            Arrays.sort(this.events, Comparator.comparingLong((Event event) -> event.offset));
+            this.length = length;
+            this.loop = loop;
+        }
+    }
+
+    private final AtomicReference<Pattern> pendingPattern = new AtomicReference<>();
+    private volatile long requestedStart = -1;
+    private volatile boolean stopRequested = false;
+    private volatile boolean playing = false;
+
+    // Render thread state
+    private Pattern pattern;
+    private boolean active = false;
+    private long patternStart;
+    private int nextEvent;
+
+    /**
+     * Queues a pattern. A playing sequencer swaps to it at the end of the current pattern iteration,
+     * a stopped one uses it on the next start.
+     */
+    public void setPattern(Pattern pattern) {
+        pendingPattern.set(pattern);
+    }
+
+    /**
+     * Starts the sequencer on the given output frame.
+     */
+    public void start(long frame) {
+        stopRequested = false;
+        requestedStart = Math.max(0, frame);
+        playing = true;
+    }
+
+    public void stop() {
+        requestedStart = -1;
+        stopRequested = true;
+        playing = false;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Called by the mixer render thread, with the mixer lock held, before the voices are mixed.
+     */
+    void process(long bufferStart, int frames) {
+        if (stopRequested) {
+            stopRequested = false;
+            active = false;
+        }
+        long start = requestedStart;
+        if (start >= 0) {
+            requestedStart = -1;
+            Pattern next = pendingPattern.getAndSet(null);
+            if (next != null) {
+                pattern = next;
+            }
+            patternStart = start;
+            nextEvent = 0;
+            active = pattern != null;
+        }
+        if (!active) {
+            return;
+        }
+        final long bufferEnd = bufferStart + frames;
+        while (true) {
+            Event[] events = pattern.events;
+            while (nextEvent < events.length) {
+                Event event = events[nextEvent];
+                long frame = patternStart + event.offset;
+                if (frame >= bufferEnd) {
+                    return;
+                }
+                event.asset.trigger(frame, event.volume, event.rate);
+                nextEvent++;
+            }
+            long end = patternStart + pattern.length;
+            if (end >= bufferEnd) {
+                return;
+            }
+            // Pattern boundary: swap to the queued pattern, or loop, or stop
+            Pattern next = pendingPattern.getAndSet(null);
+            if (next != null) {
+                pattern = next;
+            } else if (!pattern.loop) {
+                logger.debug("Pattern ended");
+                active = false;
+                playing = false;
+                return;
+            }
+            patternStart = Math.max(end, patternStart + 1);
+            nextEvent = 0;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package ee.forgr.audio;
+
+import android.content.res.AssetFileDescriptor;
+import android.media.MediaMetadataRetriever;
+import android.media.SoundPool;
+import android.os.Handler;
+import android.os.SystemClock;
+import androidx.media3.common.util.UnstableApi;
+import java.util.ArrayList;
+
+/**
+ * Short sound effect backed by the shared {@link SoundPool}.
+ * The sample is decoded once by SoundPool at load time, so a trigger is a single
+ * {@code SoundPool.play()} without any prepare or seek round-trip.
+ * SoundPool does not report the end of a stream, so completion is derived from the clip duration and rate.
+ */
+@UnstableApi
+public class SoundPoolAsset extends AudioAsset {
+
+    private static final String TAG = "SoundPoolAsset";
+    private static final Logger logger = new Logger(TAG);
+
+    // Live streams of every asset in start order, mirroring the streams SoundPool steals once maxStreams are busy
+    private static final ArrayList<Stream> poolStreams = new ArrayList<>();
+    private static volatile int maxStreams = 1;
+
+    private final SoundPool soundPool;
+    private final int sampleId;
+    private final int priority;
+    private final long durationMs;
+    private final Handler handler = AudioThread.getHandler();
+    // Changed on the audio thread, read by position and state queries from other threads
+    private final ArrayList<Stream> streams = new ArrayList<>();
+
+    private volatile boolean loaded = false;
+    private volatile String loadError;
+    private Runnable pendingPlay;
+    private float volume;
+    private float rate = 1.0f;
+
+    private static class Stream {
+
+        final SoundPoolAsset asset;
+        final int streamId;
+        final boolean looping;
+        long startedAt;
+        long playedMs;
+        boolean paused;
+        Runnable endRunnable;
+
+        Stream(SoundPoolAsset asset, int streamId, boolean looping) {
+            this.asset = asset;
+            this.streamId = streamId;
+            this.looping = looping;
+            this.startedAt = SystemClock.uptimeMillis();
+        }
+    }
+
+    SoundPoolAsset(NativeAudio owner, String assetId, SoundPool soundPool, AssetFileDescriptor assetFileDescriptor, float volume, int priority)
+        throws Exception {
+        super(owner, assetId, null, 0, volume);
+        this.soundPool = soundPool;
+        this.volume = volume;
+        this.priority = priority;
+        this.durationMs = readDurationMs(assetFileDescriptor);
+        this.sampleId = owner.loadSoundPoolSample(this, assetFileDescriptor, priority);
+        if (sampleId == 0) {
+            throw new Exception("SoundPool could not load asset " + assetId);
+        }
+    }
+
+    int getSampleId() {
+        return sampleId;
+    }
+
+    /**
+     * Stream count the shared SoundPool was built with.
+     */
+    static void setMaxStreams(int maxStreams) {
+        SoundPoolAsset.maxStreams = maxStreams;
+    }
+
+    void onLoadComplete(int status) {
+        if (status != 0) {
+            loadError = "SoundPool could not load asset " + assetId + " (status " + status + ")";
+            logger.error(loadError);
+            handler.post(() -> {
+                if (pendingPlay != null) {
+                    pendingPlay = null;
+                    logger.error("Dropping the play waiting for " + assetId);
+                }
+            });
+            return;
+        }
+        logger.debug("SoundPool sample loaded: " + assetId);
+        handler.post(() -> {
+            loaded = true;
+            if (pendingPlay != null) {
+                Runnable runnable = pendingPlay;
+                pendingPlay = null;
+                runnable.run();
+            }
+        });
+    }
+
+    private static long readDurationMs(AssetFileDescriptor afd) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            return duration != null ? Long.parseLong(duration) : 0;
+        } catch (Exception e) {
+            logger.warning("Could not read duration: " + e.getMessage());
+            return 0;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Throws once SoundPool reported that the sample could not be loaded, so plays are rejected instead of waiting forever.
+     */
+    private void runWhenLoaded(Runnable runnable) throws Exception {
+        if (loadError != null) {
+            throw new Exception(loadError);
+        }
+        handler.post(() -> {
+            if (loaded) {
+                runnable.run();
+            } else if (loadError != null) {
+                logger.error("Dropping play of " + assetId + ": " + loadError);
+            } else {
+                // Only the latest trigger is kept while the sample is still loading
+                pendingPlay = runnable;
+            }
+        });
+    }
+
+    private Stream startStream(float streamVolume, boolean looping) {
+        float groupGain = getGroupGain();
+        int streamId = soundPool.play(sampleId, streamVolume * groupGain, streamVolume * groupGain, priority, looping ? -1 : 0, rate);
+        if (streamId == 0) {
+            logger.warning("No free SoundPool stream for " + assetId);
+            return null;
+        }
+        Stream stream = new Stream(this, streamId, looping);
+        if (!looping && durationMs <= 0) {
+            // Without a duration the end of the stream cannot be known, so it is not tracked at all
+            logger.debug("Unknown duration for " + assetId + ", not tracking stream " + streamId);
+            return stream;
+        }
+        synchronized (streams) {
+            streams.add(stream);
+            completeDispatched = false;
+            scheduleEnd(stream);
+        }
+        trackPoolStream(stream);
+        return stream;
+    }
+
+    /**
+     * Drops the streams SoundPool stole to start this one: the lowest priority, oldest first.
+     */
+    private static void trackPoolStream(Stream stream) {
+        ArrayList<Stream> stolen = new ArrayList<>();
+        synchronized (poolStreams) {
+            poolStreams.add(stream);
+            while (poolStreams.size() > maxStreams) {
+                Stream victim = null;
+                for (Stream candidate : poolStreams) {
+                    if (candidate != stream && (victim == null || candidate.asset.priority < victim.asset.priority)) {
+                        victim = candidate;
+                    }
+                }
+                poolStreams.remove(victim);
+                stolen.add(victim);
+            }
+        }
+        // Asset locks are never taken while holding the pool lock
+        for (Stream victim : stolen) {
+            victim.asset.dropStream(victim);
+        }
+    }
+
+    private static void untrackPoolStream(Stream stream) {
+        synchronized (poolStreams) {
+            poolStreams.remove(stream);
+        }
+    }
+
+    private void dropStream(Stream stream) {
+        synchronized (streams) {
+            if (streams.remove(stream) && stream.endRunnable != null) {
+                handler.removeCallbacks(stream.endRunnable);
+            }
+        }
+        logger.debug("SoundPool stole stream " + stream.streamId + " of " + assetId);
+    }
+
+    private void scheduleEnd(Stream stream) {
+        if (stream.looping || durationMs <= 0) {
+            return;
+        }
+        long remaining = (long) Math.max(0, (durationMs - stream.playedMs) / rate);
+        stream.endRunnable = () -> onStreamEnded(stream);
+        handler.postDelayed(stream.endRunnable, remaining);
+    }
+
+    private void onStreamEnded(Stream stream) {
+        boolean ended;
+        synchronized (streams) {
+            ended = streams.remove(stream) && streams.isEmpty();
+        }
+        untrackPoolStream(stream);
+        if (ended) {
+            dispatchComplete();
+        }
+    }
+
+    /**
+     * Returns whether any stream was stopped.
+     */
+    private boolean clearStreams() {
+        synchronized (streams) {
+            boolean hadStreams = !streams.isEmpty();
+            for (Stream stream : streams) {
+                if (stream.endRunnable != null) {
+                    handler.removeCallbacks(stream.endRunnable);
+                }
+                soundPool.stop(stream.streamId);
+                untrackPoolStream(stream);
+            }
+            streams.clear();
+            return hadStreams;
+        }
+    }
+
+    @Override
+    public void play(double time, float volume) throws Exception {
+        if (time != 0) {
+            logger.warning("SoundPool cannot start at an offset, ignoring time " + time);
+        }
+        this.volume = volume;
+        runWhenLoaded(() -> {
+            cancelFade();
+            startStream(volume, false);
+        });
+    }
+
+    @Override
+    public void loop() throws Exception {
+        runWhenLoaded(() -> {
+            cancelFade();
+            startStream(volume, true);
+        });
+    }
+
+    @Override
+    public boolean pause() throws Exception {
+        boolean wasPlaying = false;
+        cancelFade();
+        synchronized (streams) {
+            for (Stream stream : streams) {
+                if (!stream.paused) {
+                    soundPool.pause(stream.streamId);
+                    if (stream.endRunnable != null) {
+                        handler.removeCallbacks(stream.endRunnable);
+                    }
+                    stream.playedMs += (long) ((SystemClock.uptimeMillis() - stream.startedAt) * rate);
+                    stream.paused = true;
+                    wasPlaying = true;
+                }
+            }
+        }
+        return wasPlaying;
+    }
+
+    @Override
+    public void resume() throws Exception {
+        synchronized (streams) {
+            for (Stream stream : streams) {
+                if (stream.paused) {
+                    soundPool.resume(stream.streamId);
+                    stream.paused = false;
+                    stream.startedAt = SystemClock.uptimeMillis();
+                    scheduleEnd(stream);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        cancelFade();
+        pendingPlay = null;
+        if (clearStreams()) {
+            dispatchComplete();
+        }
+    }
+
+    @Override
+    public void unload() throws Exception {
+        stop();
+        soundPool.unload(sampleId);
+        owner.onSoundPoolAssetUnloaded(this);
+        close();
+    }
+
+    @Override
+    public void setVolume(float volume, double duration, FadeCurve curve) throws Exception {
+        cancelFade();
+        if (duration > 0 && isPlaying()) {
+            rampVolume(this.volume, volume, duration, curve, null);
+        } else {
+            applyVolume(volume);
+        }
+    }
+
+    private void applyVolume(float volume) {
+        this.volume = volume;
+        float groupGain = getGroupGain();
+        synchronized (streams) {
+            for (Stream stream : streams) {
+                soundPool.setVolume(stream.streamId, volume * groupGain, volume * groupGain);
+            }
+        }
+    }
+
+    @Override
+    protected void onGroupGainChanged() {
+        handler.post(() -> applyVolume(volume));
+    }
+
+    private void rampVolume(float from, float to, double durationMs, FadeCurve curve, Runnable onDone) {
+        rampVolume(from, to, durationMs, curve, this::applyVolume, onDone);
+    }
+
+    @Override
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs, FadeCurve curve) throws Exception {
+        runWhenLoaded(() -> {
+            cancelFade();
+            if (durationMs <= 0) {
+                // Untracked streams cannot be ramped, start at the target volume instead of staying silent
+                logger.warning("Unknown duration for " + assetId + ", playing without fade in");
+                this.volume = volume;
+                startStream(volume, false);
+            } else if (startStream(0f, false) != null) {
+                rampVolume(0f, volume, fadeInDurationMs, curve, null);
+            }
+        });
+    }
+
+    @Override
+    public void stopWithFade(double fadeOutDurationMs, boolean toPause, FadeCurve curve) throws Exception {
+        if (!isPlaying()) {
+            return;
+        }
+        final float restoreVolume = volume;
+        rampVolume(
+            volume,
+            0f,
+            fadeOutDurationMs,
+            curve,
+            () -> {
+                try {
+                    if (toPause) {
+                        pause();
+                    } else {
+                        stop();
+                    }
+                    applyVolume(restoreVolume);
+                } catch (Exception e) {
+                    logger.error("Error finishing fade out", e);
+                }
+            }
+        );
+    }
+
+    @Override
+    public float getVolume() {
+        return volume;
+    }
+
+    @Override
+    public void setRate(float rate) throws Exception {
+        // SoundPool clamps playback rate to [0.5, 2.0]
+        float newRate = Math.max(0.5f, Math.min(2.0f, rate));
+        long now = SystemClock.uptimeMillis();
+        synchronized (streams) {
+            for (Stream stream : streams) {
+                if (!stream.paused) {
+                    // Time played so far counts at the old rate, the end timer is rescheduled at the new one
+                    if (stream.endRunnable != null) {
+                        handler.removeCallbacks(stream.endRunnable);
+                    }
+                    stream.playedMs += (long) ((now - stream.startedAt) * this.rate);
+                    stream.startedAt = now;
+                }
+                soundPool.setRate(stream.streamId, newRate);
+            }
+            this.rate = newRate;
+            for (Stream stream : streams) {
+                if (!stream.paused) {
+                    scheduleEnd(stream);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isPlaying() {
+        synchronized (streams) {
+            for (Stream stream : streams) {
+                if (!stream.paused) return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public double getDuration() {
+        return durationMs / 1000.0;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        long played;
+        boolean looping;
+        synchronized (streams) {
+            if (streams.isEmpty()) return 0;
+            Stream stream = streams.get(streams.size() - 1);
+            looping = stream.looping;
+            played = stream.playedMs;
+            if (!stream.paused) {
+                played += (long) ((SystemClock.uptimeMillis() - stream.startedAt) * rate);
+            }
+        }
+        if (durationMs > 0) {
+            played = looping ? played % durationMs : Math.min(played, durationMs);
+        }
+        return played / 1000.0;
+    }
+
+    @Override
+    public void setCurrentTime(double time) throws Exception {
+        logger.warning("SoundPool does not support seeking");
+    }
+
+    @Override
+    protected void startCurrentTimeUpdates() {
+        // Completion is driven by the stream end timers
+    }
+}
@@ -1,21 +1,15 @@
 package ee.forgr.audio;
 
 import android.net.Uri;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.PlaybackException;
 import androidx.media3.common.PlaybackParameters;
 import androidx.media3.common.Player;
 import androidx.media3.common.util.UnstableApi;
-import androidx.media3.datasource.DefaultHttpDataSource;
 import androidx.media3.exoplayer.DefaultLivePlaybackSpeedControl;
 import androidx.media3.exoplayer.DefaultLoadControl;
 import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.exoplayer.hls.HlsMediaSource;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 @UnstableApi
 public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
@@ -23,16 +17,23 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
     private static final String TAG = "StreamAudioAsset";
     private static final Logger logger = new Logger(TAG);
     private ExoPlayer player;
+    private GainAudioProcessor gain;
+    private final PlaybackState.Tracker state = new PlaybackState.Tracker();
     private final Uri uri;
     private float volume;
     private boolean isPrepared = false;
+    // Set once the player reached READY after the time updates started, only used on the audio thread
+    private boolean playerReady = false;
     private static final long LIVE_OFFSET_MS = 5000; // 5 seconds behind live
+    // HLS source with better settings for live streaming, reading through the engine wide HTTP stack
+    private final HlsMediaSource.Factory mediaSourceFactory = new HlsMediaSource.Factory(HttpStack.getDataSourceFactory())
+        .setAllowChunklessPreparation(true)
+        .setTimestampAdjusterInitializationTimeoutMs(LIVE_OFFSET_MS);
 
     public StreamAudioAsset(NativeAudio owner, String assetId, Uri uri, float volume) throws Exception {
         super(owner, assetId, null, 0, volume);
         this.uri = uri;
         this.volume = volume;
-        this.fadeExecutor = Executors.newSingleThreadScheduledExecutor();
 
         createPlayer();
     }
@@ -50,7 +51,11 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
             .setBackBuffer(60000, true) // Increase back buffer
             .build();
 
-        player = new ExoPlayer.Builder(owner.getContext())
+        // A recreated player keeps the volume of the previous one
+        gain = new GainAudioProcessor(gain != null ? gain.getTargetGain() : volume);
+        gain.setGroup(group);
+        player = new ExoPlayer.Builder(owner.getContext(), GainAudioProcessor.renderersFactory(owner.getContext(), gain))
+            .setLooper(AudioThread.getLooper())
             .setLoadControl(loadControl)
             .setLivePlaybackSpeedControl(
                 new DefaultLivePlaybackSpeedControl.Builder()
@@ -60,29 +65,16 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
             )
             .build();
 
-        player.setVolume(volume);
         initializePlayer();
     }
 
     private void initializePlayer() {
         logger.debug("Initializing stream player with volume: " + volume);
 
-        // Configure HLS source with better settings for live streaming
-        DefaultHttpDataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory()
-            .setAllowCrossProtocolRedirects(true)
-            .setConnectTimeoutMs(15000)
-            .setReadTimeoutMs(15000)
-            .setUserAgent("ExoPlayer");
-
-        HlsMediaSource mediaSource = new HlsMediaSource.Factory(httpDataSourceFactory)
-            .setAllowChunklessPreparation(true)
-            .setTimestampAdjusterInitializationTimeoutMs(LIVE_OFFSET_MS) // 30 seconds timeout
-            .createMediaSource(MediaItem.fromUri(uri));
-
-        player.setMediaSource(mediaSource);
-        player.setVolume(volume);
+        player.setMediaSource(mediaSourceFactory.createMediaSource(MediaItem.fromUri(uri)));
         player.prepare();
 
+        player.addListener(state);
         player.addListener(
             new Player.Listener() {
                 @Override
@@ -93,6 +85,9 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
                         if (player.isCurrentMediaItemLive()) {
                             player.seekToDefaultPosition();
                         }
+                    } else if (state == Player.STATE_ENDED) {
+                        // Completion no longer depends on the time updates running
+                        dispatchComplete();
                     }
                 }
 
@@ -110,13 +105,12 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
                 public void onPlayerError(PlaybackException error) {
                     logger.error("Player error: " + error.getMessage());
                     isPrepared = false;
+                    state.reset();
                     // Try to recover by recreating the player
-                    owner
-                        .getActivity()
-                        .runOnUiThread(() -> {
-                            player.release();
-                            createPlayer();
-                        });
+                    AudioThread.post(() -> {
+                        player.release();
+                        createPlayer();
+                    });
                 }
             }
         );
@@ -140,28 +134,26 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
     @Override
     public void play(double time, float volume) throws Exception {
         logger.debug("Play called with time: " + time + ", isPrepared: " + isPrepared);
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                if (!isPrepared) {
-                    // If not prepared, wait for preparation
-                    player.addListener(
-                        new Player.Listener() {
-                            @Override
-                            public void onPlaybackStateChanged(int state) {
-                                logger.debug("Play-wait state changed to: " + getStateString(state));
-                                if (state == Player.STATE_READY) {
-                                    startPlayback(time, volume);
-                                    startCurrentTimeUpdates();
-                                    player.removeListener(this);
-                                }
+        AudioThread.post(() -> {
+            if (!isPrepared) {
+                // If not prepared, wait for preparation
+                player.addListener(
+                    new Player.Listener() {
+                        @Override
+                        public void onPlaybackStateChanged(int state) {
+                            logger.debug("Play-wait state changed to: " + getStateString(state));
+                            if (state == Player.STATE_READY) {
+                                startPlayback(time, volume);
+                                startCurrentTimeUpdates();
+                                player.removeListener(this);
                             }
                         }
-                    );
-                } else {
-                    startPlayback(time, volume);
-                }
-            });
+                    }
+                );
+            } else {
+                startPlayback(time, volume);
+            }
+        });
     }
 
     private void startPlayback(double time, float volume) {
@@ -172,227 +164,169 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
             player.seekToDefaultPosition();
         }
         player.setPlaybackParameters(new PlaybackParameters(1.0f));
-        player.setVolume(volume);
+        gain.setGain(volume);
         player.setPlayWhenReady(true);
         startCurrentTimeUpdates();
     }
 
     @Override
     public boolean pause() throws Exception {
-        final boolean[] wasPlaying = { false };
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                cancelFade();
-                if (player != null && player.isPlaying()) {
-                    player.setPlayWhenReady(false);
-                    stopCurrentTimeUpdates();
-                    wasPlaying[0] = true;
-                }
-            });
-        return wasPlaying[0];
+        // Answered from the snapshot, the pause itself runs later on the audio thread
+        boolean wasPlaying = state.get().isPlaying();
+        AudioThread.post(() -> {
+            cancelFade();
+            if (player != null && player.isPlaying()) {
+                player.setPlayWhenReady(false);
+                stopCurrentTimeUpdates();
+            }
+        });
+        return wasPlaying;
     }
 
     @Override
     public void resume() throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                player.setPlayWhenReady(true);
-                startCurrentTimeUpdates();
-            });
+        AudioThread.post(() -> {
+            player.setPlayWhenReady(true);
+            startCurrentTimeUpdates();
+        });
     }
 
     @Override
     public void stop() throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                cancelFade();
-                // First stop playback
-                player.stop();
-                // Reset player state
-                player.clearMediaItems();
-                isPrepared = false;
-
-                // Create new media source
-                DefaultHttpDataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory()
-                    .setAllowCrossProtocolRedirects(true)
-                    .setConnectTimeoutMs(15000)
-                    .setReadTimeoutMs(15000)
-                    .setUserAgent("ExoPlayer");
-
-                HlsMediaSource mediaSource = new HlsMediaSource.Factory(httpDataSourceFactory)
-                    .setAllowChunklessPreparation(true)
-                    .setTimestampAdjusterInitializationTimeoutMs(LIVE_OFFSET_MS)
-                    .createMediaSource(MediaItem.fromUri(uri));
-
-                // Set new media source and prepare
-                player.setMediaSource(mediaSource);
-                player.prepare();
-
-                // Add listener for preparation completion
-                player.addListener(
-                    new Player.Listener() {
-                        @Override
-                        public void onPlaybackStateChanged(int state) {
-                            logger.debug("Stop-reinit state changed to: " + getStateString(state));
-                            if (state == Player.STATE_READY) {
-                                isPrepared = true;
-                                player.removeListener(this);
-                            } else if (state == Player.STATE_IDLE) {
-                                // Retry preparation if it fails
-                                player.prepare();
-                            }
+        AudioThread.post(() -> {
+            cancelFade();
+            // First stop playback
+            player.stop();
+            // Reset player state
+            player.clearMediaItems();
+            isPrepared = false;
+
+            // Set new media source and prepare
+            player.setMediaSource(mediaSourceFactory.createMediaSource(MediaItem.fromUri(uri)));
+            player.prepare();
+
+            // Add listener for preparation completion
+            player.addListener(
+                new Player.Listener() {
+                    @Override
+                    public void onPlaybackStateChanged(int state) {
+                        logger.debug("Stop-reinit state changed to: " + getStateString(state));
+                        if (state == Player.STATE_READY) {
+                            isPrepared = true;
+                            player.removeListener(this);
+                        } else if (state == Player.STATE_IDLE) {
+                            // Retry preparation if it fails
+                            player.prepare();
                         }
                     }
-                );
-            });
+                }
+            );
+        });
     }
 
     @Override
     public void loop() throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                player.setRepeatMode(Player.REPEAT_MODE_ONE);
-                player.setPlayWhenReady(true);
-                startCurrentTimeUpdates();
-            });
+        AudioThread.post(() -> {
+            player.setRepeatMode(Player.REPEAT_MODE_ONE);
+            player.setPlayWhenReady(true);
+            startCurrentTimeUpdates();
+        });
     }
 
     @Override
     public void unload() throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                cancelFade();
-                player.stop();
-                player.clearMediaItems();
-                player.release();
-                isPrepared = false;
-                close(); // Ensure fadeExecutor is shutdown
-            });
+        AudioThread.post(() -> {
+            cancelFade();
+            player.stop();
+            player.clearMediaItems();
+            player.release();
+            isPrepared = false;
+            state.reset();
+            close(); // Cancel any running fade
+        });
     }
 
     @Override
-    public void close() {
-        if (fadeExecutor != null && !fadeExecutor.isShutdown()) {
-            fadeExecutor.shutdown();
-        }
+    public void setVolume(float volume, double duration, FadeCurve curve) throws Exception {
+        this.volume = volume;
+        AudioThread.post(() -> {
+            try {
+                if (player.isPlaying() && duration > 0) {
+                    logger.debug("Fading to volume " + volume + " over " + (duration / 1000.0) + "s");
+                    gain.rampTo(volume, duration, curve, null);
+                } else {
+                    gain.setGain(volume);
+                }
+            } catch (Exception e) {
+                logger.error("Error setting volume", e);
+            }
+        });
     }
 
     @Override
-    protected void finalize() throws Throwable {
-        try {
-            close();
-        } finally {
-            super.finalize();
+    public void setGroup(AudioGroup group) {
+        super.setGroup(group);
+        if (gain != null) {
+            gain.setGroup(group);
         }
     }
 
-    @Override
-    public void setVolume(float volume, double duration) throws Exception {
-        this.volume = volume;
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                cancelFade();
-                try {
-                    if (this.isPlaying() && duration > 0) {
-                        fadeTo(duration, volume);
-                    } else {
-                        player.setVolume(volume);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error setting volume", e);
-                }
-            });
-    }
-
     @Override
     public float getVolume() throws Exception {
-        if (player != null) {
-            return player.getVolume();
+        if (gain != null) {
+            return gain.getTargetGain();
         }
         return 0;
     }
 
     @Override
     public boolean isPlaying() throws Exception {
-        return player != null && player.isPlaying();
+        return state.get().isPlaying();
     }
 
     @Override
     public double getDuration() {
-        if (isPrepared) {
-            final double[] duration = { 0 };
-            owner
-                .getActivity()
-                .runOnUiThread(() -> {
-                    if (player.getPlaybackState() == Player.STATE_READY) {
-                        long rawDuration = player.getDuration();
-                        if (rawDuration != androidx.media3.common.C.TIME_UNSET) {
-                            duration[0] = rawDuration / 1000.0;
-                        }
-                    }
-                });
-            return duration[0];
-        }
-        return 0;
+        PlaybackState snapshot = state.get();
+        return snapshot.isReady() ? snapshot.getDuration() : 0;
     }
 
     @Override
     public double getCurrentPosition() {
-        if (isPrepared) {
-            final double[] position = { 0 };
-            owner
-                .getActivity()
-                .runOnUiThread(() -> {
-                    if (player.getPlaybackState() == Player.STATE_READY) {
-                        position[0] = player.getCurrentPosition() / 1000.0;
-                    }
-                });
-            return position[0];
-        }
-        return 0;
+        PlaybackState snapshot = state.get();
+        return snapshot.isReady() ? snapshot.getPosition() : 0;
     }
 
     @Override
     public void setCurrentTime(double time) throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                player.seekTo(Math.round(time * 1000));
-            });
+        AudioThread.post(() -> {
+            player.seekTo(Math.round(time * 1000));
+        });
     }
 
     @Override
-    public void playWithFadeIn(double time, float volume, double fadeInDurationMs) throws Exception {
+    public void playWithFadeIn(double time, float volume, double fadeInDurationMs, FadeCurve curve) throws Exception {
         logger.debug("playWithFadeIn called with time: " + time);
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                if (!isPrepared) {
-                    // If not prepared, wait for preparation
-                    player.addListener(
-                        new Player.Listener() {
-                            @Override
-                            public void onPlaybackStateChanged(int state) {
-                                if (state == Player.STATE_READY) {
-                                    startPlaybackWithFade(time, volume, fadeInDurationMs);
-                                    player.removeListener(this);
-                                }
+        AudioThread.post(() -> {
+            if (!isPrepared) {
+                // If not prepared, wait for preparation
+                player.addListener(
+                    new Player.Listener() {
+                        @Override
+                        public void onPlaybackStateChanged(int state) {
+                            if (state == Player.STATE_READY) {
+                                startPlaybackWithFade(time, volume, fadeInDurationMs, curve);
+                                player.removeListener(this);
                             }
                         }
-                    );
-                } else {
-                    startPlaybackWithFade(time, volume, fadeInDurationMs);
-                }
-            });
+                    }
+                );
+            } else {
+                startPlaybackWithFade(time, volume, fadeInDurationMs, curve);
+            }
+        });
     }
 
-    private void startPlaybackWithFade(double time, float volume, double fadeInDurationMs) {
+    private void startPlaybackWithFade(double time, float volume, double fadeInDurationMs, FadeCurve curve) {
         if (!player.isPlayingAd()) { // Make sure we're not in an ad
             if (time != 0) {
                 player.seekTo(Math.round(time * 1000));
@@ -412,12 +346,11 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
                             player.removeListener(this);
                             // Ensure playback rate is normal
                             player.setPlaybackParameters(new PlaybackParameters(1.0f));
-                            // Start with volume 0
-                            player.setVolume(0);
+                            // The ramp starts with the first processed buffer, i.e. once audio actually flows
+                            logger.debug("Fading in to volume " + volume + " over " + (fadeInDurationMs / 1000.0) + "s");
+                            gain.ramp(0f, volume, fadeInDurationMs, curve, null);
                             player.setPlayWhenReady(true);
                             startCurrentTimeUpdates();
-                            // Start fade after ensuring we're actually playing
-                            checkAndStartFade(fadeInDurationMs, volume);
                         }
                     }
                 }
@@ -425,339 +358,77 @@ public class StreamAudioAsset extends AudioAsset implements AutoCloseable {
         }
     }
 
-    private void checkAndStartFade(double fadeInDurationMs, float volume) {
-        final Handler handler = new Handler(Looper.getMainLooper());
-        handler.postDelayed(
-            new Runnable() {
-                int attempts = 0;
-
-                @Override
-                public void run() {
-                    if (player != null && player.isPlaying()) {
-                        fadeIn(fadeInDurationMs, volume);
-                    } else if (attempts < 10) { // Try for 5 seconds (10 * 500ms)
-                        attempts++;
-                        handler.postDelayed(this, 500);
-                    }
-                }
-            },
-            500
-        );
-    }
-
-    private void fadeIn(double fadeInDurationMs, float volume) {
-        cancelFade();
-        fadeState = FadeState.FADE_IN;
-
-        final float targetVolume = volume;
-        final int steps = Math.max(1, (int) (fadeInDurationMs / FADE_DELAY_MS));
-        final float fadeStep = targetVolume / steps;
-
-        Log.d(
-            TAG,
-            "Beginning fade in at time " +
-            getCurrentPosition() +
-            " over " +
-            (fadeInDurationMs / 1000.0) +
-            "s to target volume " +
-            targetVolume +
-            " in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s"
-        );
-
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
-            new Runnable() {
-                float currentVolume = 0;
-
-                @Override
-                public void run() {
-                    if (fadeState != FadeState.FADE_IN || currentVolume >= targetVolume) {
-                        fadeState = FadeState.NONE;
-                        cancelFade();
-                        logger.verbose("Fade in complete at time " + getCurrentPosition());
-                        return;
-                    }
-                    final float previousCurrentVolume = currentVolume;
-                    currentVolume += fadeStep;
-                    final float resolvedTargetVolume = Math.min(currentVolume, targetVolume);
-                    Log.d(
-                        TAG,
-                        "Fade in step: from " + previousCurrentVolume + " to " + currentVolume + " to target " + resolvedTargetVolume
-                    );
-                    owner
-                        .getActivity()
-                        .runOnUiThread(() -> {
-                            if (player != null && player.isPlaying()) {
-                                player.setVolume(resolvedTargetVolume);
-                            }
-                        });
-                }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
-        );
-    }
-
     @Override
-    public void stopWithFade(double fadeOutDurationMs, boolean asPause) throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                if (player != null && player.isPlaying()) {
-                    fadeOut(fadeOutDurationMs, asPause);
-                }
-            });
+    public void stopWithFade(double fadeOutDurationMs, boolean asPause, FadeCurve curve) throws Exception {
+        AudioThread.post(() -> {
+            if (player != null && player.isPlaying()) {
+                fadeOut(fadeOutDurationMs, asPause, curve);
+            }
+        });
     }
 
-    private void fadeOut(double fadeOutDurationMs, boolean asPause) {
-        cancelFade();
-        fadeState = FadeState.FADE_OUT;
-
-        final float initialVolume = player.getVolume();
-        final int steps = Math.max(1, (int) (fadeOutDurationMs / FADE_DELAY_MS));
-        final float fadeStep = initialVolume / steps;
-
-        Log.d(
-            TAG,
-            "Beginning fade out from volume " +
-            initialVolume +
-            " at time " +
-            getCurrentPosition() +
-            " over " +
-            (fadeOutDurationMs / 1000.0) +
-            "s in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s)"
-        );
-
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
-            new Runnable() {
-                float currentVolume = initialVolume;
-
-                @Override
-                public void run() {
-                    if (fadeState != FadeState.FADE_OUT || currentVolume <= 0) {
-                        fadeState = FadeState.NONE;
-                        try {
-                            if (asPause) {
-                                player.setPlayWhenReady(false);
-                                logger.verbose("Faded out to pause at time " + getCurrentPosition());
-                            } else {
-                                stop();
-                                logger.verbose("Faded out to stop at time " + getCurrentPosition());
-                            }
-                        } catch (Exception e) {
-                            logger.error("Error stopping playback", e);
-                        }
-                        cancelFade();
-                        logger.verbose("Fade out complete at time " + getCurrentPosition());
-                        return;
-                    }
-                    final float previousCurrentVolume = currentVolume;
-                    currentVolume -= fadeStep;
-                    final float thisTargetVolume = Math.max(currentVolume, 0);
-                    logger.debug(
-                        "Fade out step: from " + previousCurrentVolume + " to " + currentVolume + " to target " + thisTargetVolume
-                    );
-                    owner
-                        .getActivity()
-                        .runOnUiThread(() -> {
-                            if (player != null && player.isPlaying()) {
-                                player.setVolume(thisTargetVolume);
-                            }
-                        });
+    private void fadeOut(double fadeOutDurationMs, boolean asPause, FadeCurve curve) {
+        logger.debug("Fading out over " + (fadeOutDurationMs / 1000.0) + "s at time " + getCurrentPosition());
+        gain.rampTo(0f, fadeOutDurationMs, curve, () -> {
+            try {
+                if (asPause) {
+                    AudioThread.post(() -> player.setPlayWhenReady(false));
+                    logger.verbose("Faded out to pause");
+                } else {
+                    stop();
+                    logger.verbose("Faded out to stop");
                 }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
-        );
-    }
-
-    private void fadeTo(double fadeDurationMs, float targetVolume) {
-        cancelFade();
-        fadeState = FadeState.FADE_TO;
-
-        final int steps = Math.max(1, (int) (fadeDurationMs / FADE_DELAY_MS));
-        final float minVolume = zeroVolume;
-        final float maxVol = maxVolume;
-        final float initialVolume = Math.max(player.getVolume(), minVolume);
-        final float finalTargetVolume = Math.max(targetVolume, minVolume);
-
-        // Clamp values to avoid overflow/underflow and invalid pow inputs
-        final float safeInitialVolume = Math.max(initialVolume, minVolume);
-        final float safeFinalTargetVolume = Math.max(finalTargetVolume, minVolume);
-
-        double ratio;
-        if (steps <= 0 || safeInitialVolume <= 0f || safeFinalTargetVolume <= 0f) {
-            ratio = 1.0;
-        } else if (safeInitialVolume == safeFinalTargetVolume) {
-            ratio = 1.0;
-        } else {
-            ratio = Math.pow(safeFinalTargetVolume / safeInitialVolume, 1.0 / steps);
-            if (Double.isNaN(ratio) || Double.isInfinite(ratio) || ratio <= 0.0) {
-                ratio = 1.0;
+            } catch (Exception e) {
+                logger.error("Error stopping playback", e);
             }
-        }
-
-        Log.d(
-            TAG,
-            "Beginning exponential fade from volume " +
-            initialVolume +
-            " to " +
-            finalTargetVolume +
-            " over " +
-            (fadeDurationMs / 1000.0) +
-            "s in " +
-            steps +
-            " steps (step duration: " +
-            (FADE_DELAY_MS / 1000.0) +
-            "s, ratio: " +
-            ratio +
-            ")"
-        );
-
-        double finalRatio = ratio;
-        fadeTask = fadeExecutor.scheduleWithFixedDelay(
-            new Runnable() {
-                int currentStep = 0;
-                float currentVolume = initialVolume;
-
-                @Override
-                public void run() {
-                    if (fadeState != FadeState.FADE_TO || player == null || !player.isPlaying() || currentStep >= steps) {
-                        fadeState = FadeState.NONE;
-                        cancelFade();
-                        logger.verbose("Fade to complete at time " + getCurrentPosition());
-                        return;
-                    }
-                    try {
-                        if (finalRatio == 1.0) {
-                            currentVolume = safeFinalTargetVolume;
-                        } else {
-                            currentVolume *= (float) finalRatio;
-                        }
-                        // Clamp volume between minVolume and maxVolume
-                        currentVolume = Math.min(Math.max(currentVolume, minVolume), maxVol);
-                        logger.debug("Fade to step " + currentStep + ": volume set to " + currentVolume);
-                        owner
-                            .getActivity()
-                            .runOnUiThread(() -> {
-                                if (player != null && player.isPlaying()) {
-                                    player.setVolume(currentVolume);
-                                }
-                            });
-
-                        currentStep++;
-                    } catch (Exception e) {
-                        logger.error("Error during fade to", e);
-                        cancelFade();
-                    }
-                }
-            },
-            0,
-            FADE_DELAY_MS,
-            TimeUnit.MILLISECONDS
-        );
+        });
     }
 
-    private void cancelFade() {
-        if (fadeTask != null && !fadeTask.isCancelled()) {
-            fadeTask.cancel(true);
+    @Override
+    protected void cancelFade() {
+        if (gain != null) {
+            gain.cancelRamp();
         }
-        fadeState = FadeState.NONE;
-        fadeTask = null;
     }
 
     @Override
     public void setRate(float rate) throws Exception {
-        owner
-            .getActivity()
-            .runOnUiThread(() -> {
-                logger.debug("Setting playback rate to: " + rate);
-                player.setPlaybackParameters(new PlaybackParameters(rate));
-            });
+        AudioThread.post(() -> {
+            logger.debug("Setting playback rate to: " + rate);
+            player.setPlaybackParameters(new PlaybackParameters(rate));
+        });
     }
 
     @Override
     protected void startCurrentTimeUpdates() {
-        logger.debug("Starting timer updates");
-        if (currentTimeHandler == null) {
-            currentTimeHandler = new Handler(Looper.getMainLooper());
-        }
-        // Reset completion status for this assetId
-        dispatchedCompleteMap.put(assetId, false);
-
         // Wait for player to be truly ready
-        currentTimeHandler.postDelayed(
-            new Runnable() {
-                @Override
-                public void run() {
-                    if (player != null && player.getPlaybackState() == Player.STATE_READY) {
-                        startTimeUpdateLoop();
-                    } else {
-                        // Check again in 100ms
-                        currentTimeHandler.postDelayed(this, 100);
-                    }
-                }
-            },
-            100
-        );
+        playerReady = false;
+        super.startCurrentTimeUpdates();
     }
 
-    private void startTimeUpdateLoop() {
-        currentTimeRunnable = new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    boolean isPaused = false;
-                    if (player != null && player.getPlaybackState() == Player.STATE_READY) {
-                        if (player.isPlaying()) {
-                            double currentTime = player.getCurrentPosition() / 1000.0; // Get time directly
-                            logger.debug("Play timer update: currentTime = " + currentTime);
-                            if (owner != null) owner.notifyCurrentTime(assetId, currentTime);
-                            currentTimeHandler.postDelayed(this, 100);
-                            return;
-                        } else if (!player.getPlayWhenReady()) {
-                            isPaused = true;
-                        }
-                    }
-                    logger.debug("Stopping play timer - not playing or not ready");
-                    stopCurrentTimeUpdates();
-                    if (isPaused) {
-                        logger.verbose("Playback is paused, not dispatching complete");
-                    } else {
-                        logger.verbose("Playback is stopped, dispatching complete");
-                        dispatchComplete();
-                    }
-                } catch (Exception e) {
-                    logger.error("Error getting current time", e);
-                    stopCurrentTimeUpdates();
-                }
-            }
-        };
-        try {
-            if (currentTimeHandler == null) {
-                currentTimeHandler = new Handler(Looper.getMainLooper());
+    @Override
+    protected double pollCurrentTime() {
+        boolean isPaused = false;
+        if (player != null && player.getPlaybackState() == Player.STATE_READY) {
+            playerReady = true;
+            if (player.isPlaying()) {
+                double currentTime = player.getCurrentPosition() / 1000.0; // Get time directly
+                logger.debug("Play timer update: currentTime = " + currentTime);
+                return currentTime;
+            } else if (!player.getPlayWhenReady()) {
+                isPaused = true;
             }
-            currentTimeHandler.post(currentTimeRunnable);
-        } catch (Exception e) {
-            logger.error("Error starting current time updates", e);
+        } else if (!playerReady) {
+            // Check again on the next tick
+            return TIME_UNAVAILABLE;
         }
-    }
-
-    @Override
-    void stopCurrentTimeUpdates() {
-        logger.debug("Stopping play timer updates");
-        if (currentTimeHandler != null) {
-            currentTimeHandler.removeCallbacks(currentTimeRunnable);
-            currentTimeHandler = null;
+        logger.debug("Stopping play timer - not playing or not ready");
+        if (isPaused) {
+            logger.verbose("Playback is paused, not dispatching complete");
+        } else {
+            logger.verbose("Playback is stopped, dispatching complete");
+            dispatchComplete();
         }
+        return TIME_STOPPED;
     }
 }
@@ -0,0 +1,102 @@
+package ee.forgr.audio;
+
+import android.os.Handler;
+import androidx.media3.common.util.UnstableApi;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One {@link AudioThread} tick polling every playing asset, instead of a handler loop per asset.
+ * The positions of a tick are handed to the plugin together so they leave as one event.
+ * The tick only runs while some asset plays and the plugin needs it, see {@link NativeAudio#needsTimeTick}.
+ */
+@UnstableApi
+public class TimeTicker {
+
+    private static final String TAG = "TimeTicker";
+    private static final Logger logger = new Logger(TAG);
+    public static final long DEFAULT_INTERVAL_MS = 100;
+
+    private final NativeAudio owner;
+    private final Handler handler = AudioThread.getHandler();
+    private final CopyOnWriteArrayList<AudioAsset> assets = new CopyOnWriteArrayList<>();
+    private final Runnable tickRunnable = this::tick;
+    // Only used on the audio thread
+    private final Map<String, Double> times = new LinkedHashMap<>();
+    private boolean scheduled = false;
+    private volatile long intervalMs = DEFAULT_INTERVAL_MS;
+
+    public TimeTicker(NativeAudio owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Interval of the time updates, 0 turns them off. Scheduled fades and end detection still tick at the default interval.
+     */
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = Math.max(0, intervalMs);
+        update();
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    void register(AudioAsset asset) {
+        if (assets.addIfAbsent(asset)) {
+            update();
+        }
+    }
+
+    void unregister(AudioAsset asset) {
+        assets.remove(asset);
+    }
+
+    /**
+     * Starts the tick when it is needed, it stops by itself once it is not.
+     */
+    void update() {
+        handler.post(() -> {
+            if (!scheduled && shouldRun()) {
+                scheduled = true;
+                handler.postDelayed(tickRunnable, period());
+            }
+        });
+    }
+
+    private boolean shouldRun() {
+        return !assets.isEmpty() && owner.needsTimeTick(intervalMs > 0);
+    }
+
+    private long period() {
+        long interval = intervalMs;
+        return interval > 0 ? interval : DEFAULT_INTERVAL_MS;
+    }
+
+    private void tick() {
+        scheduled = false;
+        for (AudioAsset asset : assets) {
+            double time;
+            try {
+                time = asset.pollCurrentTime();
+            } catch (Exception e) {
+                logger.error("Error getting current time", e);
+                time = AudioAsset.TIME_STOPPED;
+            }
+            if (Double.isNaN(time)) {
+                assets.remove(asset);
+            } else if (time >= 0) {
+                times.put(asset.getAssetId(), time);
+            }
+        }
+        if (!times.isEmpty()) {
+            owner.onTimeTick(times, intervalMs > 0);
+            times.clear();
+        }
+        if (shouldRun()) {
+            scheduled = true;
+            handler.postDelayed(tickRunnable, period());
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package ee.forgr.audio;
+
+import androidx.media3.common.util.UnstableApi;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Picks the voice a new trigger plays on.
+ * A free voice is always taken first; when every voice is busy one is stolen according to a {@link StealPolicy}.
+ * On top of the per-asset voices, a global limit caps the number of busy voices across the whole engine.
+ * Player engines go through a ledger guarded by a lock; the mixer, which admits voices on its render thread, registers its
+ * preallocated voices once and is admitted without locking or allocating, see {@link #admitInline}.
+ */
+@UnstableApi
+public final class VoiceAllocator {
+
+    private static final String TAG = "VoiceAllocator";
+    private static final Logger logger = new Logger(TAG);
+
+    public interface Voice {
+        /**
+         * Whether the voice is playing or paused, i.e. still holding its resources.
+         */
+        boolean isBusy();
+
+        /**
+         * {@link System#nanoTime()} at which the voice was last started.
+         */
+        long getStartedAt();
+
+        float getVolume();
+
+        int getPriority();
+
+        /**
+         * Stops the voice immediately so it can be reused.
+         */
+        void release();
+    }
+
+    public enum StealPolicy {
+        OLDEST,
+        QUIETEST,
+        LOWEST_PRIORITY,
+        REJECT;
+
+        public static StealPolicy fromString(String value, StealPolicy fallback) {
+            if (value == null) return fallback;
+            switch (value) {
+                case "oldest":
+                    return OLDEST;
+                case "quietest":
+                    return QUIETEST;
+                case "priority":
+                    return LOWEST_PRIORITY;
+                case "reject":
+                    return REJECT;
+                default:
+                    logger.warning("Unknown steal policy " + value);
+                    return fallback;
+            }
+        }
+    }
+
+    private static final List<Voice> activeVoices = new ArrayList<>();
+    // Size of the ledger as of its last update, read by the lock-free mixer path
+    private static volatile int ledgerSize = 0;
+    private static volatile List<? extends Voice> mixerVoices = Collections.emptyList();
+    private static volatile int globalLimit = 0;
+    private static volatile StealPolicy defaultPolicy = StealPolicy.OLDEST;
+    // Ledger steal requested by the lock-free mixer path, run by the mixer on the audio thread
+    private static volatile StealPolicy pendingStealPolicy;
+    private static volatile int pendingStealPriority;
+
+    private VoiceAllocator() {}
+
+    /**
+     * Limits the number of busy voices across every asset, 0 means unlimited.
+     */
+    public static void setGlobalLimit(int limit) {
+        globalLimit = Math.max(0, limit);
+    }
+
+    public static int getGlobalLimit() {
+        return globalLimit;
+    }
+
+    public static void setDefaultPolicy(StealPolicy policy) {
+        defaultPolicy = policy;
+    }
+
+    public static StealPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    /**
+     * Registers the preallocated voices of the mixer, counted against the global limit without going through the ledger.
+     */
+    public static void setMixerVoices(List<? extends Voice> voices) {
+        mixerVoices = voices != null ? voices : Collections.emptyList();
+    }
+
+    /**
+     * Returns a free voice of the pool, or the voice to steal, or null when the policy rejects the trigger.
+     */
+    public static <V extends Voice> V allocate(List<V> pool, StealPolicy policy, int priority) {
+        for (int i = 0; i < pool.size(); i++) {
+            V voice = pool.get(i);
+            if (voice != null && !voice.isBusy()) {
+                return voice;
+            }
+        }
+        return selectVictim(pool, policy, priority, null);
+    }
+
+    /**
+     * Registers a voice that is about to start against the global limit.
+     * When the limit is reached, a busy voice of any asset is stolen according to the policy.
+     *
+     * @return false when the trigger has to be rejected
+     */
+    public static boolean admit(Voice voice, StealPolicy policy, int priority) {
+        synchronized (activeVoices) {
+            if (activeVoices.contains(voice)) {
+                return true;
+            }
+            reclaim();
+            int limit = globalLimit;
+            List<? extends Voice> mixer = mixerVoices;
+            if (limit > 0 && activeVoices.size() + countBusy(mixer, null) >= limit) {
+                Voice victim = selectVictim(activeVoices, policy, priority, voice);
+                Voice mixerVictim = selectVictim(mixer, policy, priority, voice);
+                if (mixerVictim != null && (victim == null || isBetterVictim(mixerVictim, victim, policy))) {
+                    victim = mixerVictim;
+                }
+                if (victim == null) {
+                    logger.debug("Global voice limit of " + limit + " reached, rejecting trigger");
+                    return false;
+                }
+                logger.debug("Global voice limit of " + limit + " reached, stealing a voice");
+                victim.release();
+                activeVoices.remove(victim);
+            }
+            activeVoices.add(voice);
+            ledgerSize = activeVoices.size();
+            return true;
+        }
+    }
+
+    /**
+     * Admits a voice of the registered mixer voices against the global limit, called by the mixer under its own lock.
+     * Neither locks, allocates nor posts: only mixer voices are stolen inline, a steal from the ledger is left for
+     * {@link #runPendingSteal()} and the trigger starts right away, so the limit may be exceeded until the steal has run.
+     *
+     * @return false when the trigger has to be rejected
+     */
+    public static <V extends Voice> boolean admitInline(V voice, List<V> pool, StealPolicy policy, int priority) {
+        int limit = globalLimit;
+        if (limit <= 0) {
+            return true;
+        }
+        int ledger = ledgerSize;
+        if (ledger + countBusy(pool, voice) < limit) {
+            return true;
+        }
+        V victim = selectVictim(pool, policy, priority, voice);
+        if (victim != null) {
+            victim.release();
+            return true;
+        }
+        if (policy == StealPolicy.REJECT || ledger == 0) {
+            return false;
+        }
+        pendingStealPriority = priority;
+        pendingStealPolicy = policy;
+        return true;
+    }
+
+    /**
+     * Steals ledger voices until the global limit holds again, after {@link #admitInline} let a mixer voice exceed it.
+     * Called by the mixer on the audio thread.
+     */
+    static void runPendingSteal() {
+        StealPolicy policy = pendingStealPolicy;
+        if (policy == null) {
+            return;
+        }
+        pendingStealPolicy = null;
+        int priority = pendingStealPriority;
+        synchronized (activeVoices) {
+            reclaim();
+            int limit = globalLimit;
+            while (limit > 0 && activeVoices.size() + countBusy(mixerVoices, null) > limit) {
+                Voice victim = selectVictim(activeVoices, policy, priority, null);
+                if (victim == null) {
+                    break;
+                }
+                logger.debug("Global voice limit of " + limit + " exceeded by the mixer, stealing a voice");
+                victim.release();
+                activeVoices.remove(victim);
+            }
+            ledgerSize = activeVoices.size();
+        }
+    }
+
+    /**
+     * Forgets voices that are being released by their owner, e.g. on unload.
+     */
+    public static void forget(Voice voice) {
+        synchronized (activeVoices) {
+            activeVoices.remove(voice);
+            ledgerSize = activeVoices.size();
+        }
+    }
+
+    // Reclaim lazily: voices only leave the ledger when it is checked against the limit
+    private static void reclaim() {
+        for (int i = activeVoices.size() - 1; i >= 0; i--) {
+            if (!activeVoices.get(i).isBusy()) {
+                activeVoices.remove(i);
+            }
+        }
+        ledgerSize = activeVoices.size();
+    }
+
+    private static int countBusy(List<? extends Voice> pool, Voice exclude) {
+        int count = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            Voice voice = pool.get(i);
+            if (voice != null && voice != exclude && voice.isBusy()) count++;
+        }
+        return count;
+    }
+
+    private static <V extends Voice> V selectVictim(List<? extends V> pool, StealPolicy policy, int priority, Voice exclude) {
+        if (policy == StealPolicy.REJECT) {
+            return null;
+        }
+        V victim = null;
+        for (int i = 0; i < pool.size(); i++) {
+            V voice = pool.get(i);
+            if (voice == null || voice == exclude || !voice.isBusy()) continue;
+            if (policy == StealPolicy.LOWEST_PRIORITY && voice.getPriority() > priority) continue;
+            if (victim == null || isBetterVictim(voice, victim, policy)) {
+                victim = voice;
+            }
+        }
+        return victim;
+    }
+
+    private static boolean isBetterVictim(Voice candidate, Voice current, StealPolicy policy) {
+        switch (policy) {
+            case QUIETEST:
+                if (candidate.getVolume() != current.getVolume()) {
+                    return candidate.getVolume() < current.getVolume();
+                }
+                break;
+            case LOWEST_PRIORITY:
+                if (candidate.getPriority() != current.getPriority()) {
+                    return candidate.getPriority() < current.getPriority();
+                }
+                break;
+            default:
+                break;
+        }
+        return candidate.getStartedAt() < current.getStartedAt();
+    }
+}
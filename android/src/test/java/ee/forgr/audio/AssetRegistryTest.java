@@ -0,0 +1,94 @@
+package ee.forgr.audio;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class AssetRegistryTest {
+
+    // Generations are 15 bits wide, see AssetRegistry
+    private static final int GENERATIONS = Integer.MAX_VALUE >> 16;
+
+    private static AudioAsset asset(String assetId) throws Exception {
+        return new AudioAsset(null, assetId, null, 0, 1f);
+    }
+
+    @Test
+    public void handles_resolveToTheirAsset() throws Exception {
+        AssetRegistry registry = new AssetRegistry();
+        AudioAsset first = asset("first");
+        AudioAsset second = asset("second");
+        int firstHandle = registry.add(first);
+        int secondHandle = registry.add(second);
+        assertNotEquals(firstHandle, secondHandle);
+        assertSame(first, registry.get(firstHandle));
+        assertSame(second, registry.get(secondHandle));
+        assertNull(registry.get(-1));
+        assertNull(registry.get(secondHandle + 1));
+    }
+
+    @Test
+    public void reusedSlot_doesNotResolveStaleHandles() throws Exception {
+        AssetRegistry registry = new AssetRegistry();
+        AudioAsset unloaded = asset("unloaded");
+        int staleHandle = registry.add(unloaded);
+        registry.remove(unloaded);
+        assertEquals(-1, unloaded.getHandle());
+        AudioAsset reloaded = asset("reloaded");
+        int handle = registry.add(reloaded);
+        assertNotEquals(staleHandle, handle);
+        assertNull(registry.get(staleHandle));
+        assertSame(reloaded, registry.get(handle));
+    }
+
+    @Test
+    public void generations_wrapAroundWithoutGoingNegative() throws Exception {
+        AssetRegistry registry = new AssetRegistry();
+        int firstHandle = -1;
+        int previous = -1;
+        for (int i = 0; i <= GENERATIONS; i++) {
+            AudioAsset asset = asset("asset" + i);
+            int handle = registry.add(asset);
+            assertTrue("handle " + handle, handle >= 0);
+            assertNotEquals(previous, handle);
+            if (i == 0) {
+                firstHandle = handle;
+            }
+            previous = handle;
+            registry.remove(asset);
+        }
+        // Every generation of the slot was used once, the next one starts over
+        AudioAsset wrapped = asset("wrapped");
+        assertEquals(firstHandle, registry.add(wrapped));
+        assertSame(wrapped, registry.get(firstHandle));
+    }
+
+    @Test
+    public void clear_keepsStaleHandlesFromResolving() throws Exception {
+        AssetRegistry registry = new AssetRegistry();
+        AudioAsset before = asset("before");
+        int staleHandle = registry.add(before);
+        registry.clear();
+        assertNull(registry.get(staleHandle));
+        assertEquals(-1, before.getHandle());
+        AudioAsset after = asset("after");
+        int handle = registry.add(after);
+        assertNotEquals(staleHandle, handle);
+        assertNull(registry.get(staleHandle));
+        assertSame(after, registry.get(handle));
+    }
+
+    @Test
+    public void registry_growsPastItsInitialCapacity() throws Exception {
+        AssetRegistry registry = new AssetRegistry();
+        int[] handles = new int[200];
+        AudioAsset[] assets = new AudioAsset[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            assets[i] = asset("asset" + i);
+            handles[i] = registry.add(assets[i]);
+        }
+        for (int i = 0; i < handles.length; i++) {
+            assertSame(assets[i], registry.get(handles[i]));
+        }
+    }
+}
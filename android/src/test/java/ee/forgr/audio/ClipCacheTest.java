@@ -0,0 +1,129 @@
+package ee.forgr.audio;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class ClipCacheTest {
+
+    private final List<String> evictions = new ArrayList<>();
+
+    private class TestAsset extends AudioAsset {
+
+        private final long bytes;
+        boolean idle = true;
+
+        TestAsset(String assetId, long bytes, int cachePriority) throws Exception {
+            super(null, assetId, null, 0, 1f);
+            this.bytes = bytes;
+            setCachePriority(cachePriority);
+            // Last played long enough ago to be evicted
+            lastUsedAt = -60000;
+        }
+
+        @Override
+        public long getResidentBytes() {
+            return bytes;
+        }
+
+        @Override
+        protected boolean isIdle() {
+            return idle;
+        }
+
+        @Override
+        protected void releaseResources() {
+            evictions.add(assetId);
+        }
+
+        @Override
+        protected void rebuildResources() {}
+    }
+
+    private ClipCache cache(long maxBytes, AudioAsset... assets) {
+        ClipCache cache = new ClipCache();
+        for (AudioAsset asset : assets) {
+            cache.add(asset);
+        }
+        cache.setMaxBytes(maxBytes);
+        return cache;
+    }
+
+    @Test
+    public void trim_evictsLeastRecentlyUsedFirst() throws Exception {
+        TestAsset first = new TestAsset("first", 100, 0);
+        TestAsset second = new TestAsset("second", 100, 0);
+        TestAsset third = new TestAsset("third", 100, 0);
+        ClipCache cache = cache(150, first, second, third);
+        cache.touch(first);
+        cache.trim();
+        assertEquals(Arrays.asList("second", "third"), evictions);
+        assertEquals(100, cache.getResidentBytes());
+        assertFalse(first.isEvicted());
+    }
+
+    @Test
+    public void trim_evictsLowerCachePrioritiesFirst() throws Exception {
+        TestAsset kept = new TestAsset("kept", 100, 5);
+        TestAsset recent = new TestAsset("recent", 100, 1);
+        TestAsset older = new TestAsset("older", 100, 1);
+        ClipCache cache = cache(100, kept, older, recent);
+        cache.trim();
+        assertEquals(Arrays.asList("older", "recent"), evictions);
+        assertFalse(kept.isEvicted());
+    }
+
+    @Test
+    public void trim_skipsAssetsInUse() throws Exception {
+        TestAsset playing = new TestAsset("playing", 100, 0);
+        TestAsset played = new TestAsset("played", 100, 0);
+        TestAsset idle = new TestAsset("idle", 100, 0);
+        playing.idle = false;
+        played.lastUsedAt = 0;
+        ClipCache cache = cache(250, playing, played, idle);
+        cache.trim();
+        assertEquals(Arrays.asList("idle"), evictions);
+        assertEquals(200, cache.getResidentBytes());
+    }
+
+    @Test
+    public void trim_skipsPinnedAssets() throws Exception {
+        TestAsset pinned = new TestAsset("pinned", 100, 0);
+        TestAsset other = new TestAsset("other", 100, 0);
+        pinned.setPinned(true);
+        ClipCache cache = cache(50, pinned, other);
+        cache.trim();
+        assertEquals(Arrays.asList("other"), evictions);
+        assertFalse(pinned.isEvicted());
+    }
+
+    @Test
+    public void trim_stopsOnceUnderBudget() throws Exception {
+        TestAsset large = new TestAsset("large", 300, 0);
+        TestAsset small = new TestAsset("small", 50, 0);
+        ClipCache cache = cache(100, large, small);
+        cache.trim();
+        assertEquals(Arrays.asList("large"), evictions);
+        assertEquals(50, cache.getResidentBytes());
+    }
+
+    @Test
+    public void trim_keepsEverythingWithoutABudget() throws Exception {
+        ClipCache cache = cache(0, new TestAsset("a", 100, 0), new TestAsset("b", 100, 0));
+        cache.trim();
+        assertTrue(evictions.isEmpty());
+        assertEquals(200, cache.getResidentBytes());
+    }
+
+    @Test
+    public void add_ignoresAssetsWithoutResidentMemory() throws Exception {
+        TestAsset empty = new TestAsset("empty", 0, 0);
+        ClipCache cache = cache(1, empty, new TestAsset("counted", 10, 0));
+        cache.trim();
+        assertEquals(Arrays.asList("counted"), evictions);
+        assertFalse(empty.isEvicted());
+    }
+}
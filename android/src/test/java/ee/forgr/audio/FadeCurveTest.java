@@ -0,0 +1,69 @@
+package ee.forgr.audio;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FadeCurveTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    @Test
+    public void fades_reachTheirEndpoints() {
+        for (FadeCurve curve : FadeCurve.values()) {
+            assertEquals(curve.name(), 0.2f, curve.apply(0.2f, 0.8f, 0f), 0f);
+            assertEquals(curve.name(), 0.8f, curve.apply(0.2f, 0.8f, 1f), 0f);
+            assertEquals(curve.name(), 0.8f, curve.apply(0.8f, 0.2f, 0f), 0f);
+            assertEquals(curve.name(), 0.2f, curve.apply(0.8f, 0.2f, 1f), 0f);
+        }
+    }
+
+    @Test
+    public void fallingFade_readsTheRisingTableBackwards() {
+        for (FadeCurve curve : FadeCurve.values()) {
+            for (int i = 0; i <= 100; i++) {
+                float progress = i / 100f;
+                assertEquals(curve.name() + " at " + progress, curve.apply(0f, 1f, 1f - progress), curve.apply(1f, 0f, progress), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void equalPower_keepsPowerConstantAcrossACrossfade() {
+        for (int i = 0; i <= 100; i++) {
+            float progress = i / 100f;
+            float out = FadeCurve.EQUAL_POWER.apply(1f, 0f, progress);
+            float in = FadeCurve.EQUAL_POWER.apply(0f, 1f, progress);
+            assertEquals("cosine fade out at " + progress, Math.cos((progress * Math.PI) / 2), out, EPSILON);
+            assertEquals("power at " + progress, 1f, out * out + in * in, EPSILON);
+        }
+    }
+
+    @Test
+    public void exponentialFadeOut_dropsFastThenTailsOff() {
+        float early = FadeCurve.EXPONENTIAL.apply(1f, 0f, 0.1f);
+        float late = FadeCurve.EXPONENTIAL.apply(1f, 0f, 0.9f);
+        assertTrue("early drop " + early, early < FadeCurve.LINEAR.apply(1f, 0f, 0.1f) - 0.2f);
+        assertTrue("tail " + late, late > 0f && late < 0.01f);
+    }
+
+    @Test
+    public void shapes_riseMonotonically() {
+        for (FadeCurve curve : FadeCurve.values()) {
+            float previous = 0f;
+            for (int i = 1; i <= 1000; i++) {
+                float value = curve.shape(i / 1000f);
+                assertTrue(curve.name() + " at " + i, value >= previous);
+                previous = value;
+            }
+        }
+    }
+
+    @Test
+    public void fromString_fallsBackOnUnknownNames() {
+        assertEquals(FadeCurve.EQUAL_POWER, FadeCurve.fromString("equalPower", FadeCurve.LINEAR));
+        assertEquals(FadeCurve.S_CURVE, FadeCurve.fromString("sCurve", FadeCurve.LINEAR));
+        assertEquals(FadeCurve.LINEAR, FadeCurve.fromString("cubic", FadeCurve.LINEAR));
+        assertEquals(FadeCurve.EXPONENTIAL, FadeCurve.fromString(null, FadeCurve.EXPONENTIAL));
+    }
+}
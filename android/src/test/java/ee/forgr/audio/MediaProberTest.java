@@ -0,0 +1,237 @@
+package ee.forgr.audio;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class MediaProberTest {
+
+    private static class ByteSource extends MediaProber.Source {
+
+        private final byte[] data;
+
+        ByteSource(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long length() {
+            return data.length;
+        }
+
+        @Override
+        protected int fetch(long position, byte[] buffer, int offset, int count) {
+            if (position >= data.length) {
+                return -1;
+            }
+            int n = (int) Math.min(count, data.length - position);
+            System.arraycopy(data, (int) position, buffer, offset, n);
+            return n;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private static class Bytes {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Bytes tag(String tag) {
+            byte[] bytes = tag.getBytes(StandardCharsets.US_ASCII);
+            out.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        Bytes bytes(int... values) {
+            for (int value : values) {
+                out.write(value);
+            }
+            return this;
+        }
+
+        Bytes zeros(int count) {
+            return bytes(new int[count]);
+        }
+
+        Bytes le16(int value) {
+            return bytes(value & 0xFF, (value >> 8) & 0xFF);
+        }
+
+        Bytes le32(long value) {
+            return le16((int) value).le16((int) (value >> 16));
+        }
+
+        Bytes le64(long value) {
+            return le32(value).le32(value >> 32);
+        }
+
+        Bytes be16(int value) {
+            return bytes((value >> 8) & 0xFF, value & 0xFF);
+        }
+
+        Bytes be32(long value) {
+            return be16((int) (value >> 16)).be16((int) value);
+        }
+
+        Bytes append(byte[] data) {
+            out.write(data, 0, data.length);
+            return this;
+        }
+
+        byte[] build() {
+            return out.toByteArray();
+        }
+    }
+
+    private static MediaProber.MediaInfo probe(byte[] data) throws IOException {
+        try (ByteSource source = new ByteSource(data)) {
+            return MediaProber.probe(source);
+        }
+    }
+
+    private static byte[] wav(long declaredDataSize, int dataBytes) {
+        return new Bytes()
+            .tag("RIFF")
+            .le32(0)
+            .tag("WAVE")
+            .tag("fmt ")
+            .le32(16)
+            .le16(1)
+            .le16(2)
+            .le32(44100)
+            .le32(44100 * 4)
+            .le16(4)
+            .le16(16)
+            // Odd sized chunk, followed by a pad byte
+            .tag("LIST")
+            .le32(3)
+            .zeros(4)
+            .tag("data")
+            .le32(declaredDataSize)
+            .zeros(dataBytes)
+            .build();
+    }
+
+    @Test
+    public void wav_durationFromTheDataChunk() throws IOException {
+        MediaProber.MediaInfo info = probe(wav(44100 * 4, 44100 * 4));
+        assertEquals(1000000L, info.getDurationUs());
+        assertEquals(44100, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+    }
+
+    @Test
+    public void wav_streamedSizeFallsBackToTheFileLength() throws IOException {
+        assertEquals(500000L, probe(wav(0xFFFFFFFFL, 44100 * 2)).getDurationUs());
+    }
+
+    @Test
+    public void mp3_constantBitrateAfterAnId3Tag() throws IOException {
+        // MPEG 1 layer III, 128 kbps, 44.1 kHz, joint stereo
+        byte[] data = new Bytes()
+            .tag("ID3")
+            .bytes(4, 0, 0, 0, 0, 0, 20)
+            .zeros(20)
+            .bytes(0xFF, 0xFB, 0x90, 0x64)
+            .zeros(16000 - 4)
+            .build();
+        MediaProber.MediaInfo info = probe(data);
+        assertEquals(1000000L, info.getDurationUs());
+        assertEquals(44100, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+    }
+
+    @Test
+    public void mp3_frameCountFromTheXingHeader() throws IOException {
+        // Mono MPEG 1 layer III, the Xing header follows 17 bytes of side information
+        byte[] data = new Bytes()
+            .bytes(0xFF, 0xFB, 0x90, 0xC4)
+            .zeros(17)
+            .tag("Xing")
+            .be32(1)
+            .be32(100)
+            .zeros(400)
+            .build();
+        MediaProber.MediaInfo info = probe(data);
+        assertEquals((100L * 1152 * 1000000L) / 44100, info.getDurationUs());
+        assertEquals(1, info.getChannels());
+    }
+
+    private static byte[] box(String type, byte[]... children) {
+        Bytes content = new Bytes();
+        for (byte[] child : children) {
+            content.append(child);
+        }
+        byte[] body = content.build();
+        return new Bytes().be32(8 + body.length).tag(type).append(body).build();
+    }
+
+    @Test
+    public void mp4_moovAfterTheMediaData() throws IOException {
+        byte[] mvhd = box("mvhd", new Bytes().zeros(12).be32(1000).be32(2500).zeros(80).build());
+        byte[] hdlr = box("hdlr", new Bytes().zeros(8).tag("soun").zeros(12).build());
+        byte[] entry = new Bytes().be32(36).tag("mp4a").zeros(16).be16(2).be16(16).zeros(4).be16(48000).be16(0).build();
+        byte[] stsd = box("stsd", new Bytes().zeros(4).be32(1).append(entry).build());
+        byte[] trak = box("trak", box("mdia", hdlr, box("minf", box("stbl", stsd))));
+        byte[] data = new Bytes()
+            .append(box("ftyp", new Bytes().tag("M4A ").zeros(4).build()))
+            .append(box("mdat", new byte[100]))
+            .append(box("moov", mvhd, trak))
+            .build();
+        MediaProber.MediaInfo info = probe(data);
+        assertEquals(2500000L, info.getDurationUs());
+        assertEquals(48000, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+        assertEquals(data.length, info.getLength());
+    }
+
+    private static Bytes oggPage(long granule, long serial, byte[] packet) {
+        return new Bytes()
+            .tag("OggS")
+            .bytes(0, granule == 0 ? 2 : 4)
+            .le64(granule)
+            .le32(serial)
+            .zeros(8)
+            .bytes(1, packet.length)
+            .append(packet);
+    }
+
+    @Test
+    public void ogg_vorbisDurationFromTheLastGranule() throws IOException {
+        byte[] head = new Bytes().bytes(1).tag("vorbis").zeros(4).bytes(2).le32(44100).zeros(16).build();
+        byte[] data = new Bytes()
+            .append(oggPage(0, 7, head).build())
+            .zeros(1000)
+            .append(oggPage(44100 * 2, 7, new byte[10]).build())
+            // A page of another stream must not be read as the end of this one
+            .append(oggPage(44100 * 9, 8, new byte[10]).build())
+            .build();
+        MediaProber.MediaInfo info = probe(data);
+        assertEquals(2000000L, info.getDurationUs());
+        assertEquals(44100, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+    }
+
+    @Test
+    public void ogg_opusSubtractsThePreSkip() throws IOException {
+        byte[] head = new Bytes().tag("OpusHead").bytes(1, 2).le16(312).le32(48000).zeros(3).build();
+        byte[] data = new Bytes()
+            .append(oggPage(0, 3, head).build())
+            .zeros(500)
+            .append(oggPage(48000 * 3 + 312, 3, new byte[10]).build())
+            .build();
+        MediaProber.MediaInfo info = probe(data);
+        assertEquals(3000000L, info.getDurationUs());
+        assertEquals(48000, info.getSampleRate());
+    }
+
+    @Test
+    public void unknownData_isNotRecognized() throws IOException {
+        assertNull(probe(new Bytes().tag("not a media file").zeros(100).build()));
+        assertNull(probe(new byte[4]));
+    }
+}
@@ -0,0 +1,140 @@
+package ee.forgr.audio;
+
+import static org.junit.Assert.*;
+
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class PcmAudioAssetTest {
+
+    private static final int SAMPLE_RATE = 1000;
+
+    private final List<AudioAsset> registered = new ArrayList<>();
+    private final List<String> completed = new ArrayList<>();
+    private final TestTrack track = new TestTrack();
+
+    private static class TestTrack extends AudioTrack {
+
+        int playState = PLAYSTATE_STOPPED;
+        int head = 0;
+
+        @SuppressWarnings("deprecation")
+        TestTrack() {
+            super(AudioManager.STREAM_MUSIC, SAMPLE_RATE, AudioFormat.CHANNEL_OUT_MONO, AudioFormat.ENCODING_PCM_16BIT, 2, MODE_STATIC);
+        }
+
+        @Override
+        public void play() {
+            playState = PLAYSTATE_PLAYING;
+        }
+
+        @Override
+        public void pause() {
+            playState = PLAYSTATE_PAUSED;
+        }
+
+        @Override
+        public void stop() {
+            playState = PLAYSTATE_STOPPED;
+        }
+
+        @Override
+        public int getPlayState() {
+            return playState;
+        }
+
+        @Override
+        public int setPlaybackHeadPosition(int positionInFrames) {
+            head = positionInFrames;
+            return SUCCESS;
+        }
+
+        @Override
+        public int getPlaybackHeadPosition() {
+            return head;
+        }
+    }
+
+    private class TestTicker extends TimeTicker {
+
+        TestTicker(NativeAudio owner) {
+            super(owner);
+        }
+
+        @Override
+        void register(AudioAsset asset) {
+            if (!registered.contains(asset)) {
+                registered.add(asset);
+            }
+        }
+
+        @Override
+        void unregister(AudioAsset asset) {
+            registered.remove(asset);
+        }
+    }
+
+    private class TestPlugin extends NativeAudio {
+
+        private final TimeTicker ticker = new TestTicker(this);
+
+        @Override
+        TimeTicker getTimeTicker() {
+            return ticker;
+        }
+
+        @Override
+        public void dispatchComplete(String assetId) {
+            completed.add(assetId);
+        }
+    }
+
+    private class TestAsset extends PcmAudioAsset {
+
+        TestAsset() throws Exception {
+            // Two seconds of mono silence
+            super(new TestPlugin(), "pcm", () -> new PcmBuffer(ByteBuffer.allocate(2 * SAMPLE_RATE * 2), SAMPLE_RATE, 1), 1f);
+        }
+
+        @Override
+        AudioTrack createTrack(PcmBuffer pcm) {
+            return track;
+        }
+    }
+
+    @Test
+    public void play_reportsTheTrackPositionOnEveryTick() throws Exception {
+        TestAsset asset = new TestAsset();
+        asset.play(0.5, 1f);
+        assertEquals(Arrays.asList(asset), registered);
+        assertEquals(0.5, asset.pollCurrentTime(), 1e-9);
+        track.head += 250;
+        assertEquals(0.75, asset.pollCurrentTime(), 1e-9);
+    }
+
+    @Test
+    public void pause_leavesTheTickerUntilResumed() throws Exception {
+        TestAsset asset = new TestAsset();
+        asset.loop();
+        assertTrue(asset.pause());
+        assertTrue(registered.isEmpty());
+        asset.resume();
+        assertEquals(Arrays.asList(asset), registered);
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    public void poll_stopsAndCompletesOnceTheTrackEnded() throws Exception {
+        TestAsset asset = new TestAsset();
+        asset.play(0, 1f);
+        track.stop();
+        assertTrue(Double.isNaN(asset.pollCurrentTime()));
+        assertEquals(Arrays.asList("pcm"), completed);
+    }
+}
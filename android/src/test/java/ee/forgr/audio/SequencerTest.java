@@ -0,0 +1,122 @@
+package ee.forgr.audio;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class SequencerTest {
+
+    private static final int BUFFER = 64;
+
+    private static class Recorder implements Sequencer.Target {
+
+        final List<Long> frames = new ArrayList<>();
+
+        @Override
+        public void trigger(long startFrame, float gain, float rate) {
+            frames.add(startFrame);
+        }
+    }
+
+    private static Sequencer.Pattern pattern(Recorder target, long length, boolean loop, long... offsets) {
+        Sequencer.Event[] events = new Sequencer.Event[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            events[i] = new Sequencer.Event(target, offsets[i], 1f, 1f);
+        }
+        return new Sequencer.Pattern(events, length, loop);
+    }
+
+    private static void render(Sequencer sequencer, long from, long to) {
+        for (long frame = from; frame < to; frame += BUFFER) {
+            sequencer.process(frame, BUFFER);
+        }
+    }
+
+    @Test
+    public void events_triggerOnTheirExactFrame() {
+        Sequencer sequencer = new Sequencer();
+        Recorder target = new Recorder();
+        sequencer.setPattern(pattern(target, 1000, false, 70, 10, 63, 64));
+        sequencer.start(5);
+        sequencer.process(0, BUFFER);
+        assertEquals(Arrays.asList(15L), target.frames);
+        sequencer.process(BUFFER, BUFFER);
+        assertEquals(Arrays.asList(15L, 68L, 69L, 75L), target.frames);
+    }
+
+    @Test
+    public void loop_restartsOnTheBoundaryInsideABuffer() {
+        Sequencer sequencer = new Sequencer();
+        Recorder target = new Recorder();
+        // Boundaries at 100, 200 and 300 all fall inside a buffer
+        sequencer.setPattern(pattern(target, 100, true, 0, 50));
+        sequencer.start(0);
+        render(sequencer, 0, 320);
+        assertEquals(Arrays.asList(0L, 50L, 100L, 150L, 200L, 250L, 300L), target.frames);
+        assertTrue(sequencer.isPlaying());
+    }
+
+    @Test
+    public void loop_shorterThanABufferTriggersEveryIteration() {
+        Sequencer sequencer = new Sequencer();
+        Recorder target = new Recorder();
+        sequencer.setPattern(pattern(target, 20, true, 5));
+        sequencer.start(0);
+        sequencer.process(0, BUFFER);
+        assertEquals(Arrays.asList(5L, 25L, 45L), target.frames);
+    }
+
+    @Test
+    public void queuedPattern_swapsAtTheEndOfTheIteration() {
+        Sequencer sequencer = new Sequencer();
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        sequencer.setPattern(pattern(first, 100, true, 0, 80));
+        sequencer.start(0);
+        sequencer.process(0, BUFFER);
+        sequencer.setPattern(pattern(second, 50, true, 10));
+        render(sequencer, BUFFER, 4 * BUFFER);
+        // The current iteration finishes, the new pattern starts on its boundary at frame 100
+        assertEquals(Arrays.asList(0L, 80L), first.frames);
+        assertEquals(Arrays.asList(110L, 160L, 210L), second.frames);
+    }
+
+    @Test
+    public void oneShotPattern_stopsAtItsEnd() {
+        Sequencer sequencer = new Sequencer();
+        Recorder target = new Recorder();
+        sequencer.setPattern(pattern(target, 100, false, 0, 90));
+        sequencer.start(0);
+        render(sequencer, 0, 4 * BUFFER);
+        assertEquals(Arrays.asList(0L, 90L), target.frames);
+        assertFalse(sequencer.isPlaying());
+    }
+
+    @Test
+    public void stop_dropsTheRemainingEvents() {
+        Sequencer sequencer = new Sequencer();
+        Recorder target = new Recorder();
+        sequencer.setPattern(pattern(target, 200, true, 10, 100));
+        sequencer.start(0);
+        sequencer.process(0, BUFFER);
+        sequencer.stop();
+        render(sequencer, BUFFER, 8 * BUFFER);
+        assertEquals(Arrays.asList(10L), target.frames);
+        assertFalse(sequencer.isPlaying());
+    }
+
+    @Test
+    public void restart_usesTheLastPatternFromItsStart() {
+        Sequencer sequencer = new Sequencer();
+        Recorder target = new Recorder();
+        sequencer.setPattern(pattern(target, 100, false, 0));
+        sequencer.start(0);
+        sequencer.process(0, BUFFER);
+        sequencer.start(1000);
+        render(sequencer, 960, 1024);
+        assertEquals(Arrays.asList(0L, 1000L), target.frames);
+    }
+}
@@ -0,0 +1,188 @@
+package ee.forgr.audio;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+public class VoiceAllocatorTest {
+
+    private static class TestVoice implements VoiceAllocator.Voice {
+
+        boolean busy;
+        final long startedAt;
+        final float volume;
+        final int priority;
+        boolean released = false;
+
+        TestVoice(boolean busy, long startedAt, float volume, int priority) {
+            this.busy = busy;
+            this.startedAt = startedAt;
+            this.volume = volume;
+            this.priority = priority;
+        }
+
+        @Override
+        public boolean isBusy() {
+            return busy;
+        }
+
+        @Override
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        @Override
+        public float getVolume() {
+            return volume;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void release() {
+            busy = false;
+            released = true;
+        }
+    }
+
+    private final List<TestVoice> admitted = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (TestVoice voice : admitted) {
+            VoiceAllocator.forget(voice);
+        }
+        VoiceAllocator.setGlobalLimit(0);
+        VoiceAllocator.setMixerVoices(Collections.emptyList());
+    }
+
+    private boolean admit(TestVoice voice, VoiceAllocator.StealPolicy policy, int priority) {
+        admitted.add(voice);
+        return VoiceAllocator.admit(voice, policy, priority);
+    }
+
+    @Test
+    public void allocate_prefersAFreeVoice() {
+        TestVoice busy = new TestVoice(true, 1, 1f, 1);
+        TestVoice free = new TestVoice(false, 2, 1f, 1);
+        assertSame(free, VoiceAllocator.allocate(Arrays.asList(busy, free), VoiceAllocator.StealPolicy.REJECT, 1));
+    }
+
+    @Test
+    public void oldest_stealsTheEarliestStartedVoice() {
+        TestVoice newer = new TestVoice(true, 30, 0.1f, 1);
+        TestVoice oldest = new TestVoice(true, 10, 1f, 1);
+        TestVoice middle = new TestVoice(true, 20, 0.5f, 1);
+        List<TestVoice> pool = Arrays.asList(newer, oldest, middle);
+        assertSame(oldest, VoiceAllocator.allocate(pool, VoiceAllocator.StealPolicy.OLDEST, 1));
+    }
+
+    @Test
+    public void quietest_stealsTheLowestVolumeThenTheOldest() {
+        TestVoice loud = new TestVoice(true, 10, 1f, 1);
+        TestVoice quietNewer = new TestVoice(true, 30, 0.2f, 1);
+        TestVoice quietOlder = new TestVoice(true, 20, 0.2f, 1);
+        List<TestVoice> pool = Arrays.asList(loud, quietNewer, quietOlder);
+        assertSame(quietOlder, VoiceAllocator.allocate(pool, VoiceAllocator.StealPolicy.QUIETEST, 1));
+    }
+
+    @Test
+    public void lowestPriority_neverStealsAHigherPriorityVoice() {
+        TestVoice high = new TestVoice(true, 10, 1f, 5);
+        TestVoice low = new TestVoice(true, 30, 1f, 1);
+        TestVoice lowOlder = new TestVoice(true, 20, 1f, 1);
+        List<TestVoice> pool = Arrays.asList(high, low, lowOlder);
+        assertSame(lowOlder, VoiceAllocator.allocate(pool, VoiceAllocator.StealPolicy.LOWEST_PRIORITY, 3));
+        assertNull(VoiceAllocator.allocate(Collections.singletonList(high), VoiceAllocator.StealPolicy.LOWEST_PRIORITY, 3));
+    }
+
+    @Test
+    public void reject_neverSteals() {
+        List<TestVoice> pool = Collections.singletonList(new TestVoice(true, 10, 1f, 1));
+        assertNull(VoiceAllocator.allocate(pool, VoiceAllocator.StealPolicy.REJECT, 10));
+    }
+
+    @Test
+    public void globalLimit_stealsAcrossAssetsInPolicyOrder() {
+        VoiceAllocator.setGlobalLimit(2);
+        TestVoice first = new TestVoice(true, 10, 1f, 1);
+        TestVoice second = new TestVoice(true, 20, 1f, 1);
+        assertTrue(admit(first, VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertTrue(admit(second, VoiceAllocator.StealPolicy.OLDEST, 1));
+        TestVoice third = new TestVoice(true, 30, 1f, 1);
+        assertTrue(admit(third, VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertTrue(first.released);
+        assertFalse(second.released);
+    }
+
+    @Test
+    public void globalLimit_reclaimsEndedVoicesBeforeStealing() {
+        VoiceAllocator.setGlobalLimit(1);
+        TestVoice ended = new TestVoice(true, 10, 1f, 1);
+        assertTrue(admit(ended, VoiceAllocator.StealPolicy.REJECT, 1));
+        ended.busy = false;
+        assertTrue(admit(new TestVoice(true, 20, 1f, 1), VoiceAllocator.StealPolicy.REJECT, 1));
+        assertFalse(ended.released);
+    }
+
+    @Test
+    public void globalLimit_rejectsWhenThePolicyDoes() {
+        VoiceAllocator.setGlobalLimit(1);
+        TestVoice playing = new TestVoice(true, 10, 1f, 1);
+        assertTrue(admit(playing, VoiceAllocator.StealPolicy.REJECT, 1));
+        assertFalse(admit(new TestVoice(true, 20, 1f, 1), VoiceAllocator.StealPolicy.REJECT, 1));
+        assertFalse(playing.released);
+    }
+
+    @Test
+    public void globalLimit_countsAndStealsMixerVoices() {
+        TestVoice mixerVoice = new TestVoice(true, 10, 1f, 1);
+        TestVoice idleMixerVoice = new TestVoice(false, 0, 1f, 1);
+        VoiceAllocator.setMixerVoices(Arrays.asList(mixerVoice, idleMixerVoice));
+        VoiceAllocator.setGlobalLimit(2);
+        TestVoice player = new TestVoice(true, 20, 1f, 1);
+        assertTrue(admit(player, VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertTrue(admit(new TestVoice(true, 30, 1f, 1), VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertTrue(mixerVoice.released);
+        assertFalse(player.released);
+    }
+
+    @Test
+    public void admitInline_stealsOnlyMixerVoices() {
+        TestVoice older = new TestVoice(true, 10, 1f, 1);
+        TestVoice newer = new TestVoice(true, 20, 1f, 1);
+        TestVoice starting = new TestVoice(false, 0, 1f, 1);
+        List<TestVoice> mixer = Arrays.asList(older, newer, starting);
+        VoiceAllocator.setMixerVoices(mixer);
+        VoiceAllocator.setGlobalLimit(2);
+        assertTrue(VoiceAllocator.admitInline(starting, mixer, VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertTrue(older.released);
+        assertFalse(newer.released);
+        // Back under the limit, nothing else is stolen
+        assertTrue(VoiceAllocator.admitInline(starting, mixer, VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertFalse(newer.released);
+    }
+
+    @Test
+    public void admitInline_leavesLedgerStealsToTheAudioThread() {
+        TestVoice player = new TestVoice(true, 10, 1f, 1);
+        TestVoice starting = new TestVoice(false, 0, 1f, 1);
+        List<TestVoice> mixer = Collections.singletonList(starting);
+        VoiceAllocator.setMixerVoices(mixer);
+        VoiceAllocator.setGlobalLimit(1);
+        assertTrue(admit(player, VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertTrue(VoiceAllocator.admitInline(starting, mixer, VoiceAllocator.StealPolicy.OLDEST, 1));
+        assertFalse(player.released);
+        starting.busy = true;
+        VoiceAllocator.runPendingSteal();
+        assertTrue(player.released);
+    }
+}
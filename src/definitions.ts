@@ -16,6 +16,11 @@ export interface Assets {
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
 }
 
 export interface AssetVolume {
@@ -23,6 +28,11 @@ export interface AssetVolume {
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
   /**
    * Volume of the audio, between 0.1 and 1.0
    */
@@ -31,6 +41,11 @@ export interface AssetVolume {
    * Time over which to fade to the target volume, in seconds. Default is 0s (immediate).
    */
   duration?: number;
+  /**
+   * Shape of the fade. Default is `exponential`.
+   * Android only.
+   */
+  curve?: FadeCurve;
 }
 
 export interface AssetRate {
@@ -38,6 +53,11 @@ export interface AssetRate {
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
   /**
    * Rate of the audio, between 0.1 and 1.0
    */
@@ -49,17 +69,340 @@ export interface AssetSetTime {
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
   /**
    * Time to set the audio, in seconds
    */
   time: number;
 }
 
+export interface AssetPlayAtOptions {
+  /**
+   * Asset Id, unique identifier of the file
+   */
+  assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
+  /**
+   * Time on the audio clock at which playback starts, in seconds. See `getAudioTime`.
+   * Assets of the `mixer` engine start on this exact frame, and several of them given the same
+   * time start together. Other engines fall back to a delayed `play`.
+   */
+  when: number;
+  /**
+   * Time to start playing the audio, in seconds
+   */
+  time?: number;
+  /**
+   * Volume of the audio, between 0.1 and 1.0
+   */
+  volume?: number;
+}
+
+export interface SequencerEvent {
+  /**
+   * Asset Id of an asset preloaded with the `mixer` engine
+   */
+  assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
+  /**
+   * Start of the event from the beginning of the pattern, in seconds
+   */
+  offset: number;
+  /**
+   * Volume of the event, between 0.1 and 1.0. Default is 1.
+   */
+  volume?: number;
+  /**
+   * Playback rate of the event. Default is 1.
+   */
+  rate?: number;
+}
+
+export interface SequencerPattern {
+  /**
+   * Events of the pattern, in any order
+   */
+  events: SequencerEvent[];
+  /**
+   * Length of the pattern in seconds, the next iteration starts after it.
+   * Required to loop, the call is rejected without it. Default is the offset of the last event when not looping.
+   */
+  length?: number;
+  /**
+   * Whether the pattern loops. Default is true.
+   */
+  loop?: boolean;
+}
+
+export interface SequencerStartOptions {
+  /**
+   * Time on the audio clock at which the pattern starts, in seconds. Default is now.
+   */
+  when?: number;
+}
+
+export interface CrossfadeOptions {
+  /**
+   * Asset Id of the playing asset, faded out then stopped
+   */
+  fromAssetId: string;
+  /**
+   * Handle returned by `preload` for the playing asset, used instead of `fromAssetId` when set.
+   * Android only.
+   */
+  fromHandle?: number;
+  /**
+   * Asset Id of the asset started when the crossfade begins and faded in
+   */
+  toAssetId: string;
+  /**
+   * Handle returned by `preload` for the incoming asset, used instead of `toAssetId` when set.
+   * Android only.
+   */
+  toHandle?: number;
+  /**
+   * Crossfade duration in seconds. Default is 1s.
+   */
+  duration?: number;
+  /**
+   * Gain curve. `equalPower` keeps the perceived loudness constant during the crossfade. Default is `equalPower`.
+   */
+  curve?: FadeCurve;
+  /**
+   * Final volume of the incoming asset, between 0.1 and 1.0. Default is 1.
+   */
+  volume?: number;
+}
+
+export interface BatchOperation {
+  /**
+   * Operation to apply. Options match the ones of the method of the same name, `seek` matches `setCurrentTime`.
+   */
+  type: 'play' | 'stop' | 'setVolume' | 'setRate' | 'seek';
+  /**
+   * Asset Id, unique identifier of the file
+   */
+  assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
+  /**
+   * Start time for `play`, target time for `seek`, in seconds
+   */
+  time?: number;
+  /**
+   * Volume for `play` and `setVolume`, between 0.1 and 1.0
+   */
+  volume?: number;
+  /**
+   * Fade duration for `setVolume`, in seconds
+   */
+  duration?: number;
+  /**
+   * Rate for `setRate`
+   */
+  rate?: number;
+  /**
+   * Whether `stop` fades out first
+   */
+  fadeOut?: boolean;
+  /**
+   * Fade out duration for `stop`, in seconds. Default is 1s.
+   */
+  fadeOutDuration?: number;
+  /**
+   * Fade curve for `stop` and `setVolume`
+   */
+  curve?: FadeCurve;
+}
+
+export interface BatchOptions {
+  operations: BatchOperation[];
+}
+
+export interface QueueOptions {
+  /**
+   * Asset Id of the queue, used with `play`, `pause`, `stop`, `unload`... like any other asset
+   */
+  assetId: string;
+  /**
+   * Urls of the tracks, remote (https://) or local (file://)
+   */
+  items: string[];
+  /**
+   * Volume of the queue, between 0.1 and 1.0
+   */
+  volume?: number;
+  /**
+   * Group of the queue, see {@link PreloadOptions.group}
+   */
+  group?: string;
+}
+
+export interface GroupOptions {
+  /**
+   * Name of the group
+   */
+  group: string;
+}
+
+export interface GroupVolumeOptions {
+  /**
+   * Name of the group
+   */
+  group: string;
+  /**
+   * Volume of the group, between 0 and 1.0. It multiplies the volume of every asset of the group.
+   */
+  volume: number;
+  /**
+   * Time over which to fade to the target volume, in seconds. Default is 0s (immediate).
+   */
+  duration?: number;
+  /**
+   * Shape of the fade. Default is `exponential`.
+   */
+  curve?: FadeCurve;
+}
+
+export interface GroupMuteOptions {
+  /**
+   * Name of the group
+   */
+  group: string;
+  /**
+   * Whether the group is muted. Default is true.
+   */
+  muted?: boolean;
+}
+
+export interface QueueAddOptions {
+  /**
+   * Asset Id of the queue
+   */
+  assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
+  /**
+   * Urls of the tracks to add
+   */
+  items: string[];
+  /**
+   * Position at which the tracks are inserted. Default is the end of the queue.
+   */
+  index?: number;
+}
+
+export interface QueueIndexOptions {
+  /**
+   * Asset Id of the queue
+   */
+  assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
+  /**
+   * Position of a track in the queue. For `skipQueue`, default is the next track.
+   */
+  index?: number;
+}
+
+export interface QueueItemChangedEvent {
+  /**
+   * Asset Id of the queue
+   */
+  assetId: string;
+  /**
+   * Position of the track now playing
+   */
+  index: number;
+}
+
+export type QueueItemChangedListener = (state: QueueItemChangedEvent) => void;
+
+export interface PreloadHandle {
+  /**
+   * Handle of the asset, accepted by every method in place of `assetId`. Android only.
+   */
+  handle?: number;
+}
+
+export interface PreloadResult extends PreloadHandle {
+  /**
+   * Whether the asset is ready to play
+   */
+  loaded: boolean;
+  /**
+   * Reason of the failure
+   */
+  error?: string;
+}
+
+export interface PreloadProgressEvent extends PreloadResult {
+  /**
+   * Asset Id of the asset just loaded, or its index in the manifest when the id is missing
+   */
+  assetId: string;
+  /**
+   * Number of assets loaded or failed so far
+   */
+  completed: number;
+  /**
+   * Number of assets in the manifest
+   */
+  total: number;
+}
+
+export type PreloadProgressListener = (state: PreloadProgressEvent) => void;
+
+export interface AssetMetadata {
+  /**
+   * Duration in seconds, 0 when the headers don't tell it
+   */
+  duration: number;
+  /**
+   * Duration in microseconds
+   */
+  durationUs: number;
+  /**
+   * Sample rate in Hz
+   */
+  sampleRate: number;
+  /**
+   * Number of channels
+   */
+  channels: number;
+}
+
 export interface AssetPlayOptions {
   /**
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
   /**
    * Time to start playing the audio, in seconds
    */
@@ -104,6 +447,12 @@ export interface AssetPlayOptions {
    * Default is fadeOutDuration before end of audio.
    */
   fadeOutStartTime?: number;
+
+  /**
+   * Shape of the fade in and fade out. Default is `linear`.
+   * Android only.
+   */
+  curve?: FadeCurve;
 }
 
 export interface AssetStopOptions {
@@ -111,6 +460,11 @@ export interface AssetStopOptions {
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
 
   /**
    * Whether to fade out the audio before stopping
@@ -122,6 +476,12 @@ export interface AssetStopOptions {
    * Default is 1s.
    */
   fadeOutDuration?: number;
+
+  /**
+   * Shape of the fade out. Default is `linear`.
+   * Android only.
+   */
+  curve?: FadeCurve;
 }
 
 export interface AssetPauseOptions {
@@ -129,6 +489,11 @@ export interface AssetPauseOptions {
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
 
   /**
    * Whether to fade out the audio before pausing
@@ -140,6 +505,12 @@ export interface AssetPauseOptions {
    * Default is 1s.
    */
   fadeOutDuration?: number;
+
+  /**
+   * Shape of the fade out. Default is `linear`.
+   * Android only.
+   */
+  curve?: FadeCurve;
 }
 
 export interface AssetResumeOptions {
@@ -147,6 +518,11 @@ export interface AssetResumeOptions {
    * Asset Id, unique identifier of the file
    */
   assetId: string;
+  /**
+   * Handle returned by `preload`, used instead of `assetId` when set so the asset is found without any lookup.
+   * Android only.
+   */
+  handle?: number;
 
   /**
    * Whether to fade in the audio during resume
@@ -158,6 +534,12 @@ export interface AssetResumeOptions {
    * Default is 1s.
    */
   fadeInDuration?: number;
+
+  /**
+   * Shape of the fade in. Default is `linear`.
+   * Android only.
+   */
+  curve?: FadeCurve;
 }
 
 export interface ConfigureOptions {
@@ -173,8 +555,218 @@ export interface ConfigureOptions {
    * Ignore silent mode, works only on iOS setting this will nuke other audio apps
    */
   ignoreSilent?: boolean;
+  /**
+   * Maximum number of simultaneous streams of the shared SoundPool used by the `soundpool` engine.
+   * Must be set before the first `soundpool` asset is preloaded. Default is 32.
+   * Android only.
+   */
+  maxStreams?: number;
+  /**
+   * Maximum number of voices playing or paused at the same time across every asset, 0 for no limit.
+   * When the limit is reached a voice is stolen following the `stealPolicy` of the new trigger.
+   * Default is 0. Android only.
+   */
+  maxVoices?: number;
+  /**
+   * Default voice steal policy for assets that do not set their own. Default is `oldest`.
+   * Android only.
+   */
+  stealPolicy?: StealPolicy;
+  /**
+   * Number of `timeUpdate` and `currentTime` events per second while assets play, 0 turns them off.
+   * Default is 10. Android only.
+   */
+  timeUpdateRate?: number;
+  /**
+   * On-disk cache of remote files. Android only.
+   */
+  cache?: CacheOptions;
+  /**
+   * HTTP connections shared by every remote asset, stream, queue and prefetch. Android only.
+   */
+  http?: HttpOptions;
+  /**
+   * On-disk cache of audio decoded by the `pcm` and `mixer` engines, reused across launches. Android only.
+   */
+  pcmCache?: PcmCacheOptions;
+  /**
+   * Memory budget of the audio held by loaded `mediaplayer`, `pcm` and `mixer` assets. Android only.
+   */
+  memoryCache?: MemoryCacheOptions;
 }
 
+export interface MemoryCacheOptions {
+  /**
+   * Maximum bytes of decoded or prepared audio kept in memory, applied right away. When it is exceeded,
+   * idle assets are released, lowest `cachePriority` first then least recently played, and rebuilt
+   * on their next play. Default is 0, which keeps every asset in memory until it is unloaded.
+   */
+  maxSize?: number;
+}
+
+export interface PcmCacheOptions {
+  /**
+   * Maximum size in bytes, least recently used files are deleted first. `0` disables the cache and deletes its files.
+   * Default is 256 MB.
+   */
+  maxSize?: number;
+}
+
+export interface HttpOptions {
+  /**
+   * Connect timeout in seconds. Default is 15.
+   */
+  connectTimeout?: number;
+  /**
+   * Read timeout in seconds. Default is 15.
+   */
+  readTimeout?: number;
+  /**
+   * Maximum number of background downloads (`prefetch`, header probes) at once,
+   * and of idle connections kept alive for reuse. Default is 8.
+   * The keep-alive pool size only applies when set before the first remote asset is preloaded. It is the process-wide
+   * `http.maxConnections` system property and is left unchanged when the app already set it.
+   */
+  maxConnections?: number;
+  /**
+   * User agent sent with every request
+   */
+  userAgent?: string;
+}
+
+export interface CacheOptions {
+  /**
+   * Maximum size in bytes, applied right away. Default is 100 MB.
+   */
+  maxSize?: number;
+  /**
+   * Absolute path, or name of a folder in the app cache directory. Default is `media`.
+   * Applies when the cache is opened: before the first remote asset is preloaded, or after `clearCache`.
+   */
+  directory?: string;
+  /**
+   * Which files are evicted first once the cache is full. Applies when the cache is opened, like `directory`.
+   * Default is `lru`.
+   */
+  evictionPolicy?: CacheEvictionPolicy;
+}
+
+/**
+ * Order in which cached files are evicted, pinned URLs are always kept:
+ * - `lru`: least recently read first
+ * - `fifo`: first cached first
+ * - `none`: never evict, `maxSize` is ignored
+ */
+export type CacheEvictionPolicy = 'lru' | 'fifo' | 'none';
+
+export interface CachePinOptions {
+  /**
+   * Remote URL, as passed to `preload` or `createQueue`
+   */
+  url: string;
+}
+
+export interface PrefetchOptions {
+  /**
+   * Remote URLs to download into the cache
+   */
+  urls: string[];
+  /**
+   * URLs with a higher priority are downloaded first. Default is 0.
+   */
+  priority?: number;
+}
+
+export interface CancelPrefetchOptions {
+  /**
+   * URLs to cancel, every prefetch when omitted
+   */
+  urls?: string[];
+}
+
+export interface PrefetchProgressEvent {
+  /**
+   * URL being downloaded
+   */
+  url: string;
+  /**
+   * Bytes of the file in the cache so far
+   */
+  bytesCached: number;
+  /**
+   * Size of the file in bytes, -1 when unknown
+   */
+  length: number;
+  /**
+   * Whether the whole file is cached
+   */
+  done: boolean;
+  /**
+   * Set when the prefetch was cancelled
+   */
+  cancelled?: boolean;
+  /**
+   * Reason of the failure
+   */
+  error?: string;
+}
+
+export type PrefetchProgressListener = (state: PrefetchProgressEvent) => void;
+
+export interface CacheStats {
+  /**
+   * Bytes stored on disk
+   */
+  bytesUsed: number;
+  /**
+   * Size limit in bytes
+   */
+  maxBytes: number;
+  /**
+   * Number of cached URLs
+   */
+  entries: number;
+  /**
+   * Number of pinned URLs
+   */
+  pinned: number;
+  /**
+   * Reads served at least partly from the cache
+   */
+  hits: number;
+  /**
+   * Requests sent to the network
+   */
+  misses: number;
+  /**
+   * Bytes read from the cache
+   */
+  cacheBytes: number;
+  /**
+   * Bytes downloaded from the network
+   */
+  networkBytes: number;
+}
+
+/**
+ * What happens when a trigger needs a voice and every voice is busy:
+ * - `oldest`: stop the voice that was started first
+ * - `quietest`: stop the voice with the lowest volume
+ * - `priority`: stop the voice with the lowest priority, never one above the new trigger's priority
+ * - `reject`: keep the playing voices and fail the trigger
+ */
+export type StealPolicy = 'oldest' | 'quietest' | 'priority' | 'reject';
+
+/**
+ * Shape of a volume fade:
+ * - `linear`: constant change of the gain
+ * - `exponential`: constant change in decibels, heard as an even fade
+ * - `equalPower`: sine fade in and cosine fade out, keeping the loudness of a crossfade constant
+ * - `logarithmic`: fast change at the start of a fade in, at the end of a fade out
+ * - `sCurve`: slow at both ends, fast in the middle
+ */
+export type FadeCurve = 'linear' | 'exponential' | 'equalPower' | 'logarithmic' | 'sCurve';
+
 export interface PreloadOptions {
   /**
    * Path to the audio file, relative path of the file, absolute url (file://) or remote url (https://)
@@ -192,7 +784,9 @@ export interface PreloadOptions {
    */
   volume?: number;
   /**
-   * Audio channel number, default is 1
+   * Audio channel number, default is 1.
+   * This is the number of voices of the asset that can play at the same time, a new trigger
+   * takes a free voice first and otherwise steals one following `stealPolicy`.
    */
   audioChannelNum?: number;
   /**
@@ -200,6 +794,70 @@ export interface PreloadOptions {
    * or a streaming URL (m3u8)
    */
   isUrl?: boolean;
+  /**
+   * Playback engine used for local assets. Android only.
+   * - `mediaplayer`: one MediaPlayer per channel (default)
+   * - `soundpool`: shared SoundPool, for short sound effects that need to start in a few milliseconds.
+   *   Seeking is not supported.
+   * - `pcm`: decoded once at preload and played from memory through a single AudioTrack,
+   *   so playback starts without any decoding. Best for short, frequently triggered clips.
+   * - `mixer`: decoded once at preload and played as a voice of a shared software mixer with a single
+   *   output stream. Loaded assets hold no native player. `audioChannelNum` sets how many voices of
+   *   the asset may overlap.
+   */
+  engine?: 'mediaplayer' | 'soundpool' | 'pcm' | 'mixer';
+  /**
+   * Voice priority used by the `priority` steal policy. For the `soundpool` engine this is the
+   * native stream priority: when every stream is busy, a new trigger steals the lowest priority stream.
+   * Default is 1. Android only.
+   */
+  priority?: number;
+  /**
+   * Assets with a lower cache priority are released first when the `memoryCache` budget is exceeded.
+   * Default is 0. Android only.
+   */
+  cachePriority?: number;
+  /**
+   * Start of the region repeated by `loop`, in seconds. Playback starts at the beginning of the
+   * audio and then repeats the region from decoded memory without any gap.
+   * Only for the `pcm` and `mixer` engines. Default is 0. Android only.
+   */
+  loopStart?: number;
+  /**
+   * End of the region repeated by `loop`, in seconds. Default is the end of the audio.
+   * Only for the `pcm` and `mixer` engines. Android only.
+   */
+  loopEnd?: number;
+  /**
+   * Drop the encoder delay and padding reported by the file (the silence MP3 and AAC encoders add)
+   * when decoding, so loops of the whole file are gapless.
+   * Only for the `pcm` and `mixer` engines. Default is false. Android only.
+   */
+  trimEncoderGaps?: boolean;
+  /**
+   * Steal policy of this asset, defaults to the one set with `configure`.
+   * Not used by the `soundpool` engine, which always steals by priority. Android only.
+   */
+  stealPolicy?: StealPolicy;
+  /**
+   * Group of the asset, e.g. `sfx`, `music` or `voice`. The volume of the group applies on top of
+   * the volume of the asset, and the group can be paused, resumed or stopped in one call. Android only.
+   */
+  group?: string;
+}
+
+export interface PreloadManyOptions {
+  /**
+   * Assets to load, with the same options as `preload`
+   */
+  assets: PreloadOptions[];
+}
+
+export interface PreloadManyResult {
+  /**
+   * Result of every asset, by asset Id
+   */
+  results: { [assetId: string]: PreloadResult };
 }
 
 export interface CurrentTimeEvent {
@@ -217,6 +875,15 @@ export interface CurrentTimeEvent {
 
 export type CurrentTimeListener = (state: CurrentTimeEvent) => void;
 
+export interface TimeUpdateEvent {
+  /**
+   * Current time of every playing asset, all read at the same tick
+   */
+  updates: CurrentTimeEvent[];
+}
+
+export type TimeUpdateListener = (state: TimeUpdateEvent) => void;
+
 export interface NativeAudio {
   /**
    * Configure the audio player
@@ -230,9 +897,19 @@ export interface NativeAudio {
    * Load an audio file
    * @since 5.0.0
    * @param option {@link PreloadOptions}
-   * @returns
+   * @returns {Promise<PreloadHandle>}
    */
-  preload(options: PreloadOptions): Promise<void>;
+  preload(options: PreloadOptions): Promise<PreloadHandle>;
+
+  /**
+   * Load many audio files in parallel, off the UI thread, emitting `preloadProgress` as each one is ready.
+   * Failures don't reject the call, they are reported per asset.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link PreloadManyOptions}
+   * @returns {Promise<PreloadManyResult>}
+   */
+  preloadMany(options: PreloadManyOptions): Promise<PreloadManyResult>;
 
   /**
    * Check if an audio file is preloaded
@@ -251,6 +928,163 @@ export interface NativeAudio {
    */
   play(options: AssetPlayOptions): Promise<void>;
 
+  /**
+   * Play an audio file at a given time of the audio clock.
+   * Android only.
+   * @since 7.4.0
+   * @param option {@link AssetPlayAtOptions}
+   * @returns
+   */
+  playAt(options: AssetPlayAtOptions): Promise<void>;
+
+  /**
+   * Get the current time of the audio clock, in seconds, to compute `playAt` times.
+   * The clock counts output frames of the mixer and never goes backwards.
+   * Android only.
+   * @since 7.4.0
+   * @returns {Promise<{ audioTime: number }>}
+   */
+  getAudioTime(): Promise<{ audioTime: number }>;
+
+  /**
+   * Send a pattern to the sequencer. Events are scheduled on the audio thread on their exact frame,
+   * without any bridge call per event. A playing sequencer switches to the new pattern at the end
+   * of the current iteration.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link SequencerPattern}
+   * @returns {Promise<void>}
+   */
+  setPattern(options: SequencerPattern): Promise<void>;
+
+  /**
+   * Start the sequencer with the last pattern set.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link SequencerStartOptions}
+   * @returns {Promise<void>}
+   */
+  startSequencer(options?: SequencerStartOptions): Promise<void>;
+
+  /**
+   * Stop the sequencer. Voices that already started keep playing.
+   * Android only.
+   * @since 7.4.0
+   * @returns {Promise<void>}
+   */
+  stopSequencer(): Promise<void>;
+
+  /**
+   * Crossfade from a playing asset to another one. Both gains are driven from one clock,
+   * and the incoming asset starts at the moment the crossfade begins.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link CrossfadeOptions}
+   * @returns {Promise<void>}
+   */
+  crossfade(options: CrossfadeOptions): Promise<void>;
+
+  /**
+   * Apply several operations, on any mix of assets, in one call.
+   * Every asset is checked before anything is applied, and operations on mixer assets land in the same audio buffer.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link BatchOptions}
+   * @returns {Promise<void>}
+   */
+  batch(options: BatchOptions): Promise<void>;
+
+  /**
+   * Set the volume of a group. Every asset preloaded with this group follows, whatever their number.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link GroupVolumeOptions}
+   * @returns {Promise<void>}
+   */
+  setGroupVolume(options: GroupVolumeOptions): Promise<void>;
+
+  /**
+   * Mute or unmute a group, keeping its volume.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link GroupMuteOptions}
+   * @returns {Promise<void>}
+   */
+  muteGroup(options: GroupMuteOptions): Promise<void>;
+
+  /**
+   * Pause every asset of a group.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link GroupOptions}
+   * @returns {Promise<void>}
+   */
+  pauseGroup(options: GroupOptions): Promise<void>;
+
+  /**
+   * Resume every asset of a group.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link GroupOptions}
+   * @returns {Promise<void>}
+   */
+  resumeGroup(options: GroupOptions): Promise<void>;
+
+  /**
+   * Stop every asset of a group.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link GroupOptions}
+   * @returns {Promise<void>}
+   */
+  stopGroup(options: GroupOptions): Promise<void>;
+
+  /**
+   * Create a queue of tracks played back to back by a single player, without gaps between tracks.
+   * The next track is buffered while the current one plays.
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link QueueOptions}
+   * @returns {Promise<void>}
+   */
+  createQueue(options: QueueOptions): Promise<PreloadHandle>;
+
+  /**
+   * Append or insert tracks in a queue
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link QueueAddOptions}
+   * @returns {Promise<void>}
+   */
+  addToQueue(options: QueueAddOptions): Promise<void>;
+
+  /**
+   * Remove the track at `index` from a queue
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link QueueIndexOptions}
+   * @returns {Promise<void>}
+   */
+  removeFromQueue(options: QueueIndexOptions): Promise<void>;
+
+  /**
+   * Skip to the track at `index`, or to the next track
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link QueueIndexOptions}
+   * @returns {Promise<void>}
+   */
+  skipQueue(options: QueueIndexOptions): Promise<void>;
+
+  /**
+   * Get the position of the current track and the number of tracks of a queue
+   * Android only.
+   * @since 7.4.0
+   * @param options {@link Assets}
+   * @returns {Promise<{ index: number; count: number }>}
+   */
+  getQueueState(options: Assets): Promise<{ index: number; count: number }>;
+
   /**
    * Pause an audio file
    * @since 5.0.0
@@ -331,6 +1165,17 @@ export interface NativeAudio {
    */
   getDuration(options: Assets): Promise<{ duration: number }>;
 
+  /**
+   * Read the duration, sample rate and channel count from the file headers (WAV, MP3, MP4, Ogg),
+   * without waiting for the asset to be prepared. Results are kept across launches.
+   * Android only.
+   *
+   * @since 7.4.0
+   * @param options {@link Assets}
+   * @returns {Promise<AssetMetadata>}
+   */
+  getMetadata(options: Assets): Promise<AssetMetadata>;
+
   /**
    * Check if an audio file is playing
    *
@@ -357,6 +1202,43 @@ export interface NativeAudio {
    */
   addListener(eventName: 'currentTime', listenerFunc: CurrentTimeListener): Promise<PluginListenerHandle>;
 
+  /**
+   * Listen for the current time of all playing assets, in one event per tick.
+   * Emits at the `timeUpdateRate` set with `configure` while audio is playing.
+   * Android only.
+   *
+   * @since 7.4.0
+   * return {@link TimeUpdateEvent}
+   */
+  addListener(eventName: 'timeUpdate', listenerFunc: TimeUpdateListener): Promise<PluginListenerHandle>;
+
+  /**
+   * Listen for the track changes of a queue
+   * Android only.
+   *
+   * @since 7.4.0
+   * return {@link QueueItemChangedEvent}
+   */
+  addListener(eventName: 'queueItemChanged', listenerFunc: QueueItemChangedListener): Promise<PluginListenerHandle>;
+
+  /**
+   * Listen for the progress of `preloadMany`
+   * Android only.
+   *
+   * @since 7.4.0
+   * return {@link PreloadProgressEvent}
+   */
+  addListener(eventName: 'preloadProgress', listenerFunc: PreloadProgressListener): Promise<PluginListenerHandle>;
+
+  /**
+   * Listen for the progress of `prefetch`, emitted a few times per second per file and once when it ends
+   * Android only.
+   *
+   * @since 7.4.0
+   * return {@link PrefetchProgressEvent}
+   */
+  addListener(eventName: 'prefetchProgress', listenerFunc: PrefetchProgressListener): Promise<PluginListenerHandle>;
+
   /**
    * Clear the audio cache for remote audio files
    * @since 6.5.0
@@ -364,6 +1246,56 @@ export interface NativeAudio {
    */
   clearCache(): Promise<void>;
 
+  /**
+   * Keep the cached content of a remote URL from being evicted, across launches
+   * Android only.
+   *
+   * @since 7.4.0
+   * @param options {@link CachePinOptions}
+   * @returns {Promise<void>}
+   */
+  pinCache(options: CachePinOptions): Promise<void>;
+
+  /**
+   * Let the cached content of a remote URL be evicted again
+   * Android only.
+   *
+   * @since 7.4.0
+   * @param options {@link CachePinOptions}
+   * @returns {Promise<void>}
+   */
+  unpinCache(options: CachePinOptions): Promise<void>;
+
+  /**
+   * Get the usage and the hit and miss counts of the remote file cache, counted since launch or the last `clearCache`
+   * Android only.
+   *
+   * @since 7.4.0
+   * @returns {Promise<CacheStats>}
+   */
+  getCacheStats(): Promise<CacheStats>;
+
+  /**
+   * Download remote files into the cache ahead of playback, without loading them, so their first play starts from disk.
+   * Resolves once the files are queued, `prefetchProgress` reports each download.
+   * Android only.
+   *
+   * @since 7.4.0
+   * @param options {@link PrefetchOptions}
+   * @returns {Promise<void>}
+   */
+  prefetch(options: PrefetchOptions): Promise<void>;
+
+  /**
+   * Cancel queued or running prefetches, what was already downloaded stays cached
+   * Android only.
+   *
+   * @since 7.4.0
+   * @param options {@link CancelPrefetchOptions}
+   * @returns {Promise<void>}
+   */
+  cancelPrefetch(options?: CancelPrefetchOptions): Promise<void>;
+
   /**
    * Set the debug mode
    * @since 6.5.0
@@ -4,14 +4,33 @@ import { AudioAsset } from './audio-asset';
 import type {
   ConfigureOptions,
   PreloadOptions,
+  PreloadHandle,
+  PreloadManyOptions,
+  PreloadManyResult,
   AssetPlayOptions,
+  AssetPlayAtOptions,
   Assets,
+  AssetMetadata,
+  CachePinOptions,
+  CacheStats,
+  PrefetchOptions,
+  CancelPrefetchOptions,
   AssetSetTime,
   AssetVolume,
   AssetRate,
   AssetStopOptions,
   AssetResumeOptions,
   AssetPauseOptions,
+  SequencerPattern,
+  SequencerStartOptions,
+  CrossfadeOptions,
+  BatchOptions,
+  GroupOptions,
+  GroupVolumeOptions,
+  GroupMuteOptions,
+  QueueOptions,
+  QueueAddOptions,
+  QueueIndexOptions,
 } from './definitions';
 import { NativeAudio } from './definitions';
 
@@ -123,7 +142,7 @@ export class NativeAudioWeb extends WebPlugin implements NativeAudio {
     }
   }
 
-  async preload(options: PreloadOptions): Promise<void> {
+  async preload(options: PreloadOptions): Promise<PreloadHandle> {
     this.logInfo(`Preloading audio asset with options: ${JSON.stringify(options)}`);
     if (NativeAudioWeb.AUDIO_ASSET_BY_ASSET_ID.has(options.assetId)) {
       throw 'AssetId already exists. Unload first if like to change!';
@@ -163,6 +182,7 @@ export class NativeAudioWeb extends WebPlugin implements NativeAudio {
       NativeAudioWeb.AUDIO_ASSET_BY_ASSET_ID.set(options.assetId, new AudioAsset(audio));
       this.setAudioAssetData(options.assetId, data);
     });
+    return {};
   }
   private onEnded(assetId: string): void {
     this.logDebug(`Playback ended for assetId: ${assetId}`);
@@ -256,6 +276,82 @@ export class NativeAudioWeb extends WebPlugin implements NativeAudio {
     this.linearRampGainNodeVolume(audio, 0, fadeDuration);
   }
 
+  async playAt(options: AssetPlayAtOptions): Promise<void> {
+    throw `playAt is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async preloadMany(options: PreloadManyOptions): Promise<PreloadManyResult> {
+    throw `preloadMany is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async getAudioTime(): Promise<{ audioTime: number }> {
+    throw 'getAudioTime is not supported for web';
+  }
+
+  async setPattern(options: SequencerPattern): Promise<void> {
+    throw `setPattern is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async startSequencer(options?: SequencerStartOptions): Promise<void> {
+    throw `startSequencer is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async stopSequencer(): Promise<void> {
+    throw 'stopSequencer is not supported for web';
+  }
+
+  async crossfade(options: CrossfadeOptions): Promise<void> {
+    throw `crossfade is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async batch(options: BatchOptions): Promise<void> {
+    throw `batch is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async setGroupVolume(options: GroupVolumeOptions): Promise<void> {
+    throw `setGroupVolume is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async muteGroup(options: GroupMuteOptions): Promise<void> {
+    throw `muteGroup is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async pauseGroup(options: GroupOptions): Promise<void> {
+    throw `pauseGroup is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async resumeGroup(options: GroupOptions): Promise<void> {
+    throw `resumeGroup is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async stopGroup(options: GroupOptions): Promise<void> {
+    throw `stopGroup is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async createQueue(options: QueueOptions): Promise<PreloadHandle> {
+    throw `createQueue is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async addToQueue(options: QueueAddOptions): Promise<void> {
+    throw `addToQueue is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async removeFromQueue(options: QueueIndexOptions): Promise<void> {
+    throw `removeFromQueue is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async skipQueue(options: QueueIndexOptions): Promise<void> {
+    throw `skipQueue is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async getQueueState(options: Assets): Promise<{ index: number; count: number }> {
+    throw `getQueueState is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async getMetadata(options: Assets): Promise<AssetMetadata> {
+    throw `getMetadata is not supported for web: ${JSON.stringify(options)}`;
+  }
+
   async loop(options: Assets): Promise<void> {
     this.logInfo(`Looping audio asset with options: ${JSON.stringify(options)}`);
     const audio: HTMLAudioElement = this.getAudioAsset(options.assetId).audio;
@@ -395,6 +491,26 @@ export class NativeAudioWeb extends WebPlugin implements NativeAudio {
     return;
   }
 
+  async pinCache(options: CachePinOptions): Promise<void> {
+    throw `pinCache is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async unpinCache(options: CachePinOptions): Promise<void> {
+    throw `unpinCache is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async getCacheStats(): Promise<CacheStats> {
+    throw 'getCacheStats is not supported for web';
+  }
+
+  async prefetch(options: PrefetchOptions): Promise<void> {
+    throw `prefetch is not supported for web: ${JSON.stringify(options)}`;
+  }
+
+  async cancelPrefetch(options?: CancelPrefetchOptions): Promise<void> {
+    throw `cancelPrefetch is not supported for web: ${JSON.stringify(options)}`;
+  }
+
   private getAudioAsset(assetId: string): AudioAsset {
     this.checkAssetId(assetId);
 